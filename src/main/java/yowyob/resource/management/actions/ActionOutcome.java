@@ -0,0 +1,29 @@
+package yowyob.resource.management.actions;
+
+import yowyob.resource.management.exceptions.EntityLockedException;
+
+/**
+ * Result of one action of a batch: the batch goes on when an action fails, so each failure is reported
+ * with its action instead of failing the whole batch.
+ */
+public record ActionOutcome(Action action, Throwable error) {
+
+    public static ActionOutcome success(Action action) {
+        return new ActionOutcome(action, null);
+    }
+
+    public static ActionOutcome failure(Action action, Throwable error) {
+        return new ActionOutcome(action, error);
+    }
+
+    public boolean succeeded() {
+        return error == null;
+    }
+
+    /**
+     * @return whether the action was not run because its entity stayed locked, so it can be tried again
+     */
+    public boolean contended() {
+        return error instanceof EntityLockedException;
+    }
+}
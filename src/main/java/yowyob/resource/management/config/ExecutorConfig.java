@@ -25,6 +25,12 @@ public class ExecutorConfig {
     @Value("${app.executor.resource.max-pool-size:20}")
     private int resourceExecutorMaxPoolSize;
 
+    @Value("${app.executor.scheduler.core-pool-size:4}")
+    private int schedulerWorkerCorePoolSize;
+
+    @Value("${app.executor.scheduler.max-pool-size:8}")
+    private int schedulerWorkerMaxPoolSize;
+
     @Value("${app.executor.queue-capacity:1000}")
     private int queueCapacity;
 
@@ -56,6 +62,20 @@ public class ExecutorConfig {
         return executor;
     }
 
+    @Bean(name = "eventSchedulerWorkerPool")
+    public ThreadPoolTaskExecutor eventSchedulerWorkerPool() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(schedulerWorkerCorePoolSize);
+        executor.setMaxPoolSize(schedulerWorkerMaxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("SchedulerWorker-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
     @Bean(name = "asyncExecutor")
     public Executor asyncExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -0,0 +1,69 @@
+package yowyob.resource.management.config;
+
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Strategy records carry their JSON in the value as raw bytes, handed as-is to the streaming parser.
+     * The key stays free for partitioning (tenant or entity ID).
+     */
+    @Bean(name = "strategyConsumerFactory")
+    public ConsumerFactory<String, byte[]> strategyConsumerFactory(KafkaProperties kafkaProperties,
+                                                                   ObjectProvider<SslBundles> sslBundles) {
+        return new DefaultKafkaConsumerFactory<>(
+                kafkaProperties.buildConsumerProperties(sslBundles.getIfAvailable()),
+                new StringDeserializer(),
+                new ByteArrayDeserializer()
+        );
+    }
+
+    @Bean(name = "strategyListenerContainerFactory")
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> strategyListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<String, byte[]> strategyConsumerFactory) {
+        return configure(configurer, strategyConsumerFactory);
+    }
+
+    /**
+     * Listener factory delivering a whole poll as a List of records.
+     * Offsets are acknowledged manually by the listener once every strategy of the batch has completed.
+     */
+    @Bean(name = "batchStrategyListenerContainerFactory")
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> batchStrategyListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<String, byte[]> strategyConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = configure(configurer, strategyConsumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    /**
+     * Applies the spring.kafka.listener.* properties through Boot's configurer, which only takes
+     * Object-typed factories, then hands the strategy consumer factory to the container.
+     */
+    @SuppressWarnings("unchecked")
+    private static ConcurrentKafkaListenerContainerFactory<String, byte[]> configure(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<String, byte[]> strategyConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, (ConsumerFactory<Object, Object>) (ConsumerFactory<?, ?>) strategyConsumerFactory);
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> strategyFactory =
+                (ConcurrentKafkaListenerContainerFactory<String, byte[]>) (ConcurrentKafkaListenerContainerFactory<?, ?>) factory;
+        strategyFactory.setConsumerFactory(strategyConsumerFactory);
+        return strategyFactory;
+    }
+}
@@ -27,7 +27,7 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.CONFLICT, ex.getMessage());
     }
 
-    @ExceptionHandler({InvalidActionClassException.class, InvalidEventClassException.class, InvalidEventException.class, InvalidJsonFormatException.class, MissingParameterException.class})
+    @ExceptionHandler({InvalidActionClassException.class, InvalidEventClassException.class, InvalidEventException.class, InvalidJsonFormatException.class, MissingParameterException.class, InvalidCursorException.class})
     public ResponseEntity<Map<String, String>> handleInvalidInputException(InvalidInputException ex) {
         logger.error(ex.getMessage());
         return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
@@ -39,6 +39,18 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    @ExceptionHandler(EntityLockedException.class)
+    public ResponseEntity<Map<String, String>> handleEntityLockedException(EntityLockedException ex) {
+        logger.error(ex.getMessage());
+        return buildResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    @ExceptionHandler(EventBusFullException.class)
+    public ResponseEntity<Map<String, String>> handleEventBusFullException(EventBusFullException ex) {
+        logger.error(ex.getMessage());
+        return buildResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGenericException(Exception ex) {
         logger.error(ex.getMessage());
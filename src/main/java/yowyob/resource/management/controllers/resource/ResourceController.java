@@ -9,6 +9,7 @@ import java.util.UUID;
 import java.time.LocalDateTime;
 
 import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.actions.enums.ActionClass;
 import yowyob.resource.management.models.resource.Resource;
 import yowyob.resource.management.services.product.ProductEntityManager;
 import yowyob.resource.management.actions.resource.operations.ResourceCreationAction;
@@ -73,4 +74,21 @@ public class ResourceController {
     public Mono<Void> scheduleDelete(@PathVariable UUID id, @RequestParam LocalDateTime startDateTime) {
         return this.productEntityManager.scheduleEvent(startDateTime, new ResourceDeletionAction(id));
     }
+
+    @PostMapping("/schedule/recurring/read/{id}")
+    public Mono<Void> scheduleRecurringRead(@PathVariable UUID id, @RequestParam LocalDateTime startDateTime,
+                                            @RequestParam String rule) {
+        return this.productEntityManager.scheduleRecurringEvent(startDateTime, rule, new ResourceReadingAction(id));
+    }
+
+    @PutMapping("/schedule/recurring/update")
+    public Mono<Void> scheduleRecurringUpdate(@RequestBody Resource resource, @RequestParam LocalDateTime startDateTime,
+                                              @RequestParam String rule) {
+        return this.productEntityManager.scheduleRecurringEvent(startDateTime, rule, new ResourceUpdateAction(resource));
+    }
+
+    @DeleteMapping("/schedule/recurring/{recurrenceId}")
+    public Mono<Void> unscheduleRecurring(@PathVariable UUID recurrenceId) {
+        return this.productEntityManager.unscheduleRecurringEvent(ActionClass.Resource, recurrenceId);
+    }
 }
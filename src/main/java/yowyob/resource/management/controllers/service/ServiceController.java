@@ -11,6 +11,7 @@ import reactor.core.publisher.Mono;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.actions.enums.ActionClass;
 import yowyob.resource.management.models.service.Services;
 import yowyob.resource.management.actions.service.ServiceAction;
 import yowyob.resource.management.services.product.ProductEntityManager;
@@ -79,4 +80,21 @@ public class ServiceController {
     public Mono<Void> scheduleDelete(@PathVariable UUID id, @RequestParam LocalDateTime startDateTime) {
         return this.productEntityManager.scheduleEvent(startDateTime, new ServiceDeletionAction(id));
     }
+
+    @PostMapping("/schedule/recurring/read/{id}")
+    public Mono<Void> scheduleRecurringRead(@PathVariable UUID id, @RequestParam LocalDateTime startDateTime,
+                                            @RequestParam String rule) {
+        return this.productEntityManager.scheduleRecurringEvent(startDateTime, rule, new ServiceReadingAction(id));
+    }
+
+    @PutMapping("/schedule/recurring/update")
+    public Mono<Void> scheduleRecurringUpdate(@RequestBody Services service, @RequestParam LocalDateTime startDateTime,
+                                              @RequestParam String rule) {
+        return this.productEntityManager.scheduleRecurringEvent(startDateTime, rule, new ServiceUpdateAction(service));
+    }
+
+    @DeleteMapping("/schedule/recurring/{recurrenceId}")
+    public Mono<Void> unscheduleRecurring(@PathVariable UUID recurrenceId) {
+        return this.productEntityManager.unscheduleRecurringEvent(ActionClass.Service, recurrenceId);
+    }
 }
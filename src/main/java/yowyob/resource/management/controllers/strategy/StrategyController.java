@@ -0,0 +1,34 @@
+package yowyob.resource.management.controllers.strategy;
+
+import reactor.core.publisher.Mono;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import yowyob.resource.management.services.strategy.StrategyResult;
+import yowyob.resource.management.services.strategy.StrategyDryRunner;
+import yowyob.resource.management.services.strategy.StrategyEntityManager;
+
+
+@RestController
+@RequestMapping("/strategy")
+public class StrategyController {
+
+    private final StrategyEntityManager strategyEntityManager;
+    private final StrategyDryRunner strategyDryRunner;
+
+    @Autowired
+    public StrategyController(StrategyEntityManager strategyEntityManager, StrategyDryRunner strategyDryRunner) {
+        this.strategyEntityManager = strategyEntityManager;
+        this.strategyDryRunner = strategyDryRunner;
+    }
+
+    /**
+     * @param dryRun when true, only returns the verdicts of the policies; nothing is executed nor scheduled
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<StrategyResult> executeStrategy(@RequestBody byte[] strategy,
+                                                @RequestParam(defaultValue = "false") boolean dryRun) {
+        return dryRun ? strategyDryRunner.dryRun(strategy) : strategyEntityManager.processStrategy(strategy);
+    }
+}
@@ -0,0 +1,61 @@
+package yowyob.resource.management.controllers.timeline;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+import java.time.LocalDateTime;
+
+import yowyob.resource.management.actions.enums.ActionType;
+import yowyob.resource.management.events.enums.EventClass;
+import yowyob.resource.management.services.scheduling.TimelinePage;
+import yowyob.resource.management.services.scheduling.TimelineQuery;
+import yowyob.resource.management.services.scheduling.ScheduledEventView;
+import yowyob.resource.management.services.scheduling.TimelineQueryService;
+
+@RestController
+@RequestMapping("/timeline")
+public class TimelineController {
+    private final TimelineQueryService timelineQueryService;
+
+    @Autowired
+    public TimelineController(TimelineQueryService timelineQueryService) {
+        this.timelineQueryService = timelineQueryService;
+    }
+
+    @GetMapping("/events")
+    public Mono<TimelinePage> getEvents(@RequestParam(required = false) UUID entityId,
+                                        @RequestParam(required = false) EventClass eventClass,
+                                        @RequestParam(required = false) ActionType actionType,
+                                        @RequestParam(required = false) LocalDateTime from,
+                                        @RequestParam(required = false) LocalDateTime to,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer limit) {
+        return timelineQueryService.page(new TimelineQuery(entityId, eventClass, actionType, from, to, cursor, limit));
+    }
+
+    @GetMapping(value = "/events/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ScheduledEventView> streamEvents(@RequestParam(required = false) UUID entityId,
+                                                 @RequestParam(required = false) EventClass eventClass,
+                                                 @RequestParam(required = false) ActionType actionType,
+                                                 @RequestParam(required = false) LocalDateTime from,
+                                                 @RequestParam(required = false) LocalDateTime to,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer limit) {
+        return timelineQueryService.events(new TimelineQuery(entityId, eventClass, actionType, from, to, cursor, limit))
+                .map(ScheduledEventView::of);
+    }
+
+    @GetMapping("/entity/{entityId}")
+    public Mono<TimelinePage> getEntityEvents(@PathVariable UUID entityId,
+                                              @RequestParam(required = false) ActionType actionType,
+                                              @RequestParam(required = false) LocalDateTime from,
+                                              @RequestParam(required = false) LocalDateTime to,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit) {
+        return timelineQueryService.page(new TimelineQuery(entityId, null, actionType, from, to, cursor, limit));
+    }
+}
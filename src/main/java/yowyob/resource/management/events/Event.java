@@ -16,6 +16,7 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 public abstract class Event extends ApplicationEvent implements Command {
+    protected final UUID eventId;
     protected final UUID entityId;
     protected final Action action;
     protected final EventClass eventClass;
@@ -23,20 +24,41 @@ public abstract class Event extends ApplicationEvent implements Command {
     private static final Logger logger = LoggerFactory.getLogger(Event.class);
 
     public Event(Object source, UUID entityId, Action action, EventClass eventClass, LocalDateTime eventStartDateTime) {
+        this(source, UUID.randomUUID(), entityId, action, eventClass, requireFuture(eventStartDateTime));
+        logger.info("New Event generated : EntityId={}, ActionType={}, EventClass={}, start={}",
+                entityId, action.getActionType(), eventClass, eventStartDateTime);
+    }
+
+    /**
+     * Rebuilds an event accepted earlier, e.g. read back from the scheduled-event store after a restart:
+     * it keeps its id and its start may have passed in the meantime.
+     */
+    protected Event(Object source, UUID eventId, UUID entityId, Action action, EventClass eventClass, LocalDateTime eventStartDateTime) {
         super(source);
+        this.eventId = eventId;
+        this.action = action;
+        this.entityId = entityId;
+        this.eventClass = eventClass;
+        this.eventStartDateTime = eventStartDateTime;
+    }
 
+    private static LocalDateTime requireFuture(LocalDateTime eventStartDateTime) {
         if (eventStartDateTime.isBefore(LocalDateTime.now())) {
             throw new InvalidEventException(
                     String.format("Cannot schedule event: Start date and time (%s) must be in the future.",
                             eventStartDateTime)
             );
         }
+        return eventStartDateTime;
+    }
 
-        this.action = action;
-        this.entityId = entityId;
-        this.eventClass = eventClass;
-        this.eventStartDateTime = eventStartDateTime;
-        logger.info("New Event generated : EntityId={}, ActionType={}, EventClass={}, start={}",
-                entityId, action.getActionType(), eventClass, eventStartDateTime);
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof Event event && eventId.equals(event.eventId);
+    }
+
+    @Override
+    public int hashCode() {
+        return eventId.hashCode();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package yowyob.resource.management.events.recurrence;
+
+public enum RecurrenceFrequency {
+    MINUTELY(60L),
+
+    HOURLY(3_600L),
+
+    DAILY(86_400L),
+
+    WEEKLY(604_800L);
+
+    private final long seconds;
+
+    RecurrenceFrequency(long seconds) { this.seconds = seconds; }
+
+    public long seconds() { return this.seconds; }
+}
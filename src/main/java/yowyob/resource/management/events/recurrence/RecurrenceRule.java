@@ -0,0 +1,139 @@
+package yowyob.resource.management.events.recurrence;
+
+import yowyob.resource.management.exceptions.invalid.InvalidEventException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Occurrences of a recurring event, written as a subset of an iCalendar RRULE:
+ * {@code FREQ=MINUTELY|HOURLY|DAILY|WEEKLY[;INTERVAL=n][;COUNT=n][;UNTIL=date]}. Occurrence {@code k} starts
+ * {@code k * INTERVAL} periods after the first one, so any occurrence, or the one nearest to a given time,
+ * is computed in constant time whatever the length of the rule.
+ */
+public final class RecurrenceRule {
+    private static final DateTimeFormatter BASIC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final LocalDateTime start;
+    private final RecurrenceFrequency frequency;
+    private final int interval;
+    private final long periodSeconds;
+    private final long lastIndex;
+    private final boolean bounded;
+
+    public RecurrenceRule(LocalDateTime start, RecurrenceFrequency frequency, int interval, Long count, LocalDateTime until) {
+        if (interval < 1 || (count != null && count < 1)) {
+            throw new InvalidEventException(String.format(
+                    "Invalid recurrence: interval (%d) and count (%s) must be positive.", interval, count));
+        }
+        if (until != null && until.isBefore(start)) {
+            throw new InvalidEventException(String.format(
+                    "Invalid recurrence: until (%s) is before the first occurrence (%s).", until, start));
+        }
+
+        this.start = start;
+        this.frequency = frequency;
+        this.interval = interval;
+        this.periodSeconds = frequency.seconds() * interval;
+        // An endless rule still stops at the last occurrence a LocalDateTime can hold
+        long last = ChronoUnit.SECONDS.between(start, LocalDateTime.MAX) / periodSeconds;
+        if (count != null) {
+            last = Math.min(last, count - 1);
+        }
+        if (until != null) {
+            last = Math.min(last, ChronoUnit.SECONDS.between(start, until) / periodSeconds);
+        }
+        this.lastIndex = last;
+        this.bounded = count != null || until != null;
+    }
+
+    public static RecurrenceRule parse(String rule, LocalDateTime start) {
+        RecurrenceFrequency frequency = null;
+        int interval = 1;
+        Long count = null;
+        LocalDateTime until = null;
+
+        try {
+            for (String part : rule.trim().split(";")) {
+                String[] entry = part.split("=", 2);
+                if (entry.length != 2) {
+                    throw new IllegalArgumentException(part);
+                }
+                String value = entry[1].trim();
+                switch (entry[0].trim().toUpperCase()) {
+                    case "FREQ" -> frequency = RecurrenceFrequency.valueOf(value.toUpperCase());
+                    case "INTERVAL" -> interval = Integer.parseInt(value);
+                    case "COUNT" -> count = Long.parseLong(value);
+                    case "UNTIL" -> until = parseDateTime(value);
+                    default -> throw new IllegalArgumentException(part);
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidEventException(String.format("Invalid recurrence rule '%s': %s", rule, e.getMessage()));
+        }
+
+        if (frequency == null) {
+            throw new InvalidEventException(String.format("Invalid recurrence rule '%s': FREQ is required.", rule));
+        }
+        return new RecurrenceRule(start, frequency, interval, count, until);
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        String dateTime = value.endsWith("Z") ? value.substring(0, value.length() - 1) : value;
+        return dateTime.contains("-") ? LocalDateTime.parse(dateTime) : LocalDateTime.parse(dateTime, BASIC_DATE_TIME);
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /**
+     * @return the index of the last occurrence; a rule without COUNT nor UNTIL ends at {@link LocalDateTime#MAX}
+     */
+    public long getLastIndex() {
+        return lastIndex;
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public LocalDateTime occurrence(long index) {
+        return start.plusSeconds(index * periodSeconds);
+    }
+
+    /**
+     * @return the index of the latest occurrence starting strictly before the given time, -1 when there is none
+     */
+    public long indexBefore(LocalDateTime time) {
+        if (!start.isBefore(time)) {
+            return -1;
+        }
+        long index = Math.min(ChronoUnit.SECONDS.between(start, time) / periodSeconds, lastIndex);
+        // The seconds between the two are truncated: an occurrence at exactly that time is not before it
+        return this.occurrence(index).isBefore(time) ? index : index - 1;
+    }
+
+    /**
+     * @return the index of the earliest occurrence starting strictly after the given time,
+     * {@code getLastIndex() + 1} when there is none
+     */
+    public long indexAfter(LocalDateTime time) {
+        if (time.isBefore(start)) {
+            return 0;
+        }
+        // The occurrence at or before the given time is followed by one at least a second after it
+        return Math.min(ChronoUnit.SECONDS.between(start, time) / periodSeconds, lastIndex) + 1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder rule = new StringBuilder("FREQ=").append(frequency).append(";INTERVAL=").append(interval);
+        if (this.isBounded()) {
+            rule.append(";COUNT=").append(lastIndex + 1);
+        }
+        return rule.toString();
+    }
+}
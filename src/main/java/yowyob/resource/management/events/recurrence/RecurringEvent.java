@@ -0,0 +1,66 @@
+package yowyob.resource.management.events.recurrence;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.actions.resource.ResourceAction;
+import yowyob.resource.management.actions.service.ServiceAction;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.enums.EventClass;
+import yowyob.resource.management.events.resource.ResourceEvent;
+import yowyob.resource.management.events.service.ServiceEvent;
+import yowyob.resource.management.exceptions.invalid.InvalidEventException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One action repeated by a {@link RecurrenceRule}. The updaters keep the rule and only turn the next few
+ * occurrences into {@link Event}s; occurrence ids are derived from the recurrence id and the index, so an
+ * occurrence built twice, e.g. once from the scheduled-event store and once from the rule, is the same event.
+ */
+@Getter
+public class RecurringEvent extends ApplicationEvent {
+    private final UUID recurrenceId;
+    private final UUID entityId;
+    private final Action action;
+    private final EventClass eventClass;
+    private final RecurrenceRule rule;
+
+    public RecurringEvent(Object source, Action action, RecurrenceRule rule) {
+        this(source, UUID.randomUUID(), action, requireFuture(rule));
+    }
+
+    /**
+     * Rebuilds a recurrence accepted earlier; its first occurrence may have passed in the meantime.
+     */
+    public RecurringEvent(Object source, UUID recurrenceId, Action action, RecurrenceRule rule) {
+        super(source);
+        this.recurrenceId = recurrenceId;
+        this.entityId = action.getEntityId();
+        this.action = action;
+        this.eventClass = switch (action.getActionClass()) {
+            case Resource -> EventClass.Resource;
+            case Service -> EventClass.Service;
+        };
+        this.rule = rule;
+    }
+
+    private static RecurrenceRule requireFuture(RecurrenceRule rule) {
+        if (rule.getStart().isBefore(LocalDateTime.now())) {
+            throw new InvalidEventException(String.format(
+                    "Cannot schedule recurring event: first occurrence (%s) must be in the future.", rule.getStart()));
+        }
+        return rule;
+    }
+
+    public Event occurrence(long index) {
+        UUID eventId = UUID.nameUUIDFromBytes((recurrenceId + "#" + index).getBytes(StandardCharsets.UTF_8));
+        LocalDateTime start = rule.occurrence(index);
+        return switch (eventClass) {
+            case Resource -> new ResourceEvent(this, eventId, (ResourceAction) action, start);
+            case Service -> new ServiceEvent(this, eventId, (ServiceAction) action, start);
+        };
+    }
+}
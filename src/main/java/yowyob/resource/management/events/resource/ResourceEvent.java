@@ -11,4 +11,8 @@ public class ResourceEvent extends Event {
     public ResourceEvent(Object source, ResourceAction resourceAction, LocalDateTime eventStartDateTime) {
         super(source, resourceAction.getEntityId(), resourceAction, EventClass.Resource, eventStartDateTime);
     }
+
+    public ResourceEvent(Object source, UUID eventId, ResourceAction resourceAction, LocalDateTime eventStartDateTime) {
+        super(source, eventId, resourceAction.getEntityId(), resourceAction, EventClass.Resource, eventStartDateTime);
+    }
 }
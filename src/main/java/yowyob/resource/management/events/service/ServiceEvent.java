@@ -11,4 +11,8 @@ public class ServiceEvent extends Event {
     public ServiceEvent(Object source, ServiceAction serviceAction, LocalDateTime eventStartDateTime) {
         super(source, serviceAction.getEntityId(), serviceAction, EventClass.Service, eventStartDateTime);
     }
-}
\ No newline at end of file
+
+    public ServiceEvent(Object source, UUID eventId, ServiceAction serviceAction, LocalDateTime eventStartDateTime) {
+        super(source, eventId, serviceAction.getEntityId(), serviceAction, EventClass.Service, eventStartDateTime);
+    }
+}
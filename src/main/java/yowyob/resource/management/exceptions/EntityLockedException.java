@@ -0,0 +1,13 @@
+package yowyob.resource.management.exceptions;
+
+import java.util.UUID;
+
+public class EntityLockedException extends RuntimeException {
+    public EntityLockedException(UUID entityId, UUID ownerId) {
+        super(String.format("Entity %s is locked by strategy %s", entityId, ownerId));
+    }
+
+    public EntityLockedException(String message) {
+        super(message);
+    }
+}
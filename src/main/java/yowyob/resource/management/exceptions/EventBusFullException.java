@@ -0,0 +1,7 @@
+package yowyob.resource.management.exceptions;
+
+public class EventBusFullException extends RuntimeException {
+    public EventBusFullException(String message) {
+        super(message);
+    }
+}
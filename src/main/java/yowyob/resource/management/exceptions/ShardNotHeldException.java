@@ -0,0 +1,10 @@
+package yowyob.resource.management.exceptions;
+
+import java.util.UUID;
+
+public class ShardNotHeldException extends RuntimeException {
+    public ShardNotHeldException(UUID entityId, int shard) {
+        super(String.format("Entity %s belongs to scheduler shard %d, held by another node: its events cannot be scheduled here",
+                entityId, shard));
+    }
+}
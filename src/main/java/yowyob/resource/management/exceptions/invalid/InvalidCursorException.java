@@ -0,0 +1,8 @@
+package yowyob.resource.management.exceptions.invalid;
+
+public class InvalidCursorException extends InvalidInputException {
+
+    public InvalidCursorException(String cursor, Throwable t) {
+        super(String.format("Invalid pagination cursor: '%s'. Use the nextCursor of the previous page.", cursor), t);
+    }
+}
@@ -0,0 +1,39 @@
+package yowyob.resource.management.models.scheduling;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.CassandraType;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+import yowyob.resource.management.events.enums.EventClass;
+
+import java.util.UUID;
+
+/**
+ * Durable copy of a recurring event, kept until its last occurrence has fired or it has been unscheduled.
+ * The payload is its first occurrence serialized by the strategy builder; the rule is kept as written.
+ */
+@Table("recurring_event")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringEventRecord {
+
+    @PrimaryKey("recurrence_id")
+    private UUID recurrenceId;
+
+    @Column("entity_id")
+    private UUID entityId;
+
+    @Column("event_class")
+    @CassandraType(type = CassandraType.Name.TEXT)
+    private EventClass eventClass;
+
+    @Column("rule")
+    private String rule;
+
+    @Column("payload")
+    private String payload;
+}
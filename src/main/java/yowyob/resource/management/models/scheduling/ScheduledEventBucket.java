@@ -0,0 +1,20 @@
+package yowyob.resource.management.models.scheduling;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+/**
+ * Index of the non-empty partitions of {@code scheduled_event}, so the startup loader reads only those.
+ */
+@Table("scheduled_event_bucket")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledEventBucket {
+
+    @PrimaryKey
+    private ScheduledEventBucketKey key;
+}
@@ -0,0 +1,36 @@
+package yowyob.resource.management.models.scheduling;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.CassandraType;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+import yowyob.resource.management.events.enums.EventClass;
+
+import java.util.UUID;
+
+/**
+ * Durable copy of a scheduled event, kept until the event has fired or has been unscheduled.
+ * The payload is the event serialized by the strategy builder.
+ */
+@Table("scheduled_event")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledEventRecord {
+
+    @PrimaryKey
+    private ScheduledEventKey key;
+
+    @Column("entity_id")
+    private UUID entityId;
+
+    @Column("event_class")
+    @CassandraType(type = CassandraType.Name.TEXT)
+    private EventClass eventClass;
+
+    @Column("payload")
+    private String payload;
+}
@@ -0,0 +1,25 @@
+package yowyob.resource.management.models.scheduling;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+/**
+ * Lease of a scheduler shard. Rows are written with a TTL by lightweight transactions only, so a lease
+ * that is not renewed disappears and the shard becomes free.
+ */
+@Table("scheduler_lease")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerLease {
+
+    @PrimaryKey("shard")
+    private int shard;
+
+    @Column("owner")
+    private String owner;
+}
@@ -0,0 +1,20 @@
+package yowyob.resource.management.models.scheduling;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+/**
+ * Registration of a live scheduler node, written with a TTL and renewed with its leases.
+ */
+@Table("scheduler_node")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerNode {
+
+    @PrimaryKey("node_id")
+    private String nodeId;
+}
@@ -0,0 +1,34 @@
+package yowyob.resource.management.models.scheduling;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.util.UUID;
+
+/**
+ * Event waiting in the inbox of a shard for the holder of that shard, kept until the holder has handled it.
+ * The payload is the event, or the first occurrence of a recurring event, serialized by the strategy builder;
+ * the rule of a recurring event is kept as written.
+ */
+@Table("scheduler_inbox")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardHandOffRecord {
+
+    @PrimaryKey
+    private ShardHandOffKey key;
+
+    @Column("recurrence_id")
+    private UUID recurrenceId;
+
+    @Column("rule")
+    private String rule;
+
+    @Column("payload")
+    private String payload;
+}
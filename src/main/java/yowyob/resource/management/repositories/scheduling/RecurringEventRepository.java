@@ -0,0 +1,10 @@
+package yowyob.resource.management.repositories.scheduling;
+
+import org.springframework.data.cassandra.repository.ReactiveCassandraRepository;
+import yowyob.resource.management.models.scheduling.RecurringEventRecord;
+
+import java.util.UUID;
+
+
+public interface RecurringEventRepository extends ReactiveCassandraRepository<RecurringEventRecord, UUID> {
+}
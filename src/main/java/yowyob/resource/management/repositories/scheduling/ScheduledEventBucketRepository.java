@@ -0,0 +1,12 @@
+package yowyob.resource.management.repositories.scheduling;
+
+import org.springframework.data.cassandra.repository.ReactiveCassandraRepository;
+import reactor.core.publisher.Flux;
+import yowyob.resource.management.models.scheduling.ScheduledEventBucket;
+import yowyob.resource.management.models.scheduling.ScheduledEventBucketKey;
+
+
+public interface ScheduledEventBucketRepository extends ReactiveCassandraRepository<ScheduledEventBucket, ScheduledEventBucketKey> {
+
+    Flux<ScheduledEventBucket> findByKeyShard(int shard);
+}
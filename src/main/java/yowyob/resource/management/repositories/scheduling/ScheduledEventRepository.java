@@ -0,0 +1,12 @@
+package yowyob.resource.management.repositories.scheduling;
+
+import org.springframework.data.cassandra.repository.ReactiveCassandraRepository;
+import reactor.core.publisher.Flux;
+import yowyob.resource.management.models.scheduling.ScheduledEventKey;
+import yowyob.resource.management.models.scheduling.ScheduledEventRecord;
+
+
+public interface ScheduledEventRepository extends ReactiveCassandraRepository<ScheduledEventRecord, ScheduledEventKey> {
+
+    Flux<ScheduledEventRecord> findByKeyBucketHourAndKeyShard(long bucketHour, int shard);
+}
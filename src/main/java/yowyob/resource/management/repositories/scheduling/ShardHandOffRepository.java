@@ -0,0 +1,12 @@
+package yowyob.resource.management.repositories.scheduling;
+
+import org.springframework.data.cassandra.repository.ReactiveCassandraRepository;
+import reactor.core.publisher.Flux;
+import yowyob.resource.management.models.scheduling.ShardHandOffKey;
+import yowyob.resource.management.models.scheduling.ShardHandOffRecord;
+
+
+public interface ShardHandOffRepository extends ReactiveCassandraRepository<ShardHandOffRecord, ShardHandOffKey> {
+
+    Flux<ShardHandOffRecord> findByKeyShard(int shard);
+}
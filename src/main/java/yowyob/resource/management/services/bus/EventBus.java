@@ -0,0 +1,225 @@
+package yowyob.resource.management.services.bus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.recurrence.RecurringEvent;
+import yowyob.resource.management.exceptions.EventBusFullException;
+import yowyob.resource.management.services.interfaces.updaters.Updater;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands the scheduled events over to the updaters. A publication only appends the event to the bounded ring of
+ * one worker thread and returns, so the caller is acknowledged without waiting for the policy checks. Events of
+ * one entity always go to the same worker and reach the updaters in publication order. When a ring is full the
+ * {@link OverflowPolicy} decides; no policy ever parks the caller's thread.
+ */
+@Component
+public class EventBus {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final Duration BLOCK_RETRY_DELAY = Duration.ofMillis(1);
+
+    private final List<Updater> updaters;
+    private final Worker[] workers;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration blockTimeout;
+    private final Counter rejectedCounter;
+    private final Counter droppedCounter;
+    private volatile boolean running = true;
+    private static final Logger logger = LoggerFactory.getLogger(EventBus.class);
+
+    @Autowired
+    public EventBus(List<Updater> updaters,
+                    MeterRegistry meterRegistry,
+                    @Value("${app.event-bus.workers:4}") int workerCount,
+                    @Value("${app.event-bus.capacity:65536}") int capacity,
+                    @Value("${app.event-bus.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+                    @Value("${app.event-bus.block-timeout-ms:1000}") long blockTimeoutMs,
+                    @Value("${app.event-bus.max-in-flight:256}") int maxInFlight) {
+        this.updaters = List.copyOf(updaters);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeout = Duration.ofMillis(blockTimeoutMs);
+        this.rejectedCounter = Counter.builder("event.bus.overflow")
+                .description("Events refused or dropped because the ring of their worker was full")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("event.bus.overflow")
+                .description("Events refused or dropped because the ring of their worker was full")
+                .tag("outcome", "dropped")
+                .register(meterRegistry);
+
+        this.workers = new Worker[Math.max(1, workerCount)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i, Math.max(2, capacity / workers.length), maxInFlight);
+        }
+        Gauge.builder("event.bus.depth", this, EventBus::depth)
+                .description("Events queued and not yet handed to the updaters")
+                .register(meterRegistry);
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+        logger.info("EventBus started with {} workers of {} slots, overflow policy {}",
+                workers.length, workers[0].ring.capacity(), overflowPolicy);
+    }
+
+    public Mono<Void> publish(Event event) {
+        return this.publish(event.getEntityId(), event);
+    }
+
+    public Mono<Void> publish(RecurringEvent recurringEvent) {
+        return this.publish(recurringEvent.getEntityId(), recurringEvent);
+    }
+
+    private Mono<Void> publish(UUID entityId, Object event) {
+        return Mono.defer(() -> {
+            Worker worker = workers[this.workerOf(entityId)];
+            if (worker.offer(event)) {
+                return Mono.empty();
+            }
+
+            return switch (overflowPolicy) {
+                case REJECT -> {
+                    rejectedCounter.increment();
+                    yield Mono.error(this.full(worker));
+                }
+                case DROP_OLDEST -> {
+                    worker.offerDroppingOldest(event);
+                    yield Mono.empty();
+                }
+                case BLOCK -> Mono.fromCallable(() -> worker.offer(event) ? Boolean.TRUE : null)
+                        .repeatWhenEmpty(attempts -> attempts.concatMap(attempt -> Mono.delay(BLOCK_RETRY_DELAY)))
+                        .timeout(blockTimeout)
+                        .onErrorMap(TimeoutException.class, e -> {
+                            rejectedCounter.increment();
+                            return this.full(worker);
+                        })
+                        .then();
+            };
+        });
+    }
+
+    private EventBusFullException full(Worker worker) {
+        return new EventBusFullException(String.format(
+                "Event bus worker %d is full (%d events queued), try again later", worker.index, worker.ring.size()));
+    }
+
+    private int workerOf(UUID entityId) {
+        if (entityId == null) {
+            return 0;
+        }
+        int hash = entityId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), workers.length);
+    }
+
+    private double depth() {
+        long depth = 0;
+        for (Worker worker : workers) {
+            depth += worker.ring.size();
+        }
+        return depth;
+    }
+
+    private Mono<Void> dispatch(Object event) {
+        if (event instanceof Event scheduledEvent) {
+            return Flux.fromIterable(updaters).concatMap(updater -> updater.handleEvent(scheduledEvent)).then();
+        } else if (event instanceof RecurringEvent recurringEvent) {
+            return Flux.fromIterable(updaters).concatMap(updater -> updater.handleRecurringEvent(recurringEvent)).then();
+        }
+        return Mono.empty();
+    }
+
+    /**
+     * Stops accepting work and lets each worker drain its ring before it exits.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+        for (Worker worker : workers) {
+            worker.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        logger.info("EventBus stopped");
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+        private final RingBuffer<Object> ring;
+        private final Semaphore inFlight;
+        private final Thread thread;
+        private volatile boolean parked;
+
+        private Worker(int index, int capacity, int maxInFlight) {
+            this.index = index;
+            this.ring = new RingBuffer<>(capacity);
+            this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+            this.thread = new Thread(this, "event-bus-worker-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private boolean offer(Object event) {
+            if (!ring.offer(event)) {
+                return false;
+            }
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+            return true;
+        }
+
+        private void offerDroppingOldest(Object event) {
+            while (!this.offer(event)) {
+                Object dropped = ring.poll();
+                if (dropped != null) {
+                    droppedCounter.increment();
+                    logger.warn("Event bus worker {} is full, dropped the oldest event: {}", index, dropped);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running || !ring.isEmpty()) {
+                Object event = ring.poll();
+                if (event == null) {
+                    // Flag first, check after: a producer either sees the flag or its event is seen here
+                    parked = true;
+                    if (ring.isEmpty() && running) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    parked = false;
+                    continue;
+                }
+
+                // Bounds the handlings in flight, waiting on this worker's own thread only
+                inFlight.acquireUninterruptibly();
+                Mono<Void> handling;
+                try {
+                    handling = dispatch(event);
+                } catch (RuntimeException e) {
+                    handling = Mono.error(e);
+                }
+                handling.doFinally(signal -> inFlight.release())
+                        .subscribe(null, error -> logger.error("Event bus worker {} failed to handle {}: {}",
+                                index, event, error.getMessage()));
+            }
+        }
+    }
+}
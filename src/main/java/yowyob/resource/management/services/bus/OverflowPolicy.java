@@ -0,0 +1,15 @@
+package yowyob.resource.management.services.bus;
+
+/**
+ * What {@link EventBus#publish} does when the ring of the target worker is full.
+ */
+public enum OverflowPolicy {
+    /** Fails the publication with {@link yowyob.resource.management.exceptions.EventBusFullException}. */
+    REJECT,
+
+    /** Drops the oldest queued event to make room; the publication always succeeds. */
+    DROP_OLDEST,
+
+    /** Waits for room without holding the caller's thread, then fails once the block timeout has elapsed. */
+    BLOCK
+}
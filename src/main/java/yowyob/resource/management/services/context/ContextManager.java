@@ -3,7 +3,11 @@ package yowyob.resource.management.services.context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.stereotype.Service;
@@ -15,110 +19,249 @@ import yowyob.resource.management.services.service.ServiceActionExecutor;
 import yowyob.resource.management.services.resource.ResourceActionExecutor;
 import yowyob.resource.management.exceptions.invalid.InvalidEventClassException;
 import yowyob.resource.management.exceptions.invalid.InvalidActionClassException;
-import yowyob.resource.management.services.context.updaters.UpdaterContextManager;
+import yowyob.resource.management.services.context.locks.EntityLockManager;
+import yowyob.resource.management.services.context.locks.EntityLockManager.EntityLocks;
 import yowyob.resource.management.services.context.executors.ExecutorContextManager;
+import yowyob.resource.management.services.context.journal.JournaledStrategy;
+import yowyob.resource.management.services.context.journal.UndoJournal;
+import yowyob.resource.management.services.context.snapshot.PreImageLoader;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
 import yowyob.resource.management.services.service.ServiceUpdater;
-import yowyob.resource.management.services.cache.ReactiveCacheService;
+import yowyob.resource.management.services.strategy.StrategyBuilder;
+import yowyob.resource.management.services.strategy.StrategyConverter;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Creates one {@link StrategyContext} per strategy. A context holds the entity locks of its strategy
+ * for its whole lifetime, so strategies on disjoint entities run side by side and a rollback only
+ * undoes the commands of the strategy that failed. Every undo command is also written ahead to the
+ * {@link UndoJournal}, so strategies cut short by a crash are rolled back at the next startup.
+ */
 @Service
 public class ContextManager {
-    private final ContextStack contextStack;
-    private final UpdaterContextManager updaterContextManager;
     private final ExecutorContextManager executorContextManager;
     private final ResourceActionExecutor resourceActionExecutor;
     private final ServiceActionExecutor serviceActionExecutor;
     private final ServiceUpdater serviceUpdater;
     private final ResourceUpdater resourceUpdater;
-    private final ReactiveCacheService reactiveCacheService;
+    private final EntityLockManager entityLockManager;
+    private final UndoJournal undoJournal;
+    private final StrategyBuilder strategyBuilder;
+    private final StrategyConverter strategyConverter;
+    private final PreImageLoader preImageLoader;
+    private final int rollbackConcurrency;
 
     private static final Logger logger = LoggerFactory.getLogger(ContextManager.class);
-    private static final String CURRENT_CONTEXT_KEY = "execution-contexts:current-context";
 
     @Autowired
     public ContextManager(ExecutorContextManager executorContextManager,
-                          UpdaterContextManager updaterContextManager,
-                          ContextStack contextStack,
                           ResourceActionExecutor resourceActionExecutor,
                           ServiceActionExecutor serviceActionExecutor,
                           ServiceUpdater serviceUpdater,
                           ResourceUpdater resourceUpdater,
-                          ReactiveCacheService reactiveCacheService) {
+                          EntityLockManager entityLockManager,
+                          UndoJournal undoJournal,
+                          StrategyBuilder strategyBuilder,
+                          StrategyConverter strategyConverter,
+                          PreImageLoader preImageLoader,
+                          @Value("${app.strategy.rollback-concurrency:8}") int rollbackConcurrency) {
         this.executorContextManager = executorContextManager;
-        this.updaterContextManager = updaterContextManager;
-        this.contextStack = contextStack;
         this.resourceActionExecutor = resourceActionExecutor;
         this.serviceActionExecutor = serviceActionExecutor;
         this.resourceUpdater = resourceUpdater;
         this.serviceUpdater = serviceUpdater;
-        this.reactiveCacheService = reactiveCacheService;
+        this.entityLockManager = entityLockManager;
+        this.undoJournal = undoJournal;
+        this.strategyBuilder = strategyBuilder;
+        this.strategyConverter = strategyConverter;
+        this.preImageLoader = preImageLoader;
+        this.rollbackConcurrency = rollbackConcurrency;
+    }
+
+    /**
+     * Opens a context holding the locks of every given entity. Waits behind other holders in FIFO order
+     * and fails with {@link yowyob.resource.management.exceptions.EntityLockedException} on timeout.
+     * The pre-images of the entities targeted by the actions are loaded once the locks are held, so no
+     * other strategy can change them before this one is done. The locks are released if the context cannot
+     * be opened or its caller cancels before it is.
+     */
+    public Mono<StrategyContext> open(UUID strategyId, Set<UUID> entityIds, List<? extends Command> commands) {
+        return Mono.usingWhen(
+                        entityLockManager.acquire(entityIds),
+                        locks -> preImageLoader.load(commands)
+                                .map(snapshot -> {
+                                    undoJournal.begin(strategyId);
+                                    return new StrategyContext(strategyId, entityIds, locks, snapshot);
+                                }),
+                        // Once open, the locks belong to the context and are released by close()
+                        locks -> Mono.empty(),
+                        (locks, error) -> locks.releaseAsync(),
+                        EntityLocks::releaseAsync)
+                .doOnNext(context -> logger.info("Context opened for strategy {} holding {} entities",
+                        strategyId, context.getLockedEntities().size()));
+    }
+
+    public Mono<Void> close(StrategyContext context) {
+        return Mono.fromRunnable(() -> {
+            context.getSnapshot().discard();
+            context.getLocks().release();
+            logger.info("Context closed for strategy {}", context.getStrategyId());
+        });
     }
 
-    public void init() {
-        logger.info("Starting context initialization");
-        executorContextManager.init();
-        updaterContextManager.init();
-        logger.info("Successfully initialized context");
+    public Mono<Void> commit(StrategyContext context) {
+        return Mono.fromRunnable(() -> {
+            undoJournal.commit(context.getStrategyId());
+            context.getSnapshot().discard();
+        });
     }
 
-    public void pushAction(Action action) {
-        contextStack.push(action);
-        
-        // Invalider le cache du contexte courant de manière réactive
-        reactiveCacheService.evict(CURRENT_CONTEXT_KEY)
-                .doOnSuccess(v -> logger.debug("Cache invalidated for current context after pushing action"))
-                .doOnError(error -> logger.warn("Failed to invalidate cache for current context: {}", error.getMessage()))
-                .subscribe();
-        
-        logger.info("Action : Class= {}, Type={}, entityId={} has been pushed to the ContextManager",
-                action.getActionClass(), action.getActionType(), action.getEntityId());
+    public void pushAction(StrategyContext context, Action action) {
+        undoJournal.appendUndoAction(context.getStrategyId(),
+                strategyBuilder.buildFromActions(List.of(action)).getBytes(StandardCharsets.UTF_8));
+        context.push(action);
+        logger.info("Action : Class= {}, Type={}, entityId={} has been pushed to the context of strategy {}",
+                action.getActionClass(), action.getActionType(), action.getEntityId(), context.getStrategyId());
     }
 
-    public void pushEvent(Event event) {
-        contextStack.push(event);
-        
-        // Invalider le cache du contexte courant de manière réactive
-        reactiveCacheService.evict(CURRENT_CONTEXT_KEY)
-                .doOnSuccess(v -> logger.debug("Cache invalidated for current context after pushing event"))
-                .doOnError(error -> logger.warn("Failed to invalidate cache for current context: {}", error.getMessage()))
-                .subscribe();
-        
-        logger.info("Event : Class= {}, ActionType={}, entityId={}, start={} has been pushed to ContextManager",
-                event.getEventClass(), event.getAction().getActionType(), event.getEntityId(), event.getEventStartDateTime());
+    public void pushEvent(StrategyContext context, Event event) {
+        undoJournal.appendUndoEvent(context.getStrategyId(),
+                strategyBuilder.buildFromEvents(List.of(event)).getBytes(StandardCharsets.UTF_8));
+        context.push(event);
+        logger.info("Event : Class= {}, ActionType={}, entityId={}, start={} has been pushed to the context of strategy {}",
+                event.getEventClass(), event.getAction().getActionType(), event.getEntityId(), event.getEventStartDateTime(),
+                context.getStrategyId());
     }
 
-    public void rollback() {
-        logger.info("Starting Context rollback");
-        while (!contextStack.empty()) {
-            Command command = contextStack.pop();
-
-            if (command instanceof Action action) {
-                switch (action.getActionClass()) {
-                    case Resource -> this.resourceActionExecutor.forceActionExecution(action);
-                    case Service -> this.serviceActionExecutor.forceActionExecution(action);
-                    default -> throw new InvalidActionClassException(action);
-                }
-                logger.info("Reverse Action : Class= {}, Type={}, entityId={} has been successfully executed",
-                        action.getActionClass(), action.getActionType(), action.getEntityId());
-
-            } else if (command instanceof Event event) {
-                switch (event.getEventClass()) {
-                    case Resource -> resourceUpdater.unscheduleEvent(event);
-                    case Service -> serviceUpdater.unscheduleEvent(event);
-                    default -> throw new InvalidEventClassException(event);
-                }
-
-                logger.info("Event : Class= {}, ActionType={}, entityId={}, start={} has been successfully removed from timeline",
-                        event.getEventClass(), event.getAction().getActionType(), event.getEntityId(), event.getEventStartDateTime());
+    public Mono<Void> pushReverseAction(StrategyContext context, Action action) {
+        return executorContextManager.generateReverseAction(action, context.getSnapshot())
+                .doOnNext(reverseAction -> this.pushAction(context, reverseAction))
+                .then();
+    }
+
+    /**
+     * Undoes the commands of a strategy. Each entity's undo commands form a chain replayed newest first;
+     * chains of distinct entities are independent and run side by side, so the rollback lasts as long as
+     * the longest chain. Each chain rolled back is recorded in the journal. A failed compensation does not stop
+     * the other chains: the error is raised once all of them are done and the strategy is stranded in the journal
+     * without ABORT record, to be retried at the next startup on the chains that did not finish.
+     */
+    public Mono<Void> rollback(StrategyContext context) {
+        return Mono.defer(() -> {
+            Map<UUID, List<Command>> chains = new LinkedHashMap<>();
+            Command command;
+            while ((command = context.pop()) != null) {
+                chains.computeIfAbsent(entityOf(command), id -> new ArrayList<>()).add(command);
             }
+            logger.info("Starting rollback of strategy {}: {} entity chains", context.getStrategyId(), chains.size());
+
+            return Flux.fromIterable(chains.entrySet())
+                    .flatMapDelayError(chain -> Flux.fromIterable(chain.getValue())
+                            .concatMap(this::revert)
+                            .then(Mono.fromRunnable(() -> {
+                                if (chain.getKey() != null) {
+                                    undoJournal.chainDone(context.getStrategyId(), chain.getKey());
+                                }
+                            })), rollbackConcurrency, 1)
+                    .then(Mono.<Void>fromRunnable(() -> undoJournal.abort(context.getStrategyId())))
+                    .doOnError(error -> undoJournal.strand(context.getStrategyId()))
+                    .doOnSuccess(v -> logger.info("Strategy {} has been successfully rolled back", context.getStrategyId()));
+        });
+    }
+
+    /**
+     * Rolls back the strategies the journal found without COMMIT nor ABORT record, i.e. interrupted by a crash.
+     * Runs before the scheduled events are re-armed: the events of these strategies are removed from the
+     * scheduled-event store first, so they are never restored.
+     */
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverIncompleteStrategies() {
+        List<JournaledStrategy> incomplete = undoJournal.getIncompleteStrategies();
+        if (incomplete.isEmpty()) {
+            return;
         }
 
-        logger.info("Context has been successfully rolled back");
+        logger.warn("Rolling back {} strategies interrupted before completion", incomplete.size());
+        Flux.fromIterable(incomplete)
+                .concatMap(strategy -> this.recover(strategy)
+                        .onErrorResume(error -> {
+                            undoJournal.strand(strategy.getStrategyId());
+                            logger.error("Recovery of strategy {} failed, it stays in the journal: {}",
+                                    strategy.getStrategyId(), error.getMessage());
+                            return Mono.empty();
+                        }))
+                .then()
+                .block();
     }
 
-    public void clear() {
-        logger.info("Starting context clearing");
-        executorContextManager.clear();
-        updaterContextManager.clear();
-        logger.info("Successfully cleared context");
+    private Mono<Void> recover(JournaledStrategy strategy) {
+        return Mono.fromCallable(() -> {
+                    List<Command> undoCommands = new ArrayList<>();
+                    for (byte[] payload : strategy.getUndoEvents()) {
+                        undoCommands.addAll(strategyConverter.restoreEvents(payload));
+                    }
+                    for (byte[] payload : strategy.getUndoActions()) {
+                        undoCommands.addAll(strategyConverter.convertToCommandList(payload));
+                    }
+                    // Chains rolled back before the strategy was stranded are not replayed: later writes went through
+                    undoCommands.removeIf(command -> strategy.getRolledBackEntities().contains(entityOf(command)));
+                    return undoCommands;
+                })
+                .flatMap(undoCommands -> {
+                    Set<UUID> entityIds = undoCommands.stream().map(ContextManager::entityOf).collect(Collectors.toSet());
+                    return Mono.usingWhen(
+                            entityLockManager.acquire(entityIds),
+                            locks -> {
+                                StrategyContext context = new StrategyContext(strategy.getStrategyId(), entityIds, locks,
+                                        PreImageSnapshot.empty());
+                                undoCommands.forEach(context::push);
+                                return this.rollback(context);
+                            },
+                            EntityLocks::releaseAsync);
+                });
+    }
+
+    private static UUID entityOf(Command command) {
+        if (command instanceof Action action) {
+            return action.getEntityId();
+        } else if (command instanceof Event event) {
+            return event.getEntityId();
+        }
+        return null;
+    }
+
+    private Mono<Void> revert(Command command) {
+        if (command instanceof Action action) {
+            Mono<?> execution = switch (action.getActionClass()) {
+                case Resource -> this.resourceActionExecutor.forceActionExecution(action);
+                case Service -> this.serviceActionExecutor.forceActionExecution(action);
+                default -> Mono.error(new InvalidActionClassException(action));
+            };
+
+            return execution.then()
+                    .doOnSuccess(v -> logger.info("Reverse Action : Class= {}, Type={}, entityId={} has been successfully executed",
+                            action.getActionClass(), action.getActionType(), action.getEntityId()));
+
+        } else if (command instanceof Event event) {
+            Mono<Void> removal = switch (event.getEventClass()) {
+                case Resource -> resourceUpdater.unscheduleEvent(event);
+                case Service -> serviceUpdater.unscheduleEvent(event);
+                default -> Mono.error(new InvalidEventClassException(event));
+            };
+
+            return removal.doOnSuccess(v -> logger.info("Event : Class= {}, ActionType={}, entityId={}, start={} has been successfully removed from timeline",
+                    event.getEventClass(), event.getAction().getActionType(), event.getEntityId(), event.getEventStartDateTime()));
+        }
+
+        return Mono.empty();
     }
 }
@@ -0,0 +1,50 @@
+package yowyob.resource.management.services.context;
+
+import lombok.Getter;
+import yowyob.resource.management.commons.Command;
+import yowyob.resource.management.services.context.locks.EntityLockManager.EntityLocks;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
+
+import java.util.Deque;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Execution context of a single strategy: its undo stack, the entities it holds and their pre-images.
+ * Lanes of the same strategy push concurrently, hence the concurrent deque.
+ */
+@Getter
+public class StrategyContext {
+    private final UUID strategyId;
+    private final Set<UUID> lockedEntities;
+    private final EntityLocks locks;
+    private final PreImageSnapshot snapshot;
+    private final Deque<Command> undoStack = new ConcurrentLinkedDeque<>();
+
+    public StrategyContext(UUID strategyId, Set<UUID> lockedEntities, EntityLocks locks, PreImageSnapshot snapshot) {
+        this.strategyId = strategyId;
+        this.lockedEntities = Set.copyOf(lockedEntities);
+        this.locks = locks;
+        this.snapshot = snapshot;
+    }
+
+    public void push(Command command) {
+        this.undoStack.addFirst(command);
+    }
+
+    /**
+     * @return the most recent undo command, or null once the stack is empty
+     */
+    public Command pop() {
+        return this.undoStack.pollFirst();
+    }
+
+    public boolean holds(UUID entityId) {
+        return this.lockedEntities.contains(entityId);
+    }
+
+    public int size() {
+        return this.undoStack.size();
+    }
+}
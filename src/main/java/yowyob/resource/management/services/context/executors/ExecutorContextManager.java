@@ -4,19 +4,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.time.Duration;
-import yowyob.resource.management.services.cache.ReactiveCacheService;
 import reactor.core.publisher.Mono;
 import yowyob.resource.management.actions.Action;
 import yowyob.resource.management.models.service.Services;
 import yowyob.resource.management.models.resource.Resource;
 import yowyob.resource.management.actions.service.ServiceAction;
 import yowyob.resource.management.actions.resource.ResourceAction;
-import yowyob.resource.management.services.service.ServiceActionExecutor;
 import yowyob.resource.management.repositories.service.ServiceRepository;
-import yowyob.resource.management.services.resource.ResourceActionExecutor;
 import yowyob.resource.management.repositories.resource.ResourceRepository;
 import yowyob.resource.management.exceptions.invalid.InvalidActionClassException;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
 import yowyob.resource.management.actions.service.operations.ServiceUpdateAction;
 import yowyob.resource.management.actions.service.operations.ServiceCreationAction;
 import yowyob.resource.management.actions.resource.operations.ResourceUpdateAction;
@@ -25,63 +22,47 @@ import yowyob.resource.management.actions.resource.operations.ResourceCreationAc
 import yowyob.resource.management.actions.resource.operations.ResourceDeletionAction;
 
 import java.util.Optional;
+import java.util.UUID;
 
 @org.springframework.stereotype.Service
 public class ExecutorContextManager {
 
-    private final ServiceActionExecutor serviceActionExecutor;
-    private final ResourceActionExecutor resourceActionExecutor;
     private final ServiceRepository serviceRepository;
     private final ResourceRepository resourceRepository;
-    private final ReactiveCacheService reactiveCacheService;
 
     private static final Logger logger = LoggerFactory.getLogger(ExecutorContextManager.class);
-    private static final Duration REVERSE_ACTION_TTL = Duration.ofMinutes(30);
-    private static final String REVERSE_ACTION_PREFIX = "reverse-actions";
 
     @Autowired
-    public ExecutorContextManager(ServiceActionExecutor serviceActionExecutor, ResourceActionExecutor resourceActionExecutor,
-                                  ServiceRepository serviceRepository, ResourceRepository resourceRepository,
-                                  ReactiveCacheService reactiveCacheService) {
-        this.serviceActionExecutor = serviceActionExecutor;
-        this.resourceActionExecutor = resourceActionExecutor;
+    public ExecutorContextManager(ServiceRepository serviceRepository, ResourceRepository resourceRepository) {
         this.serviceRepository = serviceRepository;
         this.resourceRepository = resourceRepository;
-        this.reactiveCacheService = reactiveCacheService;
-    }
-    
-    public void init() {
-        pauseExecutor();
-        logger.info("Context has been successfully initialized");
     }
 
-    public void clear() {
-        resumeExecutors();
-        logger.info("Context has been successfully cleared");
+    public Mono<Action> generateReverseAction(Action action) {
+        return this.generateReverseAction(action, PreImageSnapshot.empty());
     }
 
-    public Mono<Action> generateReverseAction(Action action) {
-        String cacheKey = reactiveCacheService.generateKey(REVERSE_ACTION_PREFIX, action.getEntityId(), action.getActionType());
-        
-        return reactiveCacheService.getOrCompute(
-            cacheKey,
-            computeReverseAction(action),
-            REVERSE_ACTION_TTL,
-            Action.class
-        );
+    /**
+     * Builds the action undoing the given one, reading the pre-image from the snapshot when it holds the entity.
+     * Nothing is cached across strategies: a pre-image is only valid under the locks of the strategy that read it.
+     */
+    public Mono<Action> generateReverseAction(Action action, PreImageSnapshot snapshot) {
+        return this.computeReverseAction(action, snapshot)
+                .doOnNext(reverseAction -> logger.debug("Reverse action generated for entityId={}: Type={}",
+                        action.getEntityId(), reverseAction.getActionType()));
     }
-    
-    private Mono<Action> computeReverseAction(Action action) {
+
+    private Mono<Action> computeReverseAction(Action action, PreImageSnapshot snapshot) {
         return switch (action.getActionClass()) {
             case Resource -> {
                 ResourceAction resourceAction = (ResourceAction) action;
 
                 yield switch (resourceAction.getActionType()) {
                     case CREATE -> Mono.just(new ResourceDeletionAction(resourceAction.getEntityId()));
-                    case UPDATE -> this.resourceRepository.findById(resourceAction.getEntityId())
+                    case UPDATE -> this.currentResource(resourceAction.getEntityId(), snapshot)
                             .map(ResourceUpdateAction::new)
                             .cast(Action.class);
-                    case DELETE -> this.resourceRepository.findById(resourceAction.getEntityId())
+                    case DELETE -> this.currentResource(resourceAction.getEntityId(), snapshot)
                             .map(ResourceCreationAction::new)
                             .cast(Action.class);
                     default -> Mono.empty();
@@ -93,10 +74,10 @@ public class ExecutorContextManager {
 
                 yield switch (serviceAction.getActionType()) {
                     case CREATE -> Mono.just(new ServiceDeletionAction(serviceAction.getEntityId()));
-                    case UPDATE -> this.serviceRepository.findById(serviceAction.getEntityId())
+                    case UPDATE -> this.currentService(serviceAction.getEntityId(), snapshot)
                             .map(ServiceUpdateAction::new)
                             .cast(Action.class);
-                    case DELETE -> this.serviceRepository.findById(serviceAction.getEntityId())
+                    case DELETE -> this.currentService(serviceAction.getEntityId(), snapshot)
                             .map(ServiceCreationAction::new)
                             .cast(Action.class);
                     default -> Mono.empty();
@@ -106,13 +87,16 @@ public class ExecutorContextManager {
             default -> Mono.error(new InvalidActionClassException(action));
         };
     }
-    private void pauseExecutor() {
-        this.serviceActionExecutor.pause();
-        this.resourceActionExecutor.pause();
+
+    private Mono<Resource> currentResource(UUID entityId, PreImageSnapshot snapshot) {
+        return snapshot.containsResource(entityId)
+                ? snapshot.getResource(entityId)
+                : this.resourceRepository.findById(entityId);
     }
 
-    private void resumeExecutors() {
-        this.serviceActionExecutor.resume();
-        this.resourceActionExecutor.resume();
+    private Mono<Services> currentService(UUID entityId, PreImageSnapshot snapshot) {
+        return snapshot.containsService(entityId)
+                ? snapshot.getService(entityId)
+                : this.serviceRepository.findById(entityId);
     }
 }
@@ -0,0 +1,29 @@
+package yowyob.resource.management.services.context.journal;
+
+public enum JournalRecordType {
+    BEGIN((byte) 1),
+    UNDO_ACTION((byte) 2),
+    UNDO_EVENT((byte) 3),
+    COMMIT((byte) 4),
+    ABORT((byte) 5),
+    CHAIN_DONE((byte) 6);
+
+    private final byte code;
+
+    JournalRecordType(byte code) {
+        this.code = code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    public static JournalRecordType fromCode(byte code) {
+        for (JournalRecordType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,122 @@
+package yowyob.resource.management.services.context.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory-mapped, pre-allocated journal file. Records are laid out as
+ * {@code [int recordLength][byte type][long msb][long lsb][int crc32c][payload]}, where the record length
+ * covers the header too; a zero length marks the end.
+ * A write lands in the page cache as soon as it is copied into the mapping, so it survives a crash of the
+ * process; {@link #force()} is only needed against a crash of the machine.
+ */
+class JournalSegment implements AutoCloseable {
+    static final int HEADER_SIZE = Integer.BYTES + 1 + 2 * Long.BYTES + Integer.BYTES;
+
+    private final int index;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(int index, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.index = index;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path path, int index, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new JournalSegment(index, path, channel, buffer);
+    }
+
+    int index() {
+        return index;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    boolean hasRoomFor(int payloadLength) {
+        // Keeps room for the zero length that ends the segment
+        return buffer.remaining() >= HEADER_SIZE + payloadLength + Integer.BYTES;
+    }
+
+    void write(JournalRecordType type, UUID strategyId, byte[] payload) {
+        int start = buffer.position();
+        buffer.position(start + Integer.BYTES);
+        buffer.put(type.code());
+        buffer.putLong(strategyId.getMostSignificantBits());
+        buffer.putLong(strategyId.getLeastSignificantBits());
+        buffer.putInt(checksum(type.code(), strategyId, payload));
+        buffer.put(payload);
+        // The length goes in last: a record cut short by a crash keeps a zero length or fails its checksum
+        buffer.putInt(start, HEADER_SIZE + payload.length);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads every valid record of a segment file, stopping at the end marker or at the first torn record.
+     */
+    static void read(Path path, RecordConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int recordLength = buffer.getInt();
+                if (recordLength < HEADER_SIZE) {
+                    return;
+                }
+                int length = recordLength - HEADER_SIZE;
+                byte code = buffer.get();
+                JournalRecordType type = JournalRecordType.fromCode(code);
+                if (type == null || buffer.remaining() < 2 * Long.BYTES + Integer.BYTES + length) {
+                    return;
+                }
+                UUID strategyId = new UUID(buffer.getLong(), buffer.getLong());
+                int crc = buffer.getInt();
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                if (crc != checksum(code, strategyId, payload)) {
+                    return;
+                }
+                consumer.accept(type, strategyId, payload);
+            }
+        }
+    }
+
+    private static int checksum(byte type, UUID strategyId, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        long msb = strategyId.getMostSignificantBits();
+        long lsb = strategyId.getLeastSignificantBits();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (msb >>> shift));
+        }
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (lsb >>> shift));
+        }
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(JournalRecordType type, UUID strategyId, byte[] payload);
+    }
+}
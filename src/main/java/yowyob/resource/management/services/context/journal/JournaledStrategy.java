@@ -0,0 +1,27 @@
+package yowyob.resource.management.services.context.journal;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A strategy found in the journal without COMMIT nor ABORT record: its undo records, in append order, and the
+ * entities whose undo chain was already rolled back before the strategy was stranded.
+ */
+@Getter
+public class JournaledStrategy {
+    private final UUID strategyId;
+    private final int firstSegment;
+    private final List<byte[]> undoActions = new ArrayList<>();
+    private final List<byte[]> undoEvents = new ArrayList<>();
+    private final Set<UUID> rolledBackEntities = new HashSet<>();
+
+    public JournaledStrategy(UUID strategyId, int firstSegment) {
+        this.strategyId = strategyId;
+        this.firstSegment = firstSegment;
+    }
+}
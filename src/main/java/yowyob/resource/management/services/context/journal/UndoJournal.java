@@ -0,0 +1,442 @@
+package yowyob.resource.management.services.context.journal;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, memory-mapped write-ahead journal of the undo records of every strategy in flight.
+ * An append is a copy into the mapped segment, far cheaper than a Redis round trip; a background flusher
+ * forces dirty segments to disk every few milliseconds (group commit). Strategies that have neither a
+ * COMMIT nor an ABORT record when the journal is opened are exposed by {@link #getIncompleteStrategies()}.
+ * <p>
+ * A full segment is swapped for the next one, pre-allocated by the flusher, so an append never touches the disk:
+ * the flusher forces and closes the sealed segment, carries strategies forward and reclaims old segments.
+ * A sealed segment is deleted once no open strategy began in it or before. A strategy that will not end soon
+ * - stranded by a failed rollback, or open for longer than the configured age - would keep every later segment
+ * on disk, so after a roll such a strategy is carried forward: its undo records are copied into the active
+ * segment and the old ones no longer pin anything. It is still rolled back at the next startup.
+ */
+@Component
+public class UndoJournal {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("undo-(\\d{8})\\.journal");
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalMs;
+    private final long maxOpenNanos;
+    private final Object appendLock = new Object();
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private final Map<UUID, OpenStrategy> openStrategies = new ConcurrentHashMap<>();
+    // Strategies to carry forward, guarded by the append lock; their appends are captured until the copy is written
+    private final Map<UUID, Carry> carrying = new HashMap<>();
+    // Segments swapped out by appends, left to the flusher to force, close and reclaim
+    private final Queue<JournalSegment> sealing = new ConcurrentLinkedQueue<>();
+    // Owned by the flusher once the journal is open
+    private final TreeMap<Integer, Path> sealedSegments = new TreeMap<>();
+    private final List<JournaledStrategy> incompleteStrategies;
+    private final Thread flusher;
+    private volatile boolean running = true;
+    private volatile JournalSegment active;
+    private JournalSegment standby;
+    private static final Logger logger = LoggerFactory.getLogger(UndoJournal.class);
+
+    @Autowired
+    public UndoJournal(@Value("${app.journal.directory:./data/undo-journal}") String directory,
+                       @Value("${app.journal.segment-size-mb:64}") int segmentSizeMb,
+                       @Value("${app.journal.flush-interval-ms:5}") long flushIntervalMs,
+                       @Value("${app.journal.max-open-ms:600000}") long maxOpenMs) throws IOException {
+        long segmentBytes = segmentSizeMb * 1024L * 1024L;
+        if (segmentSizeMb <= 0 || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Journal segment size must be between 1 and %d MB, got %d MB",
+                    Integer.MAX_VALUE / (1024 * 1024), segmentSizeMb));
+        }
+        this.directory = Paths.get(directory);
+        this.segmentSize = (int) segmentBytes;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxOpenNanos = TimeUnit.MILLISECONDS.toNanos(maxOpenMs);
+        Files.createDirectories(this.directory);
+
+        this.incompleteStrategies = new CopyOnWriteArrayList<>(this.replay());
+        int nextIndex = sealedSegments.isEmpty() ? 0 : sealedSegments.lastKey() + 1;
+        this.active = this.createSegment(nextIndex);
+        this.standby = this.createSegment(nextIndex + 1);
+
+        this.flusher = new Thread(this::flushLoop, "undo-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        logger.info("Undo journal opened in {} - {} incomplete strategies found", this.directory, incompleteStrategies.size());
+    }
+
+    public List<JournaledStrategy> getIncompleteStrategies() {
+        return List.copyOf(incompleteStrategies);
+    }
+
+    public void begin(UUID strategyId) {
+        append(JournalRecordType.BEGIN, strategyId, EMPTY);
+    }
+
+    public void appendUndoAction(UUID strategyId, byte[] reverseAction) {
+        append(JournalRecordType.UNDO_ACTION, strategyId, reverseAction);
+    }
+
+    public void appendUndoEvent(UUID strategyId, byte[] event) {
+        append(JournalRecordType.UNDO_EVENT, strategyId, event);
+    }
+
+    public void commit(UUID strategyId) {
+        append(JournalRecordType.COMMIT, strategyId, EMPTY);
+    }
+
+    /**
+     * Records that the undo chain of an entity has been rolled back, so a retried rollback skips it: its
+     * pre-images are stale once later writes went through.
+     */
+    public void chainDone(UUID strategyId, UUID entityId) {
+        append(JournalRecordType.CHAIN_DONE, strategyId, ByteBuffer.allocate(2 * Long.BYTES)
+                .putLong(entityId.getMostSignificantBits())
+                .putLong(entityId.getLeastSignificantBits())
+                .array());
+    }
+
+    public void abort(UUID strategyId) {
+        append(JournalRecordType.ABORT, strategyId, EMPTY);
+        incompleteStrategies.removeIf(strategy -> strategy.getStrategyId().equals(strategyId));
+    }
+
+    /**
+     * Marks a strategy whose rollback failed: it keeps no ABORT record so it is rolled back again at the next
+     * startup, and it is carried forward at the next roll instead of pinning its segments until then.
+     */
+    public void strand(UUID strategyId) {
+        AtomicBoolean stranded = new AtomicBoolean(false);
+        openStrategies.computeIfPresent(strategyId, (id, strategy) -> {
+            stranded.set(!strategy.stranded());
+            return new OpenStrategy(strategy.firstSegment(), strategy.openedAtNanos(), true);
+        });
+        if (stranded.get()) {
+            logger.warn("Strategy {} stranded in the undo journal, it will be rolled back again at the next startup", strategyId);
+        }
+    }
+
+    private void append(JournalRecordType type, UUID strategyId, byte[] payload) {
+        if (JournalSegment.HEADER_SIZE + payload.length + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException(String.format("Journal record of %d bytes exceeds the segment size", payload.length));
+        }
+
+        synchronized (appendLock) {
+            if (!active.hasRoomFor(payload.length)) {
+                this.roll();
+            }
+            active.write(type, strategyId, payload);
+            // Under the lock, so a strategy that has just ended is never carried forward
+            if (type == JournalRecordType.BEGIN) {
+                openStrategies.putIfAbsent(strategyId, new OpenStrategy(active.index(), System.nanoTime(), false));
+            } else if (type == JournalRecordType.COMMIT || type == JournalRecordType.ABORT) {
+                openStrategies.remove(strategyId);
+                carrying.remove(strategyId);
+            } else {
+                Carry carry = carrying.get(strategyId);
+                if (carry != null) {
+                    carry.captured().add(new CarriedRecord(type, payload));
+                }
+            }
+        }
+        dirty.set(true);
+    }
+
+    /**
+     * Swaps the full active segment for the pre-allocated one, waiting for the flusher only when it has not
+     * allocated it yet. Runs under the append lock; the strategies to carry forward start capturing their appends
+     * here, so the flusher copies their records of the sealed segments plus the captured ones.
+     */
+    private void roll() {
+        while (standby == null) {
+            if (!running) {
+                throw new IllegalStateException("The undo journal is closed");
+            }
+            LockSupport.unpark(flusher);
+            try {
+                appendLock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the next undo journal segment", e);
+            }
+        }
+
+        JournalSegment sealed = active;
+        active = standby;
+        standby = null;
+        long now = System.nanoTime();
+        openStrategies.forEach((strategyId, open) -> {
+            if (open.stranded() || now - open.openedAtNanos() > maxOpenNanos) {
+                carrying.putIfAbsent(strategyId, new Carry(sealed.index(), new ArrayList<>()));
+            }
+        });
+        sealing.add(sealed);
+        LockSupport.unpark(flusher);
+    }
+
+    /**
+     * Creates the segment the next roll switches to. Only the flusher allocates segments once the journal is open,
+     * and the active segment cannot change while there is no standby, so the index is free.
+     */
+    private void preallocate() throws IOException {
+        int index;
+        synchronized (appendLock) {
+            if (standby != null) {
+                return;
+            }
+            index = active.index() + 1;
+        }
+        JournalSegment next = this.createSegment(index);
+        synchronized (appendLock) {
+            standby = next;
+            appendLock.notifyAll();
+        }
+    }
+
+    /**
+     * Forces and closes the segments swapped out by appends, carries the long-lived strategies forward and drops
+     * the sealed segments that no open strategy still needs.
+     */
+    private void seal() throws IOException {
+        JournalSegment sealed;
+        while ((sealed = sealing.poll()) != null) {
+            sealed.force();
+            sealed.close();
+            sealedSegments.put(sealed.index(), sealed.path());
+        }
+        this.carryForward();
+
+        int oldestNeeded = openStrategies.values().stream().mapToInt(OpenStrategy::firstSegment).min().orElse(active.index());
+        Map<Integer, Path> reclaimable = sealedSegments.headMap(oldestNeeded, false);
+        for (Path path : reclaimable.values()) {
+            Files.deleteIfExists(path);
+        }
+        reclaimable.clear();
+    }
+
+    /**
+     * Copies the undo records of the stranded and overaged strategies into the active segment, after a BEGIN
+     * record that makes the replay start them over from the copy. The sealed segments are read outside the append
+     * lock; the copy and the records captured since the roll are written under it. A copy that does not fit in what
+     * is left of the active segment waits for the next roll; one that no longer fits in a segment is abandoned with
+     * an ABORT record: the strategy can then only be rolled back by hand.
+     */
+    private void carryForward() throws IOException {
+        Map<UUID, Carry> carried;
+        synchronized (appendLock) {
+            carried = new LinkedHashMap<>(carrying);
+        }
+        if (carried.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, List<CarriedRecord>> records = new LinkedHashMap<>();
+        Map<UUID, OpenStrategy> opened = new LinkedHashMap<>();
+        carried.forEach((strategyId, carry) -> {
+            OpenStrategy open = openStrategies.get(strategyId);
+            if (open != null) {
+                records.put(strategyId, new ArrayList<>());
+                opened.put(strategyId, open);
+            }
+        });
+        int from = opened.values().stream().mapToInt(OpenStrategy::firstSegment).min().orElse(active.index());
+        for (Map.Entry<Integer, Path> segment : sealedSegments.tailMap(from, true).entrySet()) {
+            int index = segment.getKey();
+            JournalSegment.read(segment.getValue(), (type, strategyId, payload) -> {
+                List<CarriedRecord> strategyRecords = records.get(strategyId);
+                // Records appended after the roll that started the carry are in its captured ones
+                if (strategyRecords == null || index > carried.get(strategyId).upTo()) {
+                    return;
+                }
+                if (type == JournalRecordType.BEGIN) {
+                    // An earlier copy: the strategy starts over from it
+                    strategyRecords.clear();
+                } else if (type == JournalRecordType.UNDO_ACTION || type == JournalRecordType.UNDO_EVENT
+                        || type == JournalRecordType.CHAIN_DONE) {
+                    strategyRecords.add(new CarriedRecord(type, payload));
+                }
+            });
+        }
+
+        synchronized (appendLock) {
+            for (Map.Entry<UUID, List<CarriedRecord>> entry : records.entrySet()) {
+                UUID strategyId = entry.getKey();
+                Carry carry = carrying.get(strategyId);
+                // Ended meanwhile
+                if (carry != carried.get(strategyId)) {
+                    continue;
+                }
+                List<CarriedRecord> strategyRecords = entry.getValue();
+                strategyRecords.addAll(carry.captured());
+                int size = JournalSegment.HEADER_SIZE;
+                for (CarriedRecord record : strategyRecords) {
+                    size += JournalSegment.HEADER_SIZE + record.payload().length;
+                }
+
+                if (size + Integer.BYTES > segmentSize && active.hasRoomFor(0)) {
+                    carrying.remove(strategyId);
+                    active.write(JournalRecordType.ABORT, strategyId, EMPTY);
+                    openStrategies.remove(strategyId);
+                    incompleteStrategies.removeIf(strategy -> strategy.getStrategyId().equals(strategyId));
+                    logger.error("Strategy {} abandoned in the undo journal: its {} undo records no longer fit in a segment, "
+                            + "it must be rolled back by hand", strategyId, strategyRecords.size());
+                    continue;
+                }
+                if (size + Integer.BYTES > segmentSize || !active.hasRoomFor(size - JournalSegment.HEADER_SIZE)) {
+                    continue;
+                }
+                carrying.remove(strategyId);
+                active.write(JournalRecordType.BEGIN, strategyId, EMPTY);
+                for (CarriedRecord record : strategyRecords) {
+                    active.write(record.type(), strategyId, record.payload());
+                }
+                OpenStrategy open = opened.get(strategyId);
+                int firstSegment = active.index();
+                openStrategies.computeIfPresent(strategyId,
+                        (id, current) -> new OpenStrategy(firstSegment, current.openedAtNanos(), current.stranded()));
+                logger.warn("Strategy {} {} carried forward from segment {} to segment {} with {} undo records", strategyId,
+                        open.stranded() ? "stranded by a failed rollback" : "open for too long",
+                        open.firstSegment(), firstSegment, strategyRecords.size());
+            }
+        }
+        dirty.set(true);
+    }
+
+    private JournalSegment createSegment(int index) throws IOException {
+        Path path = directory.resolve(String.format("undo-%08d.journal", index));
+        return JournalSegment.create(path, index, segmentSize);
+    }
+
+    private List<JournaledStrategy> replay() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    sealedSegments.put(Integer.parseInt(matcher.group(1)), path);
+                }
+            });
+        }
+
+        Map<UUID, JournaledStrategy> pending = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Path> segment : sealedSegments.entrySet()) {
+            int index = segment.getKey();
+            JournalSegment.read(segment.getValue(), (type, strategyId, payload) -> {
+                switch (type) {
+                    // A strategy carried forward begins again: its copy holds every undo record so far
+                    case BEGIN -> pending.put(strategyId, new JournaledStrategy(strategyId, index));
+                    case UNDO_ACTION -> pending.computeIfAbsent(strategyId, id -> new JournaledStrategy(id, index))
+                            .getUndoActions().add(payload);
+                    case UNDO_EVENT -> pending.computeIfAbsent(strategyId, id -> new JournaledStrategy(id, index))
+                            .getUndoEvents().add(payload);
+                    case CHAIN_DONE -> pending.computeIfAbsent(strategyId, id -> new JournaledStrategy(id, index))
+                            .getRolledBackEntities().add(entityOf(payload));
+                    case COMMIT, ABORT -> pending.remove(strategyId);
+                }
+            });
+        }
+
+        Collection<JournaledStrategy> incomplete = pending.values();
+        for (JournaledStrategy strategy : incomplete) {
+            openStrategies.put(strategy.getStrategyId(), new OpenStrategy(strategy.getFirstSegment(), System.nanoTime(), false));
+        }
+        return new ArrayList<>(incomplete);
+    }
+
+    private static UUID entityOf(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private void flushLoop() {
+        while (running) {
+            // Woken early by a roll
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            if (!running) {
+                return;
+            }
+            this.flush();
+            try {
+                this.preallocate();
+                this.seal();
+            } catch (IOException | UncheckedIOException e) {
+                logger.error("Unable to roll the undo journal segment: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void flush() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        // Forced outside the append lock, so appends never wait for the disk
+        active.force();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // The flusher is gone: the segments it had not sealed yet are sealed here
+        this.seal();
+        synchronized (appendLock) {
+            appendLock.notifyAll();
+            active.force();
+            active.close();
+            if (standby != null) {
+                standby.close();
+                Files.deleteIfExists(standby.path());
+                standby = null;
+            }
+        }
+        logger.info("Undo journal closed");
+    }
+
+    private record OpenStrategy(int firstSegment, long openedAtNanos, boolean stranded) {
+    }
+
+    private record CarriedRecord(JournalRecordType type, byte[] payload) {
+    }
+
+    /**
+     * @param upTo the last sealed segment whose records are read back; later ones are in the captured records
+     */
+    private record Carry(int upTo, List<CarriedRecord> captured) {
+    }
+}
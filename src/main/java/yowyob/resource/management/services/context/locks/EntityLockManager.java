@@ -0,0 +1,231 @@
+package yowyob.resource.management.services.context.locks;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import yowyob.resource.management.exceptions.EntityLockedException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Reactive, non-reentrant locks keyed by entity UUID. Entities are hashed onto a fixed array of stripes;
+ * each stripe hands itself over to its waiters in FIFO order, so no caller waits on a thread.
+ * Several entities are always locked in ascending stripe order, which rules out deadlocks between
+ * two multi-entity acquisitions.
+ */
+@Component
+public class EntityLockManager {
+    private final Stripe[] stripes;
+    private final int mask;
+    private final Duration timeout;
+    private final Timer acquiredTimer;
+    private final Timer timedOutTimer;
+    private static final Logger logger = LoggerFactory.getLogger(EntityLockManager.class);
+
+    @Autowired
+    public EntityLockManager(MeterRegistry meterRegistry,
+                             @Value("${app.entity-lock.stripes:1024}") int stripeCount,
+                             @Value("${app.entity-lock.timeout-ms:10000}") long timeoutMs) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.acquiredTimer = Timer.builder("entity.lock.wait")
+                .description("Time spent waiting for entity locks")
+                .tag("outcome", "acquired")
+                .register(meterRegistry);
+        this.timedOutTimer = Timer.builder("entity.lock.wait")
+                .description("Time spent waiting for entity locks")
+                .tag("outcome", "timeout")
+                .register(meterRegistry);
+        logger.info("EntityLockManager initialized with {} stripes", size);
+    }
+
+    public <T> Mono<T> withLock(UUID entityId, Supplier<? extends Mono<T>> body) {
+        return withLocks(List.of(entityId), body);
+    }
+
+    public <T> Mono<T> withLocks(Collection<UUID> entityIds, Supplier<? extends Mono<T>> body) {
+        return Mono.usingWhen(acquire(entityIds), locks -> body.get(), EntityLocks::releaseAsync);
+    }
+
+    /**
+     * Acquires the locks of every given entity. The returned handle must be released once the work is done.
+     * Fails with {@link EntityLockedException} when the locks are not obtained within the configured timeout.
+     */
+    public Mono<EntityLocks> acquire(Collection<UUID> entityIds) {
+        int[] indexes = entityIds.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            EntityLocks locks = new EntityLocks(indexes.length);
+
+            return Flux.range(0, indexes.length)
+                    .concatMap(i -> this.acquireStripe(indexes[i])
+                            .doOnNext(waiter -> {
+                                if (waiter.own()) {
+                                    locks.add(indexes[i]);
+                                }
+                            }))
+                    .then(Mono.just(locks))
+                    .timeout(timeout)
+                    .doOnSuccess(held -> sample.stop(acquiredTimer))
+                    .onErrorMap(TimeoutException.class, e -> {
+                        sample.stop(timedOutTimer);
+                        return new EntityLockedException(String.format(
+                                "Timed out after %d ms waiting for the locks of %d entities", timeout.toMillis(), entityIds.size()));
+                    })
+                    .doOnError(error -> locks.release())
+                    .doOnCancel(locks::release);
+        });
+    }
+
+    private int stripeOf(UUID entityId) {
+        long bits = entityId.getMostSignificantBits() ^ entityId.getLeastSignificantBits();
+        int hash = (int) (bits ^ (bits >>> 32));
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private Mono<Waiter> acquireStripe(int index) {
+        Stripe stripe = stripes[index];
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            boolean granted;
+            synchronized (stripe) {
+                granted = !stripe.held && stripe.waiters.isEmpty();
+                if (granted) {
+                    stripe.held = true;
+                    waiter.state.set(Waiter.GRANTED);
+                } else {
+                    stripe.waiters.addLast(waiter);
+                }
+            }
+
+            sink.onCancel(() -> {
+                if (waiter.state.compareAndSet(Waiter.PENDING, Waiter.CANCELLED)) {
+                    return;
+                }
+                // Granted but never taken by the subscriber: hand the stripe over to the next waiter
+                if (waiter.state.compareAndSet(Waiter.GRANTED, Waiter.CANCELLED)) {
+                    this.releaseStripe(index);
+                }
+            });
+
+            if (granted) {
+                sink.success(waiter);
+            }
+        });
+    }
+
+    private void releaseStripe(int index) {
+        Stripe stripe = stripes[index];
+        Waiter next = null;
+        synchronized (stripe) {
+            while (!stripe.waiters.isEmpty()) {
+                Waiter candidate = stripe.waiters.pollFirst();
+                if (candidate.state.compareAndSet(Waiter.PENDING, Waiter.GRANTED)) {
+                    next = candidate;
+                    break;
+                }
+            }
+            if (next == null) {
+                stripe.held = false;
+            }
+        }
+
+        if (next != null) {
+            next.sink.success(next);
+        }
+    }
+
+    private static final class Stripe {
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private boolean held;
+    }
+
+    private static final class Waiter {
+        private static final int PENDING = 0;
+        private static final int GRANTED = 1;
+        private static final int OWNED = 2;
+        private static final int CANCELLED = 3;
+
+        private final MonoSink<Waiter> sink;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        private Waiter(MonoSink<Waiter> sink) {
+            this.sink = sink;
+        }
+
+        private boolean own() {
+            return state.compareAndSet(GRANTED, OWNED);
+        }
+    }
+
+    /**
+     * Stripes held by one acquisition, released in reverse order of acquisition.
+     */
+    public final class EntityLocks {
+        private final int[] held;
+        private int count;
+        private boolean released;
+
+        private EntityLocks(int capacity) {
+            this.held = new int[capacity];
+        }
+
+        private void add(int index) {
+            boolean late;
+            synchronized (this) {
+                late = released;
+                if (!late) {
+                    held[count++] = index;
+                }
+            }
+            // Granted while the acquisition was being abandoned
+            if (late) {
+                releaseStripe(index);
+            }
+        }
+
+        public void release() {
+            int size;
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                size = count;
+            }
+            for (int i = size - 1; i >= 0; i--) {
+                releaseStripe(held[i]);
+            }
+        }
+
+        public Mono<Void> releaseAsync() {
+            return Mono.fromRunnable(this::release);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package yowyob.resource.management.services.context.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.commons.Command;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.repositories.resource.ResourceRepository;
+import yowyob.resource.management.repositories.service.ServiceRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Loads the pre-images of every entity targeted by the actions or events of a strategy with a few multi-key reads
+ * ({@code findAllById}, i.e. {@code WHERE id IN (...)}) run in parallel, instead of one read per command.
+ */
+@Component
+public class PreImageLoader {
+    private final ResourceRepository resourceRepository;
+    private final ServiceRepository serviceRepository;
+    private final int chunkSize;
+    private final int concurrency;
+    private static final Logger logger = LoggerFactory.getLogger(PreImageLoader.class);
+
+    @Autowired
+    public PreImageLoader(ResourceRepository resourceRepository, ServiceRepository serviceRepository,
+                          @Value("${app.strategy.snapshot.chunk-size:100}") int chunkSize,
+                          @Value("${app.strategy.snapshot.concurrency:4}") int concurrency) {
+        this.resourceRepository = resourceRepository;
+        this.serviceRepository = serviceRepository;
+        this.chunkSize = chunkSize;
+        this.concurrency = concurrency;
+    }
+
+    public Mono<PreImageSnapshot> load(Collection<? extends Command> commands) {
+        Set<UUID> resourceIds = new LinkedHashSet<>();
+        Set<UUID> serviceIds = new LinkedHashSet<>();
+        for (Command command : commands) {
+            if (command instanceof Action action) {
+                switch (action.getActionClass()) {
+                    case Resource -> resourceIds.add(action.getEntityId());
+                    case Service -> serviceIds.add(action.getEntityId());
+                    default -> {
+                    }
+                }
+            } else if (command instanceof Event event) {
+                switch (event.getEventClass()) {
+                    case Resource -> resourceIds.add(event.getEntityId());
+                    case Service -> serviceIds.add(event.getEntityId());
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        if (resourceIds.isEmpty() && serviceIds.isEmpty()) {
+            return Mono.just(new PreImageSnapshot(List.of(), List.of()));
+        }
+
+        PreImageSnapshot snapshot = new PreImageSnapshot(resourceIds, serviceIds);
+        List<List<UUID>> resourceChunks = partition(resourceIds);
+        List<List<UUID>> serviceChunks = partition(serviceIds);
+
+        Flux<?> resources = Flux.fromIterable(resourceChunks)
+                .flatMap(chunk -> resourceRepository.findAllById(chunk).doOnNext(snapshot::putResource), concurrency);
+        Flux<?> services = Flux.fromIterable(serviceChunks)
+                .flatMap(chunk -> serviceRepository.findAllById(chunk).doOnNext(snapshot::putService), concurrency);
+
+        return Flux.merge(resources, services)
+                .then(Mono.fromCallable(() -> {
+                    logger.info("Loaded pre-images of {} resources and {} services in {} reads",
+                            resourceIds.size(), serviceIds.size(), resourceChunks.size() + serviceChunks.size());
+                    return snapshot;
+                }));
+    }
+
+    private List<List<UUID>> partition(Collection<UUID> ids) {
+        List<List<UUID>> chunks = new ArrayList<>();
+        List<UUID> chunk = new ArrayList<>(chunkSize);
+        for (UUID id : ids) {
+            chunk.add(id);
+            if (chunk.size() == chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
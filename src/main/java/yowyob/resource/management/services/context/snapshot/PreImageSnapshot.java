@@ -0,0 +1,130 @@
+package yowyob.resource.management.services.context.snapshot;
+
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.models.service.Services;
+import yowyob.resource.management.models.resource.Resource;
+import yowyob.resource.management.actions.service.operations.ServiceUpdateAction;
+import yowyob.resource.management.actions.service.operations.ServiceCreationAction;
+import yowyob.resource.management.actions.resource.operations.ResourceUpdateAction;
+import yowyob.resource.management.actions.resource.operations.ResourceCreationAction;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Current state of the entities of a strategy, loaded once when the strategy starts and kept up to date as
+ * its actions are applied. An entity known to the snapshot but absent from the database is marked absent;
+ * an entity unknown to the snapshot, evicted from it or read after {@link #discard()} must be read from the
+ * repository. The snapshot lives and dies with its strategy, so it never serves a pre-image to another one.
+ */
+public class PreImageSnapshot {
+    private static final PreImageSnapshot EMPTY = new PreImageSnapshot(List.of(), List.of());
+    private static final Object ABSENT = new Object();
+    private static final Object UNKNOWN = new Object();
+
+    private final UuidMap<Object> resources;
+    private final UuidMap<Object> services;
+    private volatile boolean discarded;
+
+    public PreImageSnapshot(Collection<UUID> resourceIds, Collection<UUID> serviceIds) {
+        this.resources = new UuidMap<>(resourceIds, ABSENT);
+        this.services = new UuidMap<>(serviceIds, ABSENT);
+    }
+
+    private PreImageSnapshot(PreImageSnapshot source) {
+        this.resources = source.resources.copy();
+        this.services = source.services.copy();
+        this.discarded = source.discarded;
+    }
+
+    public static PreImageSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Copies the snapshot, so commands can be simulated against it without touching the original.
+     */
+    public PreImageSnapshot fork() {
+        return this == EMPTY ? EMPTY : new PreImageSnapshot(this);
+    }
+
+    public boolean containsResource(UUID entityId) {
+        return !discarded && isKnown(resources.get(entityId));
+    }
+
+    public boolean containsService(UUID entityId) {
+        return !discarded && isKnown(services.get(entityId));
+    }
+
+    public Mono<Resource> getResource(UUID entityId) {
+        return Mono.justOrEmpty(valueOf(resources.get(entityId))).cast(Resource.class);
+    }
+
+    public Mono<Services> getService(UUID entityId) {
+        return Mono.justOrEmpty(valueOf(services.get(entityId))).cast(Services.class);
+    }
+
+    void putResource(Resource resource) {
+        resources.set(resource.getId(), resource);
+    }
+
+    void putService(Services service) {
+        services.set(service.getId(), service);
+    }
+
+    /**
+     * Records the effect of an applied action, so the next command on the same entity sees its post-image.
+     * Actions with an effect the snapshot cannot predict (custom queries) evict the entity.
+     */
+    public void apply(Action action) {
+        UUID entityId = action.getEntityId();
+        switch (action.getActionClass()) {
+            case Resource -> {
+                switch (action.getActionType()) {
+                    case CREATE -> resources.set(entityId, ((ResourceCreationAction) action).getResourceToSave());
+                    case UPDATE -> resources.set(entityId, ((ResourceUpdateAction) action).getResourceToUpdate());
+                    case DELETE -> resources.set(entityId, ABSENT);
+                    case CUSTOM -> resources.set(entityId, UNKNOWN);
+                    default -> {
+                    }
+                }
+            }
+            case Service -> {
+                switch (action.getActionType()) {
+                    case CREATE -> services.set(entityId, ((ServiceCreationAction) action).getServiceToSave());
+                    case UPDATE -> services.set(entityId, ((ServiceUpdateAction) action).getServicesToUpdate());
+                    case DELETE -> services.set(entityId, ABSENT);
+                    case CUSTOM -> services.set(entityId, UNKNOWN);
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every pre-image once the strategy is over; later reads go back to the repository.
+     */
+    public void discard() {
+        if (this == EMPTY) {
+            return;
+        }
+        discarded = true;
+        resources.clear();
+        services.clear();
+    }
+
+    public int size() {
+        return resources.size() + services.size();
+    }
+
+    private static boolean isKnown(Object value) {
+        return value != null && value != UNKNOWN;
+    }
+
+    private static Object valueOf(Object value) {
+        return value == ABSENT || value == UNKNOWN ? null : value;
+    }
+}
@@ -0,0 +1,111 @@
+package yowyob.resource.management.services.context.snapshot;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Open-addressing map with a fixed set of UUID keys, laid out in flat arrays (linear probing, load factor
+ * at most one half). Keys are inserted once at construction; values may then be replaced from any thread.
+ * Lookups allocate nothing, which keeps the per-command cost of a strategy snapshot to a few array reads.
+ */
+final class UuidMap<V> {
+    private final long[] mostSignificantBits;
+    private final long[] leastSignificantBits;
+    private final boolean[] used;
+    private final AtomicReferenceArray<V> values;
+    private final int mask;
+    private final int size;
+
+    UuidMap(Collection<UUID> keys, V initialValue) {
+        int capacity = Integer.highestOneBit(Math.max(2, keys.size() * 2 - 1) << 1);
+        this.mostSignificantBits = new long[capacity];
+        this.leastSignificantBits = new long[capacity];
+        this.used = new boolean[capacity];
+        this.values = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+
+        int count = 0;
+        for (UUID key : keys) {
+            int slot = this.probe(key.getMostSignificantBits(), key.getLeastSignificantBits());
+            if (!used[slot]) {
+                used[slot] = true;
+                mostSignificantBits[slot] = key.getMostSignificantBits();
+                leastSignificantBits[slot] = key.getLeastSignificantBits();
+                values.lazySet(slot, initialValue);
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    private UuidMap(UuidMap<V> source) {
+        this.mostSignificantBits = source.mostSignificantBits;
+        this.leastSignificantBits = source.leastSignificantBits;
+        this.used = source.used;
+        this.mask = source.mask;
+        this.size = source.size;
+        this.values = new AtomicReferenceArray<>(source.used.length);
+        for (int slot = 0; slot < used.length; slot++) {
+            values.lazySet(slot, source.values.get(slot));
+        }
+    }
+
+    /**
+     * @return a map with the same keys and values; the keys are shared, the values are replaced independently
+     */
+    UuidMap<V> copy() {
+        return new UuidMap<>(this);
+    }
+
+    boolean containsKey(UUID key) {
+        return used[this.probe(key.getMostSignificantBits(), key.getLeastSignificantBits())];
+    }
+
+    /**
+     * @return the value of the key, or null when the key is unknown
+     */
+    V get(UUID key) {
+        int slot = this.probe(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        return used[slot] ? values.get(slot) : null;
+    }
+
+    /**
+     * Replaces the value of a known key.
+     * @return false when the key was not part of the map, in which case nothing is stored
+     */
+    boolean set(UUID key, V value) {
+        int slot = this.probe(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        if (!used[slot]) {
+            return false;
+        }
+        values.set(slot, value);
+        return true;
+    }
+
+    /**
+     * Drops every value, keeping the keys.
+     */
+    void clear() {
+        for (int slot = 0; slot < used.length; slot++) {
+            values.set(slot, null);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the slot holding the key, or the free slot where it would be inserted
+     */
+    private int probe(long msb, long lsb) {
+        long bits = msb ^ lsb;
+        bits = (bits ^ (bits >>> 33)) * 0xff51afd7ed558ccdL;
+        int slot = (int) (bits ^ (bits >>> 33)) & mask;
+        while (used[slot] && (mostSignificantBits[slot] != msb || leastSignificantBits[slot] != lsb)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -5,7 +5,5 @@ import yowyob.resource.management.actions.Action;
 import yowyob.resource.management.exceptions.policy.ExecutorPolicyViolationException;
 
 public interface Executor {
-    void pause();
-    void resume();
     Mono<?> executeAction(Action action) throws ExecutorPolicyViolationException;
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package yowyob.resource.management.services.interfaces.leases;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shared registry of the scheduler nodes and of the shard leases they hold. A lease and a node registration
+ * both lapse after their time to live unless renewed.
+ */
+public interface LeaseStore {
+
+    /**
+     * Registers the node as alive for the given time.
+     */
+    Mono<Void> join(String node, Duration ttl);
+
+    Mono<Set<String>> nodes();
+
+    /**
+     * Takes the lease of a shard when it is free, or renews it when the node already holds it.
+     *
+     * @return whether the node holds the lease for the given time
+     */
+    Mono<Boolean> acquire(int shard, String node, Duration ttl);
+
+    /**
+     * Frees the lease of a shard, if the node still holds it.
+     */
+    Mono<Void> release(int shard, String node);
+
+    /**
+     * @return the holder of every leased shard
+     */
+    Mono<Map<Integer, String>> owners();
+}
@@ -0,0 +1,22 @@
+package yowyob.resource.management.services.interfaces.leases;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.services.scheduling.ShardHandOff;
+
+/**
+ * Shared inbox of the events received by a node for shards held by another one, one queue per shard. The
+ * receiving node posts them and the holder of the shard schedules them, so an event never depends on which
+ * node the caller reached.
+ */
+public interface ShardInbox {
+
+    Mono<Void> post(int shard, ShardHandOff handOff);
+
+    /**
+     * @return the hand-offs waiting for the shard, oldest first; they stay in the inbox until removed
+     */
+    Flux<ShardHandOff> pending(int shard);
+
+    Mono<Void> remove(int shard, ShardHandOff handOff);
+}
@@ -2,10 +2,16 @@ package yowyob.resource.management.services.interfaces.policies;
 
 import reactor.core.publisher.Mono;
 import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
 import yowyob.resource.management.exceptions.policy.ExecutorPolicyViolationException;
 
 public interface ExecutorPolicy {
 
     Mono<Boolean> isExecutionAllowed(Action action);
+
+    /**
+     * Same as {@link #isExecutionAllowed(Action)}, reading the current entity from the snapshot when it holds it.
+     */
+    Mono<Boolean> isExecutionAllowed(Action action, PreImageSnapshot snapshot);
 }
 
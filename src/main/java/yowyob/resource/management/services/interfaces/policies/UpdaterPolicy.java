@@ -6,9 +6,22 @@ import java.util.UUID;
 
 import reactor.core.publisher.Mono;
 import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.recurrence.RecurringEvent;
 import yowyob.resource.management.exceptions.policy.UpdaterPolicyViolationException;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
+import yowyob.resource.management.services.scheduling.EntityTimeline;
 
 
 public interface UpdaterPolicy {
     Mono<Boolean> isExecutionAllowed(Event event, List<Event> scheduledEvents);
+
+    Mono<Boolean> isExecutionAllowed(Event event, EntityTimeline timeline);
+
+    /**
+     * Same as {@link #isExecutionAllowed(Event, EntityTimeline)}, reading the current entity from the snapshot
+     * when it holds it.
+     */
+    Mono<Boolean> isExecutionAllowed(Event event, EntityTimeline timeline, PreImageSnapshot snapshot);
+
+    Mono<Boolean> isRecurrenceAllowed(RecurringEvent recurringEvent, EntityTimeline timeline);
 }
@@ -0,0 +1,87 @@
+package yowyob.resource.management.services.kafka;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import yowyob.resource.management.services.strategy.StrategyBatchPlanner;
+import yowyob.resource.management.services.strategy.StrategyDryRunner;
+import yowyob.resource.management.services.strategy.StrategyBatchPlanner.PlannedStrategy;
+import yowyob.resource.management.services.strategy.StrategyEntityManager;
+import yowyob.resource.management.services.strategy.StrategyResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@EnableKafka
+@ConditionalOnProperty(name = "kafka.strategy-consume.batch.enabled", havingValue = "true", matchIfMissing = true)
+public class KafkaStrategyBatchConsumer {
+    private final StrategyEntityManager strategyEntityManager;
+    private final StrategyBatchPlanner strategyBatchPlanner;
+    private final StrategyDryRunner strategyDryRunner;
+    private final KafkaStrategyResponseProducer kafkaStrategyResponseProducer;
+    private final int maxConcurrency;
+    private static final Logger logger = LoggerFactory.getLogger(KafkaStrategyBatchConsumer.class);
+
+    @Autowired
+    public KafkaStrategyBatchConsumer(StrategyEntityManager strategyEntityManager,
+                                      StrategyBatchPlanner strategyBatchPlanner,
+                                      StrategyDryRunner strategyDryRunner,
+                                      KafkaStrategyResponseProducer kafkaStrategyResponseProducer,
+                                      @Value("${app.strategy.max-concurrency:8}") int maxConcurrency) {
+        this.strategyEntityManager = strategyEntityManager;
+        this.strategyBatchPlanner = strategyBatchPlanner;
+        this.strategyDryRunner = strategyDryRunner;
+        this.kafkaStrategyResponseProducer = kafkaStrategyResponseProducer;
+        this.maxConcurrency = maxConcurrency;
+        logger.info("KafkaStrategyBatchConsumer initialized successfully");
+    }
+
+    @KafkaListener(topics = "${kafka.strategy-consume.topic}", groupId = "${kafka.strategy-consume.group-id}",
+            concurrency = "3", containerFactory = "batchStrategyListenerContainerFactory")
+    public void consume(List<ConsumerRecord<String, byte[]>> records, Acknowledgment acknowledgment) {
+        logger.info("Received Kafka batch of {} records", records.size());
+
+        Map<Boolean, List<ConsumerRecord<String, byte[]>>> byMode = records.stream()
+                .collect(Collectors.partitioningBy(KafkaStrategyConsumer::isDryRun));
+        List<byte[]> strategies = byMode.get(false).stream()
+                .map(KafkaStrategyConsumer::strategyPayload)
+                .toList();
+        List<List<PlannedStrategy>> lanes = strategyBatchPlanner.planLanes(strategies);
+
+        // Lanes share no entity and each strategy runs in its own context, so lanes run side by side without
+        // rolling back or resuming each other; strategies inside a lane keep their record order.
+        // Dry runs take no lock and change nothing, so they run beside the lanes.
+        // The listener thread only waits here, once per batch, so offsets are committed after every strategy ran.
+        Flux.merge(
+                        Flux.fromIterable(lanes)
+                                .flatMap(lane -> Flux.fromIterable(lane).concatMap(this::processStrategy), maxConcurrency),
+                        Flux.fromIterable(byMode.get(true))
+                                .flatMap(record -> strategyDryRunner.dryRun(KafkaStrategyConsumer.strategyPayload(record)),
+                                        maxConcurrency))
+                .doOnNext(kafkaStrategyResponseProducer::send)
+                .then()
+                .block();
+
+        acknowledgment.acknowledge();
+        ConsumerRecord<String, byte[]> last = records.getLast();
+        logger.info("Kafka batch of {} records processed in {} lanes, committed up to Partition: {}, Offset: {}",
+                records.size(), lanes.size(), last.partition(), last.offset());
+    }
+
+    private Mono<StrategyResult> processStrategy(PlannedStrategy strategy) {
+        return strategy.isParsed()
+                ? strategyEntityManager.processStrategy(strategy.getCommands())
+                : strategyEntityManager.processStrategy(strategy.getRawStrategy());
+    }
+}
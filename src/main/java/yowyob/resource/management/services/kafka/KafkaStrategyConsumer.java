@@ -8,25 +8,66 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.apache.kafka.common.header.Header;
+import yowyob.resource.management.services.strategy.StrategyDryRunner;
 import yowyob.resource.management.services.strategy.StrategyEntityManager;
 
+import java.nio.charset.StandardCharsets;
+
 @Getter
 @Service
 @EnableKafka
+@ConditionalOnProperty(name = "kafka.strategy-consume.batch.enabled", havingValue = "false")
 public class KafkaStrategyConsumer {
     private final StrategyEntityManager strategyEntityManager;
+    private final StrategyDryRunner strategyDryRunner;
+    private final KafkaStrategyResponseProducer kafkaStrategyResponseProducer;
     private static final Logger logger = LoggerFactory.getLogger(KafkaStrategyConsumer.class);
+    private static final byte[] EMPTY_STRATEGY = "{}".getBytes(StandardCharsets.UTF_8);
+    private static final String DRY_RUN_HEADER = "dry-run";
 
     @Autowired
-    public KafkaStrategyConsumer(StrategyEntityManager strategyEntityManager) {
+    public KafkaStrategyConsumer(StrategyEntityManager strategyEntityManager,
+                                 StrategyDryRunner strategyDryRunner,
+                                 KafkaStrategyResponseProducer kafkaStrategyResponseProducer) {
         this.strategyEntityManager = strategyEntityManager;
+        this.strategyDryRunner = strategyDryRunner;
+        this.kafkaStrategyResponseProducer = kafkaStrategyResponseProducer;
         logger.info("KafkaStrategyConsumer initialized successfully");
     }
 
-    @KafkaListener(topics = "${kafka.strategy-consume.topic}", groupId = "${kafka.strategy-consume.group-id}", concurrency = "3")
-    public void consume(ConsumerRecord<String, String> record) {
-        String strategy = record.key() != null ? record.key() : "{}";
-        strategyEntityManager.processStrategy(strategy);
-        logger.info("Received Kafka record - Key: {}, Partition: {}, Offset: {}", strategy, record.partition(), record.offset());
+    @KafkaListener(topics = "${kafka.strategy-consume.topic}", groupId = "${kafka.strategy-consume.group-id}",
+            concurrency = "3", containerFactory = "strategyListenerContainerFactory")
+    public void consume(ConsumerRecord<String, byte[]> record) {
+        byte[] strategy = strategyPayload(record);
+        boolean dryRun = isDryRun(record);
+        logger.info("Received Kafka record - Key: {}, Size: {} bytes, Partition: {}, Offset: {}, Dry run: {}",
+                record.key(), strategy.length, record.partition(), record.offset(), dryRun);
+
+        // Waiting at the record boundary keeps the container's offset commit after the strategy completes
+        (dryRun ? strategyDryRunner.dryRun(strategy) : strategyEntityManager.processStrategy(strategy))
+                .doOnNext(kafkaStrategyResponseProducer::send)
+                .block();
+    }
+
+    /**
+     * The strategy is read from the record value. Producers that still put the JSON in the key are
+     * supported as a fallback when the value is empty.
+     */
+    public static byte[] strategyPayload(ConsumerRecord<String, byte[]> record) {
+        if (record.value() != null && record.value().length > 0) {
+            return record.value();
+        }
+        return record.key() != null ? record.key().getBytes(StandardCharsets.UTF_8) : EMPTY_STRATEGY;
+    }
+
+    /**
+     * A record with a {@code dry-run: true} header only asks for the verdicts of the policies.
+     */
+    public static boolean isDryRun(ConsumerRecord<String, byte[]> record) {
+        Header header = record.headers().lastHeader(DRY_RUN_HEADER);
+        return header != null && header.value() != null
+                && Boolean.parseBoolean(new String(header.value(), StandardCharsets.UTF_8).trim());
     }
-}
\ No newline at end of file
+}
@@ -9,6 +9,7 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
+import yowyob.resource.management.services.strategy.StrategyResult;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,7 +20,6 @@ import java.util.concurrent.CompletableFuture;
 public class KafkaStrategyResponseProducer {
     private final String topic;
     private final KafkaTemplate<String, String> kafkaTemplate;
-    private final List<String> response = new ArrayList<>();
     private static final Logger log = LoggerFactory.getLogger(KafkaStrategyResponseProducer.class);
 
     @Autowired
@@ -28,28 +28,31 @@ public class KafkaStrategyResponseProducer {
         this.kafkaTemplate = kafkaTemplate;
     }
 
-    public void pushMessage(String message) {
-        this.response.add(message);
-    }
-
-    public void send() {
-        String response = this.response.stream().reduce("", (s1, s2) -> s1 + '\n' + s2);
-        CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(this.topic, response);
+    /**
+     * Sends the report of one strategy. The result carries its own messages, so concurrent
+     * strategies no longer share a response buffer.
+     */
+    public void send(StrategyResult result) {
+        List<String> lines = new ArrayList<>(result.getMessages());
+        if (!result.isSuccess()) {
+            lines.add(result.getError());
+        }
+        String response = String.join("\n", lines);
+
+        CompletableFuture<SendResult<String, String>> future =
+                kafkaTemplate.send(this.topic, result.getStrategyId().toString(), response);
         future.whenComplete(
-                (result, ex) -> {
+                (sendResult, ex) -> {
                     if (ex == null) {
-                        RecordMetadata metadata = result.getRecordMetadata();
+                        RecordMetadata metadata = sendResult.getRecordMetadata();
                         log.info("Message sent to topic {}, in the partition {}, with an offset of {}",
                                 metadata.topic(),
                                 metadata.partition(),
                                 metadata.offset());
                     } else {
-                        log.error("Error when sending response");
+                        log.error("Error when sending response for strategy {}", result.getStrategyId());
                     }
                 }
         );
-
-        this.response.clear();
     }
 }
-
@@ -0,0 +1,164 @@
+package yowyob.resource.management.services.policy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.commons.Command;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.exceptions.invalid.InvalidActionClassException;
+import yowyob.resource.management.exceptions.invalid.InvalidCommandException;
+import yowyob.resource.management.exceptions.invalid.InvalidEventClassException;
+import yowyob.resource.management.exceptions.invalid.InvalidInputException;
+import yowyob.resource.management.exceptions.policy.ExecutorPolicyViolationException;
+import yowyob.resource.management.exceptions.policy.PolicyViolationException;
+import yowyob.resource.management.exceptions.policy.UpdaterPolicyViolationException;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
+import yowyob.resource.management.services.policy.executors.ResourceExecutorPolicy;
+import yowyob.resource.management.services.policy.executors.ServiceExecutorPolicy;
+import yowyob.resource.management.services.policy.updaters.ResourceUpdaterPolicy;
+import yowyob.resource.management.services.policy.updaters.ServiceUpdaterPolicy;
+import yowyob.resource.management.services.resource.ResourceUpdater;
+import yowyob.resource.management.services.scheduling.EntityTimeline;
+import yowyob.resource.management.services.service.ServiceUpdater;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Judges every command of a strategy before any of them runs. The entities of the strategy are read once, into
+ * the snapshot of its context; the commands are then simulated in order against a copy of that snapshot and
+ * against copies of the entity timelines, so each command is judged on the state left by the ones before it and
+ * the policies do not go back to the repository for an entity of the strategy. Nothing is executed or scheduled.
+ */
+@Component
+public class BatchPolicyEvaluator {
+    private final ResourceExecutorPolicy resourceExecutorPolicy;
+    private final ServiceExecutorPolicy serviceExecutorPolicy;
+    private final ResourceUpdaterPolicy resourceUpdaterPolicy;
+    private final ServiceUpdaterPolicy serviceUpdaterPolicy;
+    private final ResourceUpdater resourceUpdater;
+    private final ServiceUpdater serviceUpdater;
+    private static final Logger logger = LoggerFactory.getLogger(BatchPolicyEvaluator.class);
+
+    @Autowired
+    public BatchPolicyEvaluator(ResourceExecutorPolicy resourceExecutorPolicy, ServiceExecutorPolicy serviceExecutorPolicy,
+                                ResourceUpdaterPolicy resourceUpdaterPolicy, ServiceUpdaterPolicy serviceUpdaterPolicy,
+                                ResourceUpdater resourceUpdater, ServiceUpdater serviceUpdater) {
+        this.resourceExecutorPolicy = resourceExecutorPolicy;
+        this.serviceExecutorPolicy = serviceExecutorPolicy;
+        this.resourceUpdaterPolicy = resourceUpdaterPolicy;
+        this.serviceUpdaterPolicy = serviceUpdaterPolicy;
+        this.resourceUpdater = resourceUpdater;
+        this.serviceUpdater = serviceUpdater;
+    }
+
+    /**
+     * @param snapshot the pre-images of the strategy, left untouched
+     * @return one verdict per command, in the order of the commands
+     */
+    public Mono<List<PolicyVerdict>> evaluate(List<? extends Command> commands, PreImageSnapshot snapshot) {
+        return Mono.defer(() -> {
+            Simulation simulation = new Simulation(snapshot.fork());
+            return Flux.fromIterable(commands)
+                    .concatMap(command -> this.evaluate(simulation, command))
+                    .collectList()
+                    .doOnNext(verdicts -> logger.info("Evaluated {} commands, {} denied", verdicts.size(),
+                            verdicts.stream().filter(verdict -> !verdict.allowed()).count()));
+        });
+    }
+
+    private Mono<PolicyVerdict> evaluate(Simulation simulation, Command command) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return this.judge(simulation, command)
+                    .map(verdict -> verdict.withElapsed(Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    private Mono<PolicyVerdict> judge(Simulation simulation, Command command) {
+        Mono<PolicyVerdict> verdict;
+        if (command instanceof Action action) {
+            verdict = this.evaluateAction(simulation, action);
+        } else if (command instanceof Event event) {
+            verdict = this.evaluateEvent(simulation, event);
+        } else {
+            verdict = Mono.error(new InvalidCommandException(
+                    String.format("Unsupported command type: %s. Expected types are Action or Event",
+                            command.getClass().getSimpleName())));
+        }
+
+        return verdict
+                .onErrorResume(PolicyViolationException.class, violation -> Mono.just(PolicyVerdict.deny(command, violation)))
+                .onErrorResume(InvalidInputException.class, violation -> Mono.just(PolicyVerdict.deny(command, violation)));
+    }
+
+    private Mono<PolicyVerdict> evaluateAction(Simulation simulation, Action action) {
+        Mono<Boolean> decision = switch (action.getActionClass()) {
+            case Resource -> resourceExecutorPolicy.isExecutionAllowed(action, simulation.state);
+            case Service -> serviceExecutorPolicy.isExecutionAllowed(action, simulation.state);
+            default -> Mono.error(new InvalidActionClassException(action));
+        };
+
+        return decision
+                .defaultIfEmpty(false)
+                .map(isAllowed -> {
+                    if (!isAllowed) {
+                        return PolicyVerdict.deny(action, new ExecutorPolicyViolationException(action,
+                                String.format("Execution of %s action is not allowed by policy", action.getActionClass())));
+                    }
+                    simulation.state.apply(action);
+                    return PolicyVerdict.allow(action);
+                });
+    }
+
+    private Mono<PolicyVerdict> evaluateEvent(Simulation simulation, Event event) {
+        EntityTimeline timeline;
+        Mono<Boolean> decision;
+        switch (event.getEventClass()) {
+            case Resource -> {
+                timeline = simulation.resourceTimelines.computeIfAbsent(event.getEntityId(),
+                        entityId -> resourceUpdater.getTimeline(entityId).copy());
+                decision = resourceUpdaterPolicy.isExecutionAllowed(event, timeline, simulation.state);
+            }
+            case Service -> {
+                timeline = simulation.serviceTimelines.computeIfAbsent(event.getEntityId(),
+                        entityId -> serviceUpdater.getTimeline(entityId).copy());
+                decision = serviceUpdaterPolicy.isExecutionAllowed(event, timeline, simulation.state);
+            }
+            default -> {
+                return Mono.error(new InvalidEventClassException(event));
+            }
+        }
+
+        return decision
+                .defaultIfEmpty(false)
+                .map(isAllowed -> {
+                    if (!isAllowed) {
+                        return PolicyVerdict.deny(event, new UpdaterPolicyViolationException(event,
+                                String.format("Scheduling of %s event is not allowed by policy", event.getEventClass())));
+                    }
+                    timeline.add(event);
+                    return PolicyVerdict.allow(event);
+                });
+    }
+
+    /**
+     * State of the entities as left by the commands judged so far.
+     */
+    private static final class Simulation {
+        private final PreImageSnapshot state;
+        private final Map<UUID, EntityTimeline> resourceTimelines = new HashMap<>();
+        private final Map<UUID, EntityTimeline> serviceTimelines = new HashMap<>();
+
+        private Simulation(PreImageSnapshot state) {
+            this.state = state;
+        }
+    }
+}
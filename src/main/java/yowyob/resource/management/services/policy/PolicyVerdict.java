@@ -0,0 +1,25 @@
+package yowyob.resource.management.services.policy;
+
+import yowyob.resource.management.commons.Command;
+
+import java.time.Duration;
+
+/**
+ * Decision of the policies on one command of a strategy.
+ * @param violation why the command is denied, null when it is allowed
+ * @param elapsed time the policies took to judge the command
+ */
+public record PolicyVerdict(Command command, boolean allowed, RuntimeException violation, Duration elapsed) {
+
+    public static PolicyVerdict allow(Command command) {
+        return new PolicyVerdict(command, true, null, Duration.ZERO);
+    }
+
+    public static PolicyVerdict deny(Command command, RuntimeException violation) {
+        return new PolicyVerdict(command, false, violation, Duration.ZERO);
+    }
+
+    public PolicyVerdict withElapsed(Duration elapsed) {
+        return new PolicyVerdict(command, allowed, violation, elapsed);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
 import yowyob.resource.management.models.resource.Resource;
 import yowyob.resource.management.actions.resource.ResourceAction;
 import yowyob.resource.management.services.interfaces.policies.ExecutorPolicy;
@@ -17,6 +18,8 @@ import yowyob.resource.management.actions.resource.operations.ResourceUpdateActi
 import yowyob.resource.management.services.policy.validators.transition.ResourceTransitionValidator;
 import yowyob.resource.management.services.policy.validators.operations.ResourceStatusBasedOperationValidator;
 
+import java.util.UUID;
+
 
 @Component
 public class ResourceExecutorPolicy implements ExecutorPolicy {
@@ -34,19 +37,24 @@ public class ResourceExecutorPolicy implements ExecutorPolicy {
 
     @Override
     public Mono<Boolean> isExecutionAllowed(Action action) {
+        return this.isExecutionAllowed(action, PreImageSnapshot.empty());
+    }
+
+    @Override
+    public Mono<Boolean> isExecutionAllowed(Action action, PreImageSnapshot snapshot) {
         logger.info("Evaluating execution policy for Action: Type={}, entityId={}",
                 action.getActionType(), action.getEntityId());
 
         ResourceAction resourceAction = (ResourceAction) action;
 
         return switch (resourceAction.getActionType()) {
-            case CREATE -> this.resourceRepository.findById(resourceAction.getEntityId())
+            case CREATE -> this.currentResource(resourceAction.getEntityId(), snapshot)
                     .map(resource -> false) // Resource exists, creation not allowed
                     .defaultIfEmpty(true) // Resource doesn't exist, creation allowed
                     .doOnSuccess(decision -> logger.info("CREATE decision for entityId={}: {}", 
                             resourceAction.getEntityId(), decision ? "ALLOWED" : "FORBIDDEN"));
 
-            case READ -> this.resourceRepository.findById(resourceAction.getEntityId())
+            case READ -> this.currentResource(resourceAction.getEntityId(), snapshot)
                     .map(resource -> true) // Resource exists, read allowed
                     .defaultIfEmpty(false) // Resource doesn't exist, read not allowed
                     .doOnSuccess(decision -> logger.info("READ decision for entityId={}: {}", 
@@ -54,7 +62,7 @@ public class ResourceExecutorPolicy implements ExecutorPolicy {
 
             case UPDATE -> {
                 ResourceUpdateAction resourceUpdateAction = (ResourceUpdateAction) resourceAction;
-                yield this.resourceRepository.findById(resourceAction.getEntityId())
+                yield this.currentResource(resourceAction.getEntityId(), snapshot)
                         .switchIfEmpty(Mono.error(new ExecutorPolicyViolationException(action, "Resource not found")))
                         .flatMap(currentResource -> {
                             ResourceStatus targetStatus = resourceUpdateAction.getResourceToUpdate().getStatus();
@@ -71,7 +79,7 @@ public class ResourceExecutorPolicy implements ExecutorPolicy {
                                 resourceAction.getEntityId(), decision ? "ALLOWED" : "FORBIDDEN"));
             }
 
-            case DELETE -> this.resourceRepository.findById(resourceAction.getEntityId())
+            case DELETE -> this.currentResource(resourceAction.getEntityId(), snapshot)
                     .switchIfEmpty(Mono.error(new ExecutorPolicyViolationException(action, "Resource not found.")))
                     .map(currentResource -> this.statusBasedOperationValidator.isDeletionAllowed(currentResource.getStatus()))
                     .doOnSuccess(decision -> logger.info("DELETE decision for entityId={}: {}", 
@@ -82,4 +90,10 @@ public class ResourceExecutorPolicy implements ExecutorPolicy {
                             resourceAction.getEntityId()));
         };
     }
+
+    private Mono<Resource> currentResource(UUID entityId, PreImageSnapshot snapshot) {
+        return snapshot.containsResource(entityId)
+                ? snapshot.getResource(entityId)
+                : this.resourceRepository.findById(entityId);
+    }
 }
@@ -5,10 +5,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Autowired;
-import java.time.Duration;
-import yowyob.resource.management.services.cache.ReactiveCacheService;
 
 import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
 import yowyob.resource.management.actions.service.operations.ServiceUpdateAction;
 import yowyob.resource.management.models.service.Services;
 import yowyob.resource.management.actions.service.ServiceAction;
@@ -19,53 +18,43 @@ import yowyob.resource.management.services.interfaces.policies.ExecutorPolicy;
 import yowyob.resource.management.services.policy.validators.operations.ServiceStatusBasedOperationValidator;
 import yowyob.resource.management.services.policy.validators.transition.ServiceTransitionValidator;
 
+import java.util.UUID;
+
 @Component
 public class ServiceExecutorPolicy implements ExecutorPolicy {
 
     private final ServiceRepository serviceRepository;
     private final ServiceTransitionValidator transitionValidator;
     private final ServiceStatusBasedOperationValidator statusValidator;
-    private final ReactiveCacheService reactiveCacheService;
     private final static Logger logger = LoggerFactory.getLogger(ServiceExecutorPolicy.class);
-    
-    private static final Duration POLICY_VALIDATION_TTL = Duration.ofMinutes(10);
-    private static final String POLICY_VALIDATION_PREFIX = "policy-validations:service";
-
-    public Mono<Boolean> validateActionPolicy(Action action) {
-        String cacheKey = reactiveCacheService.generateKey(POLICY_VALIDATION_PREFIX, action.getEntityId(), action.getActionType());
-        logger.debug("Validating policy for action: {} with entityId: {}", action.getActionType(), action.getEntityId());
-        
-        return reactiveCacheService.getOrCompute(
-            cacheKey,
-            isExecutionAllowed(action),
-            POLICY_VALIDATION_TTL,
-            Boolean.class
-        );
-    }
 
     @Autowired
-    public ServiceExecutorPolicy(ServiceRepository serviceRepository, ServiceTransitionValidator transitionValidator, ServiceStatusBasedOperationValidator statusValidator, ReactiveCacheService reactiveCacheService) {
+    public ServiceExecutorPolicy(ServiceRepository serviceRepository, ServiceTransitionValidator transitionValidator, ServiceStatusBasedOperationValidator statusValidator) {
         this.serviceRepository = serviceRepository;
         this.transitionValidator = transitionValidator;
         this.statusValidator = statusValidator;
-        this.reactiveCacheService = reactiveCacheService;
     }
 
     @Override
     public Mono<Boolean> isExecutionAllowed(Action action) {
+        return this.isExecutionAllowed(action, PreImageSnapshot.empty());
+    }
+
+    @Override
+    public Mono<Boolean> isExecutionAllowed(Action action, PreImageSnapshot snapshot) {
         logger.info("Evaluating execution policy for Action: {} with entityId: {}",
                 action.getActionType(), action.getEntityId());
 
         ServiceAction serviceAction = (ServiceAction) action;
 
         return switch (serviceAction.getActionType()) {
-            case CREATE -> this.serviceRepository.findById(serviceAction.getEntityId())
+            case CREATE -> this.currentService(serviceAction.getEntityId(), snapshot)
                     .map(service -> false) // Service exists, creation not allowed
                     .defaultIfEmpty(true) // Service doesn't exist, creation allowed
                     .doOnSuccess(decision -> logger.info("CREATE decision for entityId={}: {}", 
                             serviceAction.getEntityId(), decision ? "ALLOWED" : "FORBIDDEN"));
 
-            case READ -> this.serviceRepository.findById(serviceAction.getEntityId())
+            case READ -> this.currentService(serviceAction.getEntityId(), snapshot)
                     .map(service -> true) // Service exists, read allowed
                     .defaultIfEmpty(false) // Service doesn't exist, read not allowed
                     .doOnSuccess(decision -> logger.info("READ decision for entityId={}: {}", 
@@ -73,7 +62,7 @@ public class ServiceExecutorPolicy implements ExecutorPolicy {
 
             case UPDATE -> {
                 ServiceUpdateAction serviceUpdateAction = (ServiceUpdateAction) serviceAction;
-                yield this.serviceRepository.findById(serviceAction.getEntityId())
+                yield this.currentService(serviceAction.getEntityId(), snapshot)
                         .switchIfEmpty(Mono.error(new ExecutorPolicyViolationException(action, "Service not found")))
                         .flatMap(currentService -> {
                             ServiceStatus targetStatus = serviceUpdateAction.getServicesToUpdate().getStatus();
@@ -90,7 +79,7 @@ public class ServiceExecutorPolicy implements ExecutorPolicy {
                                 serviceAction.getEntityId(), decision ? "ALLOWED" : "FORBIDDEN"));
             }
 
-            case DELETE -> this.serviceRepository.findById(serviceAction.getEntityId())
+            case DELETE -> this.currentService(serviceAction.getEntityId(), snapshot)
                     .switchIfEmpty(Mono.error(new ExecutorPolicyViolationException(action, "Service not found.")))
                     .map(currentService -> this.statusValidator.isDeletionAllowed(currentService.getStatus()))
                     .doOnSuccess(decision -> logger.info("DELETE decision for entityId={}: {}", 
@@ -101,4 +90,10 @@ public class ServiceExecutorPolicy implements ExecutorPolicy {
                             serviceAction.getEntityId()));
         };
     }
+
+    private Mono<Services> currentService(UUID entityId, PreImageSnapshot snapshot) {
+        return snapshot.containsService(entityId)
+                ? snapshot.getService(entityId)
+                : this.serviceRepository.findById(entityId);
+    }
 }
@@ -7,21 +7,25 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 import yowyob.resource.management.actions.enums.ActionClass;
 import yowyob.resource.management.actions.enums.ActionType;
-import yowyob.resource.management.actions.resource.operations.ResourceCreationAction;
 import yowyob.resource.management.actions.resource.operations.ResourceUpdateAction;
 import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.recurrence.RecurrenceRule;
+import yowyob.resource.management.events.recurrence.RecurringEvent;
 import yowyob.resource.management.exceptions.policy.UpdaterPolicyViolationException;
 import yowyob.resource.management.helpers.Tuple;
 import yowyob.resource.management.models.resource.Resource;
 import yowyob.resource.management.models.resource.enums.ResourceStatus;
 import yowyob.resource.management.repositories.resource.ResourceRepository;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
 import yowyob.resource.management.services.interfaces.policies.UpdaterPolicy;
+import yowyob.resource.management.services.scheduling.EntityTimeline;
+import yowyob.resource.management.services.scheduling.Recurrence;
 import yowyob.resource.management.services.policy.validators.operations.ResourceStatusBasedOperationValidator;
 import yowyob.resource.management.services.policy.validators.transition.ResourceTransitionValidator;
 
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 @Component
 public class ResourceUpdaterPolicy implements UpdaterPolicy {
@@ -42,14 +46,21 @@ public class ResourceUpdaterPolicy implements UpdaterPolicy {
 
     @Override
     public Mono<Boolean> isExecutionAllowed(Event event, List<Event> scheduledEvents) {
+        return this.isExecutionAllowed(event, EntityTimeline.of(event.getEntityId(), scheduledEvents.stream()
+                .filter(scheduledEvent -> scheduledEvent.getAction().getActionClass() == ActionClass.Resource)
+                .toList()));
+    }
+
+    @Override
+    public Mono<Boolean> isExecutionAllowed(Event event, EntityTimeline timeline) {
+        return this.isExecutionAllowed(event, timeline, PreImageSnapshot.empty());
+    }
+
+    @Override
+    public Mono<Boolean> isExecutionAllowed(Event event, EntityTimeline timeline, PreImageSnapshot snapshot) {
         logger.info("Evaluating Resource Updater policy for Event with Action: Type={} entityId={} start={}",
                 event.getAction().getActionType(), event.getEntityId(), event.getEventStartDateTime());
 
-        List<Event> timeline = scheduledEvents.stream()
-                .filter(scheduledEvent -> scheduledEvent.getAction().getActionClass() == ActionClass.Resource)
-                .sorted(Comparator.comparing(Event::getEventStartDateTime))
-                .toList();
-
         Event eventBefore = this.getEventBefore(event, timeline);
         ActionType actionType = event.getAction().getActionType();
 
@@ -61,7 +72,7 @@ public class ResourceUpdaterPolicy implements UpdaterPolicy {
                         "Cannot schedule a resource CREATE action because a CREATE action is only allowed after a DELETE action."));
             }
 
-            result = resourceRepository.existsById(event.getEntityId())
+            result = this.exists(event.getEntityId(), snapshot)
                     .flatMap(exists -> {
                         if (exists) {
                             return Mono.error(new UpdaterPolicyViolationException(event,
@@ -76,7 +87,7 @@ public class ResourceUpdaterPolicy implements UpdaterPolicy {
                         "Cannot schedule a resource READ action because a READ action is not allowed after a DELETE action."));
             }
 
-            result = resourceRepository.existsById(event.getEntityId())
+            result = this.exists(event.getEntityId(), snapshot)
                     .flatMap(exists -> {
                         if (!exists) {
                             return Mono.error(new UpdaterPolicyViolationException(event,
@@ -91,7 +102,7 @@ public class ResourceUpdaterPolicy implements UpdaterPolicy {
                         "UPDATE action is not allowed after a DELETE action."));
             }
 
-            result = getPreviousStatusReactive(event, timeline)
+            result = getPreviousStatusReactive(event, timeline, snapshot)
                     .flatMap(previousStatus -> {
                         Tuple<ResourceStatus, Event> nextStatus = this.getNextStatus(event, timeline);
                         ResourceStatus statusToUpdate = ((ResourceUpdateAction) event.getAction()).getResourceToUpdate().getStatus();
@@ -116,7 +127,7 @@ public class ResourceUpdaterPolicy implements UpdaterPolicy {
                     });
 
         } else if (actionType == ActionType.DELETE) {
-            result = getPreviousStatusReactive(event, timeline)
+            result = getPreviousStatusReactive(event, timeline, snapshot)
                     .flatMap(currentStatus -> {
                         if (!this.statusBasedOperationValidator.isDeletionAllowed(currentStatus.getFirst())) {
                             return Mono.error(new UpdaterPolicyViolationException(event, currentStatus.getSecond(),
@@ -135,51 +146,147 @@ public class ResourceUpdaterPolicy implements UpdaterPolicy {
                 actionType, event.getEntityId(), event.getEventStartDateTime(), decision ? "ALLOWED" : "FORBIDDEN"));
     }
 
-    private Mono<Tuple<ResourceStatus, Event>> getPreviousStatusReactive(Event event, List<Event> timeline) {
-        Event previousUpdateEvent = this.getPreviousEventByActionType(event, timeline, ActionType.UPDATE);
-        if (previousUpdateEvent == null) {
-            return resourceRepository.findById(event.getEntityId())
-                    .map(currentResource -> new Tuple<>(currentResource.getStatus(), (Event) null))
-                    .switchIfEmpty(Mono.<Tuple<ResourceStatus, Event>>defer(() -> {
-                        Event creationEvent = this.getPreviousEventByActionType(event, timeline, ActionType.CREATE);
-                        if (creationEvent == null) {
-                            return Mono.error(new UpdaterPolicyViolationException(event,
-                                    String.format("Cannot get previous status for resource %s: " +
-                                                    "The resource does not exist in the database and no creation event was found in the timeline.",
-                                            event.getEntityId())
-                            ));
-                        } else {
-                            Event deletionEvent = this.getPreviousEventByActionType(event, timeline, ActionType.DELETE);
-                            if (deletionEvent != null) {
-                                if (deletionEvent.getEventStartDateTime().isAfter(creationEvent.getEventStartDateTime())) {
-                                    return Mono.error(new UpdaterPolicyViolationException(event,
-                                            deletionEvent,
-                                            String.format("Cannot get previous status for resource %s: " +
-                                                            "Invalid timeline detected - found creation event at %s but it's followed by a deletion at %s. " +
-                                                            "Deletion must come before creation to determine previous status.",
-                                                    event.getEntityId(),
-                                                    creationEvent.getEventStartDateTime(),
-                                                    deletionEvent.getEventStartDateTime())
-                                    ));
-                                }
-                            }
-                            // dans les deux cas (deletion null ou pas après creation), on retourne le status du creationEvent
-                            ResourceStatus previousStatus = ((ResourceCreationAction) creationEvent.getAction()).getResourceToSave().getStatus();
-                            return Mono.just(new Tuple<>(previousStatus, creationEvent));
-                        }
-                    }));
+    /**
+     * Checks a recurring event against its rule rather than against a list of occurrences. The first occurrence
+     * is checked like a single event; every later step of the resource's timeline is then checked against the
+     * occurrences on each side of it, found by the rule in constant time. The cost follows what is already
+     * scheduled for the resource, not the number of occurrences.
+     */
+    @Override
+    public Mono<Boolean> isRecurrenceAllowed(RecurringEvent recurringEvent, EntityTimeline timeline) {
+        RecurrenceRule rule = recurringEvent.getRule();
+        Event first = recurringEvent.occurrence(0);
+        ActionType actionType = recurringEvent.getAction().getActionType();
+        if (rule.getLastIndex() == 0) {
+            return this.isExecutionAllowed(first, timeline);
+        }
+        if (actionType != ActionType.READ && actionType != ActionType.UPDATE) {
+            return Mono.error(new UpdaterPolicyViolationException(first,
+                    String.format("Cannot schedule a recurring resource %s action: only READ and UPDATE actions can repeat.", actionType)));
+        }
 
-        } else {
-            ResourceStatus previousStatus = ((ResourceUpdateAction) previousUpdateEvent.getAction()).getResourceToUpdate().getStatus();
-            return Mono.just(new Tuple<>(previousStatus, previousUpdateEvent));
+        LocalDateTime last = rule.occurrence(rule.getLastIndex());
+        return this.isExecutionAllowed(first, timeline)
+                .flatMap(allowed -> {
+                    if (!allowed) {
+                        return Mono.just(false);
+                    }
+
+                    Event deletion = timeline.firstAfter(first.getEventStartDateTime(), ActionType.DELETE);
+                    if (deletion != null && deletion.getEventStartDateTime().isBefore(last)) {
+                        return Mono.error(new UpdaterPolicyViolationException(first, deletion,
+                                String.format("Cannot repeat a resource %s action until %s: the resource is deleted at %s.",
+                                        actionType, last, deletion.getEventStartDateTime())));
+                    }
+                    if (actionType == ActionType.UPDATE) {
+                        return this.checkRecurringTransitions(recurringEvent, first, last, timeline);
+                    }
+                    return Mono.just(true);
+                });
+    }
+
+    private Mono<Boolean> checkRecurringTransitions(RecurringEvent recurringEvent, Event first, LocalDateTime last,
+                                                    EntityTimeline timeline) {
+        RecurrenceRule rule = recurringEvent.getRule();
+        ResourceStatus status = ((ResourceUpdateAction) recurringEvent.getAction()).getResourceToUpdate().getStatus();
+        if (!this.transitionValidator.isTransitionAllowed(status, status)) {
+            return Mono.error(new UpdaterPolicyViolationException(first,
+                    String.format("Cannot repeat an update to %s: Transition from %s to itself not allowed.", status, status)));
+        }
+
+        for (Event step : timeline.page(first.getEventStartDateTime(), LocalDateTime.MAX, ActionType.UPDATE, null, Integer.MAX_VALUE)) {
+            ResourceStatus stepStatus = ((ResourceUpdateAction) step.getAction()).getResourceToUpdate().getStatus();
+            boolean occursAfter = rule.indexAfter(step.getEventStartDateTime()) <= rule.getLastIndex();
+            if (!this.transitionValidator.isTransitionAllowed(status, stepStatus)
+                    || (occursAfter && !this.transitionValidator.isTransitionAllowed(stepStatus, status))) {
+                return Mono.error(new UpdaterPolicyViolationException(first, step,
+                        String.format("Cannot repeat an update to %s: Conflicts with scheduled transition to %s at %s",
+                                status, stepStatus, step.getEventStartDateTime())));
+            }
+            if (!occursAfter) {
+                break;
+            }
         }
+
+        for (Recurrence other : timeline.getRecurrences()) {
+            Event next = other.firstAfter(first.getEventStartDateTime().minusNanos(1));
+            if (other.getActionType() != ActionType.UPDATE || next == null) {
+                continue;
+            }
+            ResourceStatus otherStatus = ((ResourceUpdateAction) other.getRecurringEvent().getAction()).getResourceToUpdate().getStatus();
+            boolean interleaved = next.getEventStartDateTime().isBefore(last);
+            if (!this.transitionValidator.isTransitionAllowed(status, otherStatus)
+                    || (interleaved && !this.transitionValidator.isTransitionAllowed(otherStatus, status))) {
+                return Mono.error(new UpdaterPolicyViolationException(first, next,
+                        String.format("Cannot repeat an update to %s: Conflicts with the recurring transition to %s from %s",
+                                status, otherStatus, next.getEventStartDateTime())));
+            }
+        }
+        return Mono.just(true);
+    }
+
+    /**
+     * Reads the status in force just before the event from the status function of the timeline. When no scheduled
+     * step precedes the event, the current state comes from the snapshot if it holds the resource, else from the
+     * database: it is read again on each check, since strategies, direct actions and other nodes change it.
+     */
+    private Mono<Tuple<ResourceStatus, Event>> getPreviousStatusReactive(Event event, EntityTimeline timeline, PreImageSnapshot snapshot) {
+        return this.statusBefore(event, timeline, snapshot)
+                .flatMap(step -> {
+                    if (step.exists()) {
+                        return Mono.just(new Tuple<>((ResourceStatus) step.status(), step.setBy()));
+                    }
+
+                    if (step.setBy() == null) {
+                        return Mono.error(new UpdaterPolicyViolationException(event,
+                                String.format("Cannot get previous status for resource %s: " +
+                                                "The resource does not exist in the database and no creation event was found in the timeline.",
+                                        event.getEntityId())
+                        ));
+                    }
+                    return Mono.error(new UpdaterPolicyViolationException(event,
+                            step.setBy(),
+                            String.format("Cannot get previous status for resource %s: " +
+                                            "The resource is deleted by the event at %s and not created again before %s.",
+                                    event.getEntityId(),
+                                    step.setBy().getEventStartDateTime(),
+                                    event.getEventStartDateTime())
+                    ));
+                });
+    }
+
+    private Mono<EntityTimeline.StatusStep> statusBefore(Event event, EntityTimeline timeline, PreImageSnapshot snapshot) {
+        return Mono.defer(() -> {
+            EntityTimeline.StatusStep step = timeline.statusBefore(event.getEventStartDateTime());
+            if (step != null) {
+                return Mono.just(step);
+            }
+            if (snapshot.containsResource(timeline.getEntityId())) {
+                return snapshot.getResource(timeline.getEntityId())
+                        .map(current -> new EntityTimeline.StatusStep(current.getStatus(), true, null))
+                        .defaultIfEmpty(new EntityTimeline.StatusStep(null, false, null));
+            }
+            return this.loadCurrentStatus(timeline.getEntityId());
+        });
     }
 
-    private Tuple<ResourceStatus, Event> getPreviousStatus(Event event, List<Event> timeline) {
-        return getPreviousStatusReactive(event, timeline).block();
+    private Mono<Boolean> exists(UUID entityId, PreImageSnapshot snapshot) {
+        return snapshot.containsResource(entityId)
+                ? snapshot.getResource(entityId).hasElement()
+                : resourceRepository.existsById(entityId);
     }
 
-    private Tuple<ResourceStatus, Event> getNextStatus(Event event, List<Event> timeline) {
+    private Mono<EntityTimeline.StatusStep> loadCurrentStatus(UUID entityId) {
+        return resourceRepository.findById(entityId)
+                .map(currentResource -> new EntityTimeline.StatusStep(currentResource.getStatus(), true, null))
+                .defaultIfEmpty(new EntityTimeline.StatusStep(null, false, null));
+    }
+
+    private Tuple<ResourceStatus, Event> getPreviousStatus(Event event, EntityTimeline timeline) {
+        return getPreviousStatusReactive(event, timeline, PreImageSnapshot.empty()).block();
+    }
+
+    private Tuple<ResourceStatus, Event> getNextStatus(Event event, EntityTimeline timeline) {
         ResourceStatus statusToUpdate = ((ResourceUpdateAction) event.getAction()).getResourceToUpdate().getStatus();
         Event nextUpdateEvent = this.getNextEventByActionType(event, timeline, ActionType.UPDATE);
         if (nextUpdateEvent == null) {
@@ -190,38 +297,11 @@ public class ResourceUpdaterPolicy implements UpdaterPolicy {
         }
     }
 
-    private Event getEventBefore(Event event, List<Event> timeline) {
-        return timeline.stream()
-                .filter(e -> e.getEventStartDateTime().isBefore(event.getEventStartDateTime()))
-                .max(Comparator.comparing(Event::getEventStartDateTime))
-                .orElse(null);
-    }
-
-    private List<Event> getAllEventsBefore(Event event, List<Event> timeline) {
-        return timeline.stream()
-                .filter(e -> e.getEventStartDateTime().isBefore(event.getEventStartDateTime()))
-                .toList();
-    }
-
-    private Event getPreviousEventByActionType(Event event, List<Event> timeline, ActionType actionType) {
-        return this.getAllEventsBefore(event, timeline)
-                .stream()
-                .filter(e -> e.getAction().getActionType() == actionType)
-                .max(Comparator.comparing(Event::getEventStartDateTime))
-                .orElse(null);
-    }
-
-    private List<Event> getAllEventsAfter(Event event, List<Event> timeline) {
-        return timeline.stream()
-                .filter(e -> e.getEventStartDateTime().isAfter(event.getEventStartDateTime()))
-                .toList();
+    private Event getEventBefore(Event event, EntityTimeline timeline) {
+        return timeline.lastBefore(event.getEventStartDateTime());
     }
 
-    private Event getNextEventByActionType(Event event, List<Event> timeline, ActionType actionType) {
-        return this.getAllEventsAfter(event, timeline)
-                .stream()
-                .filter(e -> e.getAction().getActionType() == actionType)
-                .min(Comparator.comparing(Event::getEventStartDateTime))
-                .orElse(null);
+    private Event getNextEventByActionType(Event event, EntityTimeline timeline, ActionType actionType) {
+        return timeline.firstAfter(event.getEventStartDateTime(), actionType);
     }
-}
\ No newline at end of file
+}
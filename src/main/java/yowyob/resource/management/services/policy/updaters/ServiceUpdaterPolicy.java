@@ -7,20 +7,25 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 import yowyob.resource.management.actions.enums.ActionClass;
 import yowyob.resource.management.actions.enums.ActionType;
-import yowyob.resource.management.actions.service.operations.ServiceCreationAction;
 import yowyob.resource.management.actions.service.operations.ServiceUpdateAction;
 import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.recurrence.RecurrenceRule;
+import yowyob.resource.management.events.recurrence.RecurringEvent;
 import yowyob.resource.management.exceptions.policy.UpdaterPolicyViolationException;
 import yowyob.resource.management.helpers.Tuple;
 import yowyob.resource.management.models.service.Services;
 import yowyob.resource.management.models.service.enums.ServiceStatus;
 import yowyob.resource.management.repositories.service.ServiceRepository;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
 import yowyob.resource.management.services.interfaces.policies.UpdaterPolicy;
+import yowyob.resource.management.services.scheduling.EntityTimeline;
+import yowyob.resource.management.services.scheduling.Recurrence;
 import yowyob.resource.management.services.policy.validators.operations.ServiceStatusBasedOperationValidator;
 import yowyob.resource.management.services.policy.validators.transition.ServiceTransitionValidator;
 
-import java.util.Comparator;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 
 @Component
@@ -41,14 +46,21 @@ public class ServiceUpdaterPolicy implements UpdaterPolicy {
 
     @Override
     public Mono<Boolean> isExecutionAllowed(Event event, List<Event> scheduledEvents) {
+        return this.isExecutionAllowed(event, EntityTimeline.of(event.getEntityId(), scheduledEvents.stream()
+                .filter(scheduledEvent -> scheduledEvent.getAction().getActionClass() == ActionClass.Service)
+                .toList()));
+    }
+
+    @Override
+    public Mono<Boolean> isExecutionAllowed(Event event, EntityTimeline timeline) {
+        return this.isExecutionAllowed(event, timeline, PreImageSnapshot.empty());
+    }
+
+    @Override
+    public Mono<Boolean> isExecutionAllowed(Event event, EntityTimeline timeline, PreImageSnapshot snapshot) {
         logger.info("Evaluating Services Updater policy for Event with Action : {} with entityId: {} at {}",
                 event.getAction().getActionType(), event.getEntityId(), event.getEventStartDateTime());
 
-        List<Event> timeline = scheduledEvents.stream()
-                .filter(scheduledEvent -> scheduledEvent.getAction().getActionClass() == ActionClass.Service)
-                .sorted(Comparator.comparing(Event::getEventStartDateTime))
-                .toList();
-
         Event eventBefore = this.getEventBefore(event, timeline);
 
         Mono<Boolean> decisionMono = switch (event.getAction().getActionType()) {
@@ -60,7 +72,7 @@ public class ServiceUpdaterPolicy implements UpdaterPolicy {
                     ));
                 }
 
-                yield serviceRepository.existsById(event.getEntityId())
+                yield this.exists(event.getEntityId(), snapshot)
                         .flatMap(exists -> {
                             if (exists) {
                                 return Mono.error(new UpdaterPolicyViolationException(event,
@@ -79,7 +91,7 @@ public class ServiceUpdaterPolicy implements UpdaterPolicy {
                     ));
                 }
 
-                yield serviceRepository.existsById(event.getEntityId())
+                yield this.exists(event.getEntityId(), snapshot)
                         .flatMap(exists -> {
                             if (!exists) {
                                 return Mono.error(new UpdaterPolicyViolationException(event,
@@ -99,7 +111,7 @@ public class ServiceUpdaterPolicy implements UpdaterPolicy {
                     ));
                 }
 
-                yield getPreviousStatusReactive(event, timeline)
+                yield getPreviousStatusReactive(event, timeline, snapshot)
                         .flatMap(previousStatus -> {
                             Tuple<ServiceStatus, Event> nextStatus = this.getNextStatus(event, timeline);
                             ServiceStatus statusToUpdate = ((ServiceUpdateAction) event.getAction()).getServicesToUpdate().getStatus();
@@ -142,7 +154,7 @@ public class ServiceUpdaterPolicy implements UpdaterPolicy {
             }
 
             case DELETE -> {
-                yield getPreviousStatusReactive(event, timeline)
+                yield getPreviousStatusReactive(event, timeline, snapshot)
                         .flatMap(currentStatus -> {
                             if (!this.statusBasedOperationValidator.isDeletionAllowed(currentStatus.getFirst())) {
                                 return Mono.error(new UpdaterPolicyViolationException(
@@ -166,51 +178,147 @@ public class ServiceUpdaterPolicy implements UpdaterPolicy {
         );
     }
 
-    private Mono<Tuple<ServiceStatus, Event>> getPreviousStatusReactive(Event event, List<Event> timeline) {
-        Event previousUpdateEvent = this.getPreviousEventByActionType(event, timeline, ActionType.UPDATE);
+    /**
+     * Checks a recurring event against its rule rather than against a list of occurrences. The first occurrence
+     * is checked like a single event; every later step of the service's timeline is then checked against the
+     * occurrences on each side of it, found by the rule in constant time. The cost follows what is already
+     * scheduled for the service, not the number of occurrences.
+     */
+    @Override
+    public Mono<Boolean> isRecurrenceAllowed(RecurringEvent recurringEvent, EntityTimeline timeline) {
+        RecurrenceRule rule = recurringEvent.getRule();
+        Event first = recurringEvent.occurrence(0);
+        ActionType actionType = recurringEvent.getAction().getActionType();
+        if (rule.getLastIndex() == 0) {
+            return this.isExecutionAllowed(first, timeline);
+        }
+        if (actionType != ActionType.READ && actionType != ActionType.UPDATE) {
+            return Mono.error(new UpdaterPolicyViolationException(first,
+                    String.format("Cannot schedule a recurring service %s action: only READ and UPDATE actions can repeat.", actionType)));
+        }
+
+        LocalDateTime last = rule.occurrence(rule.getLastIndex());
+        return this.isExecutionAllowed(first, timeline)
+                .flatMap(allowed -> {
+                    if (!allowed) {
+                        return Mono.just(false);
+                    }
+
+                    Event deletion = timeline.firstAfter(first.getEventStartDateTime(), ActionType.DELETE);
+                    if (deletion != null && deletion.getEventStartDateTime().isBefore(last)) {
+                        return Mono.error(new UpdaterPolicyViolationException(first, deletion,
+                                String.format("Cannot repeat a service %s action until %s: the service is deleted at %s.",
+                                        actionType, last, deletion.getEventStartDateTime())));
+                    }
+                    if (actionType == ActionType.UPDATE) {
+                        return this.checkRecurringTransitions(recurringEvent, first, last, timeline);
+                    }
+                    return Mono.just(true);
+                });
+    }
+
+    private Mono<Boolean> checkRecurringTransitions(RecurringEvent recurringEvent, Event first, LocalDateTime last,
+                                                    EntityTimeline timeline) {
+        RecurrenceRule rule = recurringEvent.getRule();
+        ServiceStatus status = ((ServiceUpdateAction) recurringEvent.getAction()).getServicesToUpdate().getStatus();
+        if (!this.transitionValidator.isTransitionAllowed(status, status)) {
+            return Mono.error(new UpdaterPolicyViolationException(first,
+                    String.format("Cannot repeat an update to %s: Transition from %s to itself not allowed.", status, status)));
+        }
 
-        if (previousUpdateEvent != null) {
-            ServiceStatus previousStatus = ((ServiceUpdateAction) previousUpdateEvent.getAction()).getServicesToUpdate().getStatus();
-            return Mono.just(new Tuple<>(previousStatus, previousUpdateEvent));
+        for (Event step : timeline.page(first.getEventStartDateTime(), LocalDateTime.MAX, ActionType.UPDATE, null, Integer.MAX_VALUE)) {
+            ServiceStatus stepStatus = ((ServiceUpdateAction) step.getAction()).getServicesToUpdate().getStatus();
+            boolean occursAfter = rule.indexAfter(step.getEventStartDateTime()) <= rule.getLastIndex();
+            if (!this.transitionValidator.isTransitionAllowed(status, stepStatus)
+                    || (occursAfter && !this.transitionValidator.isTransitionAllowed(stepStatus, status))) {
+                return Mono.error(new UpdaterPolicyViolationException(first, step,
+                        String.format("Cannot repeat an update to %s: Conflicts with scheduled transition to %s at %s",
+                                status, stepStatus, step.getEventStartDateTime())));
+            }
+            if (!occursAfter) {
+                break;
+            }
         }
 
-        return serviceRepository.findById(event.getEntityId())
-                .map(currentService -> new Tuple<>(currentService.getStatus(), (Event) null))
-                .switchIfEmpty(Mono.<Tuple<ServiceStatus, Event>>defer(() -> {
-                    Event creationEvent = this.getPreviousEventByActionType(event, timeline, ActionType.CREATE);
-                    if (creationEvent == null) {
+        for (Recurrence other : timeline.getRecurrences()) {
+            Event next = other.firstAfter(first.getEventStartDateTime().minusNanos(1));
+            if (other.getActionType() != ActionType.UPDATE || next == null) {
+                continue;
+            }
+            ServiceStatus otherStatus = ((ServiceUpdateAction) other.getRecurringEvent().getAction()).getServicesToUpdate().getStatus();
+            boolean interleaved = next.getEventStartDateTime().isBefore(last);
+            if (!this.transitionValidator.isTransitionAllowed(status, otherStatus)
+                    || (interleaved && !this.transitionValidator.isTransitionAllowed(otherStatus, status))) {
+                return Mono.error(new UpdaterPolicyViolationException(first, next,
+                        String.format("Cannot repeat an update to %s: Conflicts with the recurring transition to %s from %s",
+                                status, otherStatus, next.getEventStartDateTime())));
+            }
+        }
+        return Mono.just(true);
+    }
+
+    /**
+     * Reads the status in force just before the event from the status function of the timeline. When no scheduled
+     * step precedes the event, the current state comes from the snapshot if it holds the service, else from the
+     * database: it is read again on each check, since strategies, direct actions and other nodes change it.
+     */
+    private Mono<Tuple<ServiceStatus, Event>> getPreviousStatusReactive(Event event, EntityTimeline timeline, PreImageSnapshot snapshot) {
+        return this.statusBefore(event, timeline, snapshot)
+                .flatMap(step -> {
+                    if (step.exists()) {
+                        return Mono.just(new Tuple<>((ServiceStatus) step.status(), step.setBy()));
+                    }
+
+                    if (step.setBy() == null) {
                         return Mono.error(new UpdaterPolicyViolationException(event,
                                 String.format("Cannot get previous status for service %s: " +
                                                 "The service does not exist in the database and no creation event was found in the timeline.",
                                         event.getEntityId())
                         ));
                     }
+                    return Mono.error(new UpdaterPolicyViolationException(event,
+                            step.setBy(),
+                            String.format("Cannot get previous status for service %s: " +
+                                            "The service is deleted by the event at %s and not created again before %s.",
+                                    event.getEntityId(),
+                                    step.setBy().getEventStartDateTime(),
+                                    event.getEventStartDateTime())
+                    ));
+                });
+    }
 
-                    Event deletionEvent = this.getPreviousEventByActionType(event, timeline, ActionType.DELETE);
-                    if (deletionEvent != null &&
-                            deletionEvent.getEventStartDateTime().isAfter(creationEvent.getEventStartDateTime())) {
-                        return Mono.error(new UpdaterPolicyViolationException(event,
-                                deletionEvent,
-                                String.format("Cannot get previous status for service %s: " +
-                                                "Invalid timeline detected - found creation event at %s but it's followed by a deletion at %s.",
-                                        event.getEntityId(),
-                                        creationEvent.getEventStartDateTime(),
-                                        deletionEvent.getEventStartDateTime())
-                        ));
-                    }
+    private Mono<EntityTimeline.StatusStep> statusBefore(Event event, EntityTimeline timeline, PreImageSnapshot snapshot) {
+        return Mono.defer(() -> {
+            EntityTimeline.StatusStep step = timeline.statusBefore(event.getEventStartDateTime());
+            if (step != null) {
+                return Mono.just(step);
+            }
+            if (snapshot.containsService(timeline.getEntityId())) {
+                return snapshot.getService(timeline.getEntityId())
+                        .map(current -> new EntityTimeline.StatusStep(current.getStatus(), true, null))
+                        .defaultIfEmpty(new EntityTimeline.StatusStep(null, false, null));
+            }
+            return this.loadCurrentStatus(timeline.getEntityId());
+        });
+    }
+
+    private Mono<Boolean> exists(UUID entityId, PreImageSnapshot snapshot) {
+        return snapshot.containsService(entityId)
+                ? snapshot.getService(entityId).hasElement()
+                : serviceRepository.existsById(entityId);
+    }
 
-                    ServiceStatus previousStatus = ((ServiceCreationAction) creationEvent.getAction())
-                            .getServiceToSave()
-                            .getStatus();
-                    return Mono.just(new Tuple<>(previousStatus, creationEvent));
-                }));
+    private Mono<EntityTimeline.StatusStep> loadCurrentStatus(UUID entityId) {
+        return serviceRepository.findById(entityId)
+                .map(currentServices -> new EntityTimeline.StatusStep(currentServices.getStatus(), true, null))
+                .defaultIfEmpty(new EntityTimeline.StatusStep(null, false, null));
     }
 
-    private Tuple<ServiceStatus, Event> getPreviousStatus(Event event, List<Event> timeline) {
-        return getPreviousStatusReactive(event, timeline).block();
+    private Tuple<ServiceStatus, Event> getPreviousStatus(Event event, EntityTimeline timeline) {
+        return getPreviousStatusReactive(event, timeline, PreImageSnapshot.empty()).block();
     }
 
-    private Tuple<ServiceStatus, Event> getNextStatus(Event event, List<Event> timeline) {
+    private Tuple<ServiceStatus, Event> getNextStatus(Event event, EntityTimeline timeline) {
         ServiceStatus statusToUpdate = ((ServiceUpdateAction) event.getAction()).getServicesToUpdate().getStatus();
         Event nextUpdateEvent = this.getNextEventByActionType(event, timeline, ActionType.UPDATE);
         if (nextUpdateEvent == null) {
@@ -221,39 +329,11 @@ public class ServiceUpdaterPolicy implements UpdaterPolicy {
         }
     }
 
-    private Event getEventBefore(Event event, List<Event> timeline) {
-        return timeline.stream()
-                .filter(e -> e.getEventStartDateTime().isBefore(event.getEventStartDateTime()))
-                .max(Comparator.comparing(Event::getEventStartDateTime))
-                .orElse(null);
-    }
-
-    private List<Event> getAllEventsBefore(Event event, List<Event> timeline) {
-        return timeline.stream()
-                .filter(e -> e.getEventStartDateTime().isBefore(event.getEventStartDateTime()))
-                .toList();
+    private Event getEventBefore(Event event, EntityTimeline timeline) {
+        return timeline.lastBefore(event.getEventStartDateTime());
     }
 
-    private Event getPreviousEventByActionType(Event event, List<Event> timeline, ActionType actionType) {
-        return this.getAllEventsBefore(event, timeline)
-                .stream()
-                .filter(e -> e.getAction().getActionType() == actionType)
-                .max(Comparator.comparing(Event::getEventStartDateTime))
-                .orElse(null);
-    }
-
-    private List<Event> getAllEventsAfter(Event event, List<Event> timeline) {
-        return timeline.stream()
-                .filter(e -> e.getEventStartDateTime().isAfter(event.getEventStartDateTime()))
-                .toList();
-    }
-
-    private Event getNextEventByActionType(Event event, List<Event> timeline, ActionType actionType) {
-        return this.getAllEventsAfter(event, timeline)
-                .stream()
-                .filter(e -> e.getAction().getActionType() == actionType)
-                .min(Comparator.comparing(Event::getEventStartDateTime))
-                .orElse(null);
+    private Event getNextEventByActionType(Event event, EntityTimeline timeline, ActionType actionType) {
+        return timeline.firstAfter(event.getEventStartDateTime(), actionType);
     }
 }
-
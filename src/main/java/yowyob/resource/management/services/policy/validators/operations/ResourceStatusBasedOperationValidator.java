@@ -1,15 +1,23 @@
 package yowyob.resource.management.services.policy.validators.operations;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import yowyob.resource.management.models.resource.enums.ResourceStatus;
+import yowyob.resource.management.services.policy.validators.rules.StatusRuleEngine;
 
+/**
+ * Statuses in which a resource may be deleted, as configured in the {@link StatusRuleEngine}.
+ */
 @Component
 public class ResourceStatusBasedOperationValidator {
+    private final StatusRuleEngine ruleEngine;
+
+    @Autowired
+    public ResourceStatusBasedOperationValidator(StatusRuleEngine ruleEngine) {
+        this.ruleEngine = ruleEngine;
+    }
 
     public boolean isDeletionAllowed(ResourceStatus currentStatus) {
-        return switch (currentStatus) {
-            case FREE -> true;
-            case IN_USE, AFFECTED -> false;
-        };
+        return this.ruleEngine.getResourceRules().isDeletionAllowed(currentStatus);
     }
 }
@@ -1,15 +1,23 @@
 package yowyob.resource.management.services.policy.validators.operations;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import yowyob.resource.management.models.service.enums.ServiceStatus;
+import yowyob.resource.management.services.policy.validators.rules.StatusRuleEngine;
 
+/**
+ * Statuses in which a service may be deleted, as configured in the {@link StatusRuleEngine}.
+ */
 @Component
 public class ServiceStatusBasedOperationValidator {
+    private final StatusRuleEngine ruleEngine;
+
+    @Autowired
+    public ServiceStatusBasedOperationValidator(StatusRuleEngine ruleEngine) {
+        this.ruleEngine = ruleEngine;
+    }
 
     public boolean isDeletionAllowed(ServiceStatus currentStatus) {
-        return switch (currentStatus) {
-            case PLANNED, PUBLISHED, ONGOING -> false;
-            case FINISHED, CANCELLED -> true;
-        };
+        return this.ruleEngine.getServiceRules().isDeletionAllowed(currentStatus);
     }
 }
@@ -0,0 +1,155 @@
+package yowyob.resource.management.services.policy.validators.rules;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import yowyob.resource.management.models.resource.enums.ResourceStatus;
+import yowyob.resource.management.models.service.enums.ServiceStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.zip.CRC32C;
+
+/**
+ * Holds the status rules of resources and services, read from a properties file (see {@link StatusRules} for the
+ * format). The file is polled for changes: new rules are compiled aside and swapped in with a single volatile
+ * write, so a check reads either the old rules or the new ones, never a mix. Rules that fail to compile are
+ * rejected and the previous ones stay in force.
+ * <p>
+ * The location defaults to a file next to the application: until it exists the rules bundled in the jar apply,
+ * and they are replaced as soon as the file appears. A classpath location cannot change inside a jar, so it is
+ * read once and not polled.
+ */
+@Component
+public class StatusRuleEngine {
+    private static final String BUNDLED_RULES = "classpath:policy-rules.properties";
+
+    private final org.springframework.core.io.Resource location;
+    private final org.springframework.core.io.Resource bundled;
+    private final long reloadIntervalMs;
+    private volatile RuleSet rules;
+    private long checksum;
+    private Disposable reloader;
+    private static final Logger logger = LoggerFactory.getLogger(StatusRuleEngine.class);
+
+    @Autowired
+    public StatusRuleEngine(ResourceLoader resourceLoader,
+                            @Value("${app.policy.rules.location:file:./config/policy-rules.properties}") String location,
+                            @Value("${app.policy.rules.reload-interval-ms:10000}") long reloadIntervalMs) throws IOException {
+        this.location = resourceLoader.getResource(location);
+        this.bundled = resourceLoader.getResource(BUNDLED_RULES);
+        this.reloadIntervalMs = reloadIntervalMs;
+
+        org.springframework.core.io.Resource source = this.location.exists() ? this.location : bundled;
+        byte[] content = read(source);
+        this.rules = RuleSet.parse(content);
+        this.checksum = checksum(content);
+        if (source == bundled && !this.location.equals(bundled)) {
+            logger.info("Status rules loaded from {}: {} does not exist yet", BUNDLED_RULES, location);
+        } else {
+            logger.info("Status rules loaded from {}", location);
+        }
+    }
+
+    public StatusRules<ResourceStatus> getResourceRules() {
+        return rules.resource();
+    }
+
+    public StatusRules<ServiceStatus> getServiceRules() {
+        return rules.service();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (reloadIntervalMs <= 0) {
+            return;
+        }
+        if (location instanceof ClassPathResource) {
+            logger.info("Status rules are read from the classpath and will not be reloaded, "
+                    + "point app.policy.rules.location to a file to edit them while the application runs");
+            return;
+        }
+        this.reloader = Flux.interval(Duration.ofMillis(reloadIntervalMs))
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromCallable(this::reload).subscribeOn(Schedulers.boundedElastic()))
+                .subscribe();
+    }
+
+    /**
+     * Reads the rules again and swaps them in when the file changed. A file not created yet keeps the rules
+     * in force.
+     * @return true when new rules are in force
+     */
+    public synchronized boolean reload() {
+        if (!location.exists()) {
+            return false;
+        }
+        byte[] content;
+        try {
+            content = read(location);
+        } catch (IOException e) {
+            logger.error("Status rules could not be read from {}, the previous rules stay in force: {}",
+                    location, e.getMessage());
+            return false;
+        }
+
+        long contentChecksum = checksum(content);
+        if (contentChecksum == checksum) {
+            return false;
+        }
+        // Recorded before compiling, so rejected rules are reported once and not at every poll
+        checksum = contentChecksum;
+        try {
+            rules = RuleSet.parse(content);
+        } catch (IllegalArgumentException | IOException e) {
+            logger.error("Status rules from {} rejected, the previous rules stay in force: {}", location, e.getMessage());
+            return false;
+        }
+
+        logger.info("Status rules reloaded from {}", location);
+        return true;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reloader != null) {
+            reloader.dispose();
+        }
+    }
+
+    private static byte[] read(org.springframework.core.io.Resource source) throws IOException {
+        try (InputStream input = source.getInputStream()) {
+            return input.readAllBytes();
+        }
+    }
+
+    private static long checksum(byte[] content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    private record RuleSet(StatusRules<ResourceStatus> resource, StatusRules<ServiceStatus> service) {
+
+        static RuleSet parse(byte[] content) throws IOException {
+            Properties properties = new Properties();
+            properties.load(new ByteArrayInputStream(content));
+            return new RuleSet(StatusRules.compile(ResourceStatus.class, properties, "resource"),
+                    StatusRules.compile(ServiceStatus.class, properties, "service"));
+        }
+    }
+}
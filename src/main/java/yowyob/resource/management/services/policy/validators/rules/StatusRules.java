@@ -0,0 +1,79 @@
+package yowyob.resource.management.services.policy.validators.rules;
+
+import java.util.Properties;
+
+/**
+ * Transition and deletion rules of one status enum, compiled into bitsets indexed by ordinal: bit {@code to} of
+ * {@code transitions[from]} tells whether {@code from -> to} is allowed, bit {@code status} of {@code deletable}
+ * whether an entity in that status may be deleted. A check is an array read, a shift and a mask.
+ * Rules name the statuses, so a status added to the enum only needs rules of its own; up to 64 statuses fit.
+ */
+public final class StatusRules<S extends Enum<S>> {
+    private final Class<S> statusType;
+    private final long[] transitions;
+    private final long deletable;
+
+    private StatusRules(Class<S> statusType, long[] transitions, long deletable) {
+        this.statusType = statusType;
+        this.transitions = transitions;
+        this.deletable = deletable;
+    }
+
+    /**
+     * Compiles the rules found under a prefix:
+     * {@code <prefix>.transitions.<FROM>=<TO>,<TO>...} for each status that can be left, and
+     * {@code <prefix>.deletable=<STATUS>,<STATUS>...}. Statuses without rules can neither be left nor deleted.
+     *
+     * @throws IllegalArgumentException when a rule names an unknown status
+     */
+    public static <S extends Enum<S>> StatusRules<S> compile(Class<S> statusType, Properties rules, String prefix) {
+        S[] statuses = statusType.getEnumConstants();
+        if (statuses.length > Long.SIZE) {
+            throw new IllegalArgumentException(String.format("%s has %d statuses, at most %d are supported",
+                    statusType.getSimpleName(), statuses.length, Long.SIZE));
+        }
+
+        long[] transitions = new long[statuses.length];
+        String transitionPrefix = prefix + ".transitions.";
+        for (String key : rules.stringPropertyNames()) {
+            if (key.startsWith(transitionPrefix)) {
+                S from = statusOf(statusType, key.substring(transitionPrefix.length()), key);
+                transitions[from.ordinal()] = bitsOf(statusType, rules.getProperty(key), key);
+            }
+        }
+        String deletableKey = prefix + ".deletable";
+        long deletable = bitsOf(statusType, rules.getProperty(deletableKey, ""), deletableKey);
+        return new StatusRules<>(statusType, transitions, deletable);
+    }
+
+    public boolean isTransitionAllowed(S from, S to) {
+        return (transitions[from.ordinal()] >>> to.ordinal() & 1L) != 0;
+    }
+
+    public boolean isDeletionAllowed(S status) {
+        return (deletable >>> status.ordinal() & 1L) != 0;
+    }
+
+    public Class<S> getStatusType() {
+        return statusType;
+    }
+
+    private static <S extends Enum<S>> long bitsOf(Class<S> statusType, String names, String key) {
+        long bits = 0L;
+        for (String name : names.split(",")) {
+            if (!name.isBlank()) {
+                bits |= 1L << statusOf(statusType, name, key).ordinal();
+            }
+        }
+        return bits;
+    }
+
+    private static <S extends Enum<S>> S statusOf(Class<S> statusType, String name, String key) {
+        try {
+            return Enum.valueOf(statusType, name.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Unknown %s '%s' in rule %s",
+                    statusType.getSimpleName(), name.trim(), key), e);
+        }
+    }
+}
@@ -1,35 +1,23 @@
 package yowyob.resource.management.services.policy.validators.transition;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import yowyob.resource.management.models.resource.enums.ResourceStatus;
+import yowyob.resource.management.services.policy.validators.rules.StatusRuleEngine;
 
+/**
+ * Transitions between resource statuses, as configured in the {@link StatusRuleEngine}.
+ */
 @Component
 public class ResourceTransitionValidator {
-    private final boolean[][] transitionMatrix;
+    private final StatusRuleEngine ruleEngine;
 
-    public ResourceTransitionValidator() {
-        this.transitionMatrix = new boolean[ResourceStatus.values().length][ResourceStatus.values().length];
-        this.initTransitionMatrix();
-    }
-
-    private void initTransitionMatrix() {
-        // from FREE state to other states
-        this.transitionMatrix[ResourceStatus.FREE.value()][ResourceStatus.FREE.value()] = true;
-        this.transitionMatrix[ResourceStatus.FREE.value()][ResourceStatus.AFFECTED.value()] = true;
-        this.transitionMatrix[ResourceStatus.FREE.value()][ResourceStatus.IN_USE.value()] = false;
-
-        // from AFFECTED to other states
-        this.transitionMatrix[ResourceStatus.AFFECTED.value()][ResourceStatus.FREE.value()] = true;
-        this.transitionMatrix[ResourceStatus.AFFECTED.value()][ResourceStatus.AFFECTED.value()] = true;
-        this.transitionMatrix[ResourceStatus.AFFECTED.value()][ResourceStatus.IN_USE.value()] = true;
-
-        // from IN_USE to other states
-        this.transitionMatrix[ResourceStatus.IN_USE.value()][ResourceStatus.FREE.value()] = true;
-        this.transitionMatrix[ResourceStatus.IN_USE.value()][ResourceStatus.AFFECTED.value()] = false;
-        this.transitionMatrix[ResourceStatus.IN_USE.value()][ResourceStatus.IN_USE.value()] = true;
+    @Autowired
+    public ResourceTransitionValidator(StatusRuleEngine ruleEngine) {
+        this.ruleEngine = ruleEngine;
     }
 
     public boolean isTransitionAllowed(ResourceStatus from, ResourceStatus to) {
-        return this.transitionMatrix[from.value()][to.value()];
+        return this.ruleEngine.getResourceRules().isTransitionAllowed(from, to);
     }
 }
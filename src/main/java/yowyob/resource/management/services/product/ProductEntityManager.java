@@ -10,6 +10,7 @@ import yowyob.resource.management.actions.Action;
 import yowyob.resource.management.actions.enums.ActionClass;
 import yowyob.resource.management.actions.service.ServiceAction;
 import yowyob.resource.management.actions.resource.ResourceAction;
+import yowyob.resource.management.events.recurrence.RecurrenceRule;
 import yowyob.resource.management.exceptions.policy.ExecutorPolicyViolationException;
 import yowyob.resource.management.exceptions.invalid.InvalidEventClassException;
 import yowyob.resource.management.exceptions.policy.UpdaterPolicyViolationException;
@@ -19,6 +20,7 @@ import yowyob.resource.management.services.resource.ResourceEntityManager;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class ProductEntityManager {
@@ -58,4 +60,35 @@ public class ProductEntityManager {
             default -> Mono.error(new InvalidEventClassException(action, eventStartDateTime));
         };
     }
+
+    /**
+     * Schedules the action at every occurrence of an RRULE-like rule starting at the given time, e.g.
+     * {@code FREQ=DAILY;COUNT=30}, as one recurring event instead of one event per occurrence.
+     */
+    public Mono<Void> scheduleRecurringEvent(LocalDateTime firstStartDateTime, String rule, Action action) {
+        logger.info("Scheduling recurring action: {} of Class: {} for entityId: {} from : {} rule : {}",
+                action.getActionType(),
+                action.getActionClass(),
+                action.getEntityId(),
+                firstStartDateTime,
+                rule);
+
+        return Mono.defer(() -> {
+            RecurrenceRule recurrenceRule = RecurrenceRule.parse(rule, firstStartDateTime);
+            return switch (action.getActionClass()) {
+                case ActionClass.Resource -> this.resourceEntityManager.triggerRecurringResourceEvent((ResourceAction) action, recurrenceRule);
+                case ActionClass.Service -> this.serviceEntityManager.triggerRecurringServiceEvent((ServiceAction) action, recurrenceRule);
+                default -> Mono.error(new InvalidEventClassException(action, firstStartDateTime));
+            };
+        });
+    }
+
+    public Mono<Void> unscheduleRecurringEvent(ActionClass actionClass, UUID recurrenceId) {
+        logger.info("Unscheduling recurring event: {} of Class: {}", recurrenceId, actionClass);
+
+        return switch (actionClass) {
+            case Resource -> this.resourceEntityManager.cancelRecurringResourceEvent(recurrenceId);
+            case Service -> this.serviceEntityManager.cancelRecurringServiceEvent(recurrenceId);
+        };
+    }
 }
@@ -2,35 +2,52 @@ package yowyob.resource.management.services.resource;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.beans.factory.annotation.Autowired;
 import reactor.core.publisher.Mono;
 
 import yowyob.resource.management.events.resource.ResourceEvent;
+import yowyob.resource.management.events.recurrence.RecurrenceRule;
+import yowyob.resource.management.events.recurrence.RecurringEvent;
 import yowyob.resource.management.actions.resource.ResourceAction;
+import yowyob.resource.management.services.bus.EventBus;
 import yowyob.resource.management.services.product.ProductEntityManager;
 
 @Service
 public class ResourceEntityManager {
-    private final ApplicationEventPublisher eventPublisher;
+    private final EventBus eventBus;
     private final ResourceActionExecutor resourceActionExecutor;
+    private final ResourceUpdater resourceUpdater;
     private static final Logger logger = LoggerFactory.getLogger(ProductEntityManager.class);
 
     @Autowired
-    public ResourceEntityManager(ApplicationEventPublisher eventPublisher, ResourceActionExecutor resourceActionExecutor) {
-        this.eventPublisher = eventPublisher;
+    public ResourceEntityManager(EventBus eventBus, ResourceActionExecutor resourceActionExecutor,
+                                 ResourceUpdater resourceUpdater) {
+        this.eventBus = eventBus;
         this.resourceActionExecutor = resourceActionExecutor;
+        this.resourceUpdater = resourceUpdater;
     }
 
     public Mono<Void> triggerResourceEvent(ResourceAction action, LocalDateTime eventStartDateTime) {
         logger.info("Triggering Resource Event for entityId: {} with action: {} at: {}",
                 action.getEntityId(), action.getActionType(), eventStartDateTime);
 
-        return Mono.fromRunnable(() -> eventPublisher.publishEvent(new ResourceEvent(this, action, eventStartDateTime)));
+        return Mono.defer(() -> eventBus.publish(new ResourceEvent(this, action, eventStartDateTime)));
+    }
+
+    public Mono<Void> triggerRecurringResourceEvent(ResourceAction action, RecurrenceRule rule) {
+        logger.info("Triggering recurring Resource Event for entityId: {} with action: {} from: {} rule: {}",
+                action.getEntityId(), action.getActionType(), rule.getStart(), rule);
+
+        return Mono.defer(() -> eventBus.publish(new RecurringEvent(this, action, rule)));
+    }
+
+    public Mono<Void> cancelRecurringResourceEvent(UUID recurrenceId) {
+        return resourceUpdater.unscheduleRecurrence(recurrenceId);
     }
 
     public Mono<?> executeAction(ResourceAction resourceAction) {
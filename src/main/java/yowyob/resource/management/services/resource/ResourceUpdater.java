@@ -1,209 +1,512 @@
 package yowyob.resource.management.services.resource;
 
-import lombok.Getter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
-import yowyob.resource.management.actions.resource.ResourceAction;
+import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.actions.ActionOutcome;
 import yowyob.resource.management.events.Event;
 import yowyob.resource.management.events.enums.EventClass;
+import yowyob.resource.management.events.recurrence.RecurringEvent;
 import yowyob.resource.management.events.resource.ResourceEvent;
+import yowyob.resource.management.exceptions.ShardNotHeldException;
 import yowyob.resource.management.exceptions.policy.ExecutorPolicyViolationException;
 import yowyob.resource.management.exceptions.policy.UpdaterPolicyViolationException;
+import yowyob.resource.management.services.context.locks.EntityLockManager;
+import yowyob.resource.management.services.interfaces.leases.ShardInbox;
 import yowyob.resource.management.services.interfaces.updaters.Updater;
+import yowyob.resource.management.services.scheduling.ArmedEvent;
+import yowyob.resource.management.services.scheduling.EntityTimeline;
+import yowyob.resource.management.services.scheduling.EventScheduler;
+import yowyob.resource.management.services.scheduling.Recurrence;
+import yowyob.resource.management.services.scheduling.RecurringEventStore;
+import yowyob.resource.management.services.scheduling.ScheduleIndex;
+import yowyob.resource.management.services.scheduling.ScheduledEventStore;
+import yowyob.resource.management.services.scheduling.SchedulerMetrics;
+import yowyob.resource.management.services.scheduling.SchedulerShards;
+import yowyob.resource.management.services.scheduling.SchedulerMetrics.Stage;
+import yowyob.resource.management.services.scheduling.ShardHandOff;
+import yowyob.resource.management.services.scheduling.TimerGroup;
+import yowyob.resource.management.services.scheduling.TimerHandle;
 import yowyob.resource.management.services.policy.updaters.ResourceUpdaterPolicy;
-import yowyob.resource.management.helpers.Tuple;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 @Component
 public class ResourceUpdater implements Updater {
     private final ResourceUpdaterPolicy resourceUpdaterPolicy;
     private final ResourceActionExecutor resourceActionExecutor;
-    private final TaskScheduler taskScheduler;
+    private final EventScheduler eventScheduler;
+    private final EntityLockManager entityLockManager;
+    private final SchedulerShards schedulerShards;
+    private final ShardInbox shardInbox;
+    private final ScheduledEventStore scheduledEventStore;
+    private final RecurringEventStore recurringEventStore;
+    private final SchedulerMetrics schedulerMetrics;
+    private final int materializedOccurrences;
+    private final Duration fireRetryDelay;
 
-    private final AtomicBoolean paused = new AtomicBoolean(false);
-    private final BlockingQueue<Event> waitingEvents = new LinkedBlockingQueue<>();
-
-    @Getter
-    private final Map<UUID, List<Event>> scheduledEvents = new ConcurrentHashMap<>();
-    private final Map<UUID, List<Tuple<Event, ScheduledFuture<?>>>> scheduledFutures = new ConcurrentHashMap<>();
-    private final ReentrantReadWriteLock eventLock = new ReentrantReadWriteLock();
+    private final Map<UUID, EntityTimeline> timelines = new ConcurrentHashMap<>();
+    private final Map<UUID, ArmedEvent> armedEvents = new ConcurrentHashMap<>();
+    private final ScheduleIndex scheduleIndex = new ScheduleIndex();
+    private final Map<UUID, Recurrence> recurrences = new ConcurrentHashMap<>();
+    // Materialized occurrence id -> its recurrence, to materialize the next one once it has fired
+    private final Map<UUID, Recurrence> occurrenceOf = new ConcurrentHashMap<>();
+    // One instance for every timer, so the events due on a tick reach fireDue together
+    private final TimerGroup<ResourceEvent> dueEvents = this::fireDue;
     private static final Logger logger = LoggerFactory.getLogger(ResourceUpdater.class);
 
     @Autowired
     public ResourceUpdater(ResourceUpdaterPolicy resourceUpdaterPolicy,
                            ResourceActionExecutor resourceActionExecutor,
-                           TaskScheduler taskScheduler) {
+                           EventScheduler eventScheduler,
+                           EntityLockManager entityLockManager,
+                           SchedulerShards schedulerShards,
+                           ShardInbox shardInbox,
+                           ScheduledEventStore scheduledEventStore,
+                           RecurringEventStore recurringEventStore,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.scheduler.recurrence.materialized:3}") int materializedOccurrences,
+                           @Value("${app.scheduler.fire-retry-ms:1000}") long fireRetryMillis) {
         this.resourceUpdaterPolicy = resourceUpdaterPolicy;
         this.resourceActionExecutor = resourceActionExecutor;
-        this.taskScheduler = taskScheduler;
+        this.eventScheduler = eventScheduler;
+        this.entityLockManager = entityLockManager;
+        this.schedulerShards = schedulerShards;
+        this.shardInbox = shardInbox;
+        this.scheduledEventStore = scheduledEventStore;
+        this.recurringEventStore = recurringEventStore;
+        this.schedulerMetrics = new SchedulerMetrics(meterRegistry, EventClass.Resource, armedEvents);
+        this.materializedOccurrences = Math.max(1, materializedOccurrences);
+        this.fireRetryDelay = Duration.ofMillis(Math.max(1, fireRetryMillis));
     }
 
+    /**
+     * Checks and schedules the event under the lock of its entity, so only updates of that resource are serialized.
+     */
     @Override
-    @EventListener
     public Mono<Void> handleEvent(Event event) throws ExecutorPolicyViolationException, UpdaterPolicyViolationException {
-        eventLock.writeLock().lock();
-        try {
-        if (event != null) {
-            logger.info("Received event of class: {}", event.getEventClass());
-
-            if (event.getEventClass() == EventClass.Resource) {
-                if (paused.get()) {
-                    this.waitingEvents.add(event);
-                    logger.warn("ResourceUpdater is paused. Event of class={} with entityId={} scheduled at {} has been queued.",
-                            event.getEventClass(),
-                            event.getEntityId(),
-                            event.getEventStartDateTime());
-                    return null;
-                }
-
-                ResourceEvent resourceEvent = (ResourceEvent) event;
-                logger.info("Processing Resource Event for entityId: {}", resourceEvent.getEntityId());
-                this.resourceUpdaterPolicy.isExecutionAllowed(resourceEvent,
-                        this.scheduledEvents.getOrDefault(resourceEvent.getEntityId(), new ArrayList<>()))
-                        .doOnSuccess(allowed -> {
-                            if (allowed) {
-                                scheduleTask(resourceEvent);
-                            }
-                        })
-                        .doOnError(error -> {
-                            logger.error("Policy violation for Resource Event with entityId: {}: {}", 
-                                    resourceEvent.getEntityId(), error.getMessage());
-                        })
-                        .subscribe();
-            }
+        if (event == null) {
+            return Mono.empty();
         }
-        } finally {
-            eventLock.writeLock().unlock();
+
+        logger.info("Received event of class: {}", event.getEventClass());
+        if (event.getEventClass() != EventClass.Resource) {
+            return Mono.empty();
         }
-        return Mono.empty();
-    }
 
-    public Mono<Void> forceEventScheduling(Event event) {
-        eventLock.writeLock().lock();
-        try {
         ResourceEvent resourceEvent = (ResourceEvent) event;
-        logger.warn("Resource Event scheduling for entityId: {} at {} without Policy verification",
-                resourceEvent.getEntityId(), resourceEvent.getEventStartDateTime());
-        scheduleTask(resourceEvent);
-        } finally {
-            eventLock.writeLock().unlock();
+        if (!schedulerShards.owns(resourceEvent.getEntityId())) {
+            return this.handOff(ShardHandOff.of(resourceEvent));
         }
-        return Mono.empty();
+
+        return entityLockManager.withLock(resourceEvent.getEntityId(), () -> {
+                    logger.info("Processing Resource Event for entityId: {}", resourceEvent.getEntityId());
+                    return this.resourceUpdaterPolicy.isExecutionAllowed(resourceEvent,
+                                    this.getTimeline(resourceEvent.getEntityId()))
+                            .flatMap(allowed -> {
+                                if (allowed) {
+                                    return scheduleTask(resourceEvent);
+                                }
+                                schedulerMetrics.recordRejection(Stage.SCHEDULE, SchedulerMetrics.Reason.NOT_ALLOWED);
+                                return Mono.<Void>empty();
+                            });
+                })
+                .onErrorResume(error -> {
+                    schedulerMetrics.recordRejection(Stage.SCHEDULE, error);
+                    logger.error("Policy violation for Resource Event with entityId: {}: {}",
+                            resourceEvent.getEntityId(), error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
     }
 
-    private Mono<Void> scheduleTask(ResourceEvent resourceEvent) throws ExecutorPolicyViolationException, UpdaterPolicyViolationException {
-        ResourceAction action = (ResourceAction) resourceEvent.getAction();
+    /**
+     * Posts an event of a shard held by another node to the inbox of that shard: only the holder of a shard checks
+     * events against the timeline of their entity, and it picks them up at its next poll of the inbox.
+     */
+    private Mono<Void> handOff(ShardHandOff handOff) {
+        int shard = schedulerShards.shardOf(handOff.entityId());
+        return shardInbox.post(shard, handOff)
+                .doOnSuccess(posted -> logger.info("Resource Event for entityId: {} handed over to the holder of shard {}",
+                        handOff.entityId(), shard))
+                .onErrorResume(error -> {
+                    schedulerMetrics.recordRejection(Stage.SCHEDULE, SchedulerMetrics.Reason.NOT_OWNER);
+                    logger.error("Resource Event for entityId: {} lost, handing it over to the holder of shard {} failed: {}",
+                            handOff.entityId(), shard, error.getMessage());
+                    return Mono.empty();
+                });
+    }
 
-        Instant executionTime = resourceEvent.getEventStartDateTime().atZone(java.time.ZoneId.systemDefault()).toInstant();
+    /**
+     * Schedules the event of a strategy without policy check. Only the holder of the event's shard may: a hand-off
+     * to another node could not be awaited nor undone with the strategy, so the event is rejected instead.
+     */
+    public Mono<Void> forceEventScheduling(Event event) {
+        return Mono.defer(() -> {
+            ResourceEvent resourceEvent = (ResourceEvent) event;
+            if (!schedulerShards.owns(resourceEvent.getEntityId())) {
+                return Mono.error(new ShardNotHeldException(resourceEvent.getEntityId(),
+                        schedulerShards.shardOf(resourceEvent.getEntityId())));
+            }
+            logger.warn("Resource Event scheduling for entityId: {} at {} without Policy verification",
+                    resourceEvent.getEntityId(), resourceEvent.getEventStartDateTime());
+            return scheduleTask(resourceEvent);
+        });
+    }
+
+    private Mono<Void> scheduleTask(ResourceEvent resourceEvent) throws ExecutorPolicyViolationException, UpdaterPolicyViolationException {
+        Instant executionTime = resourceEvent.getEventStartDateTime().atZone(ZoneId.systemDefault()).toInstant();
         logger.info("Scheduling task for Resource Event with entityId: {} at time: {}",
                 resourceEvent.getEntityId(), executionTime);
 
-        ScheduledFuture<?> future = taskScheduler.schedule(() -> this.executeAction(action), executionTime);
-        if (!scheduledEvents.containsKey(resourceEvent.getEntityId())) {
-            scheduledEvents.put(resourceEvent.getEntityId(), new ArrayList<>());
+        // The hold may lapse during the policy check: the holder checks the event again from the inbox of the shard
+        if (!schedulerShards.owns(resourceEvent.getEntityId())) {
+            return this.handOff(ShardHandOff.of(resourceEvent));
         }
-        scheduledEvents.get(resourceEvent.getEntityId()).add(resourceEvent);
-
-        if (!scheduledFutures.containsKey(resourceEvent.getEntityId())) {
-            scheduledFutures.put(resourceEvent.getEntityId(), new ArrayList<>());
-        }
-        scheduledFutures.get(resourceEvent.getEntityId()).add(new Tuple<>(resourceEvent, future));
+        this.arm(resourceEvent, executionTime);
+        scheduledEventStore.save(resourceEvent);
 
         logger.info("Successfully scheduled Task for Resource Event with entityId: {} at time: {}",
                 resourceEvent.getEntityId(), executionTime);
         return Mono.empty();
     }
 
-    private void executeAction(ResourceAction action) {
-        logger.info("Executing scheduled Resource Action for entityId: {}", action.getEntityId());
-        this.resourceActionExecutor.executeAction(action)
-                .doOnSuccess(result -> {
-                    scheduledEvents.remove(action.getEntityId());
-                    logger.info("Successfully executed scheduled Resource Action for entityId: {}", action.getEntityId());
-                })
-                .doOnError(error -> {
-                    logger.error("Failed to execute scheduled Resource Action for entityId: {}: {}", 
-                            action.getEntityId(), error.getMessage());
-                })
-                .subscribe();
+    /**
+     * Re-arms an event read back from the {@link ScheduledEventStore} at startup, without policy check
+     * nor new write: it was checked and stored when first scheduled.
+     */
+    public void restoreEvent(Event event, Instant executionTime) {
+        this.arm((ResourceEvent) event, executionTime);
     }
 
-    public Mono<Void> unscheduleEvent(Event event) {
-        eventLock.writeLock().lock();
-        try {
-        if (event instanceof ResourceEvent resourceEvent) {
-            UUID entityId = resourceEvent.getEntityId();
-            List<Event> events = scheduledEvents.get(entityId);
-            if (events != null && events.remove(resourceEvent)) {
-                if (events.isEmpty()) {
-                    scheduledEvents.remove(entityId);
-                }
-            } else {
-                logger.warn("No scheduled event found for entityId: {}", entityId);
+    /**
+     * Adds the event to its timeline and arms its timer in a single update of the entity's entry, so events of one
+     * entity are applied one at a time while events of distinct entities never wait for each other.
+     *
+     * @return whether the event was armed, false when it already was
+     */
+    private boolean arm(ResourceEvent resourceEvent, Instant executionTime) {
+        long startEpochMillis = resourceEvent.getEventStartDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        boolean[] armed = new boolean[1];
+        timelines.compute(resourceEvent.getEntityId(), (entityId, timeline) -> {
+            EntityTimeline entityTimeline = timeline != null ? timeline : new EntityTimeline(entityId);
+            // An occurrence restored from the store at startup is materialized again from its rule
+            if (armedEvents.containsKey(resourceEvent.getEventId())) {
+                return entityTimeline;
             }
+            entityTimeline.add(resourceEvent);
+            TimerHandle handle = eventScheduler.schedule(executionTime, resourceEvent, dueEvents);
+            armedEvents.put(resourceEvent.getEventId(), new ArmedEvent(resourceEvent, handle, startEpochMillis));
+            scheduleIndex.add(resourceEvent);
+            schedulerMetrics.recordTimelineSize(entityTimeline.size());
+            armed[0] = true;
+            return entityTimeline;
+        });
+        return armed[0];
+    }
 
-            List<Tuple<Event, ScheduledFuture<?>>> futures = scheduledFutures.get(entityId);
-            Tuple<Event, ScheduledFuture<?>> futureRecord = futures.stream()
-                    .filter(tuple -> tuple.getFirst().equals(event))
-                    .findFirst()
-                    .orElse(null);
-
-            if (futureRecord != null && futures.remove(futureRecord)) {
-                futureRecord.getSecond().cancel(true);
-                if (futures.isEmpty()) {
-                    scheduledFutures.remove(entityId);
-                }
+    /**
+     * Executes the events due on the same tick as one batch of the executor, the chains of distinct entities
+     * locked and written side by side. An event whose entity stayed locked is armed again instead of failing.
+     */
+    private void fireDue(List<ResourceEvent> fired) {
+        // An event whose shard was lost since it was armed is left, still stored, to the new holder
+        List<ResourceEvent> due = new ArrayList<>(fired.size());
+        for (ResourceEvent resourceEvent : fired) {
+            if (schedulerShards.owns(resourceEvent.getEntityId())) {
+                due.add(resourceEvent);
             } else {
-                logger.warn("No scheduled event found for entityId: {}", entityId);
+                this.release(resourceEvent);
             }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
 
-            logger.info("Successfully unscheduled event for entityId: {}", entityId);
+        logger.info("Executing {} scheduled Resource Actions due together", due.size());
+        Map<Action, ResourceEvent> events = new IdentityHashMap<>();
+        for (ResourceEvent resourceEvent : due) {
+            events.put(resourceEvent.getAction(), resourceEvent);
+            ArmedEvent armed = armedEvents.get(resourceEvent.getEventId());
+            if (armed != null) {
+                schedulerMetrics.recordFireLag(armed.startEpochMillis());
+            }
+        }
+
+        // Outcomes arrive one at a time: an error only fails the events still waiting for theirs
+        this.resourceActionExecutor.executeBatch(due.stream().map(Event::getAction).toList())
+                .subscribe(
+                        outcome -> this.complete(events.remove(outcome.action()), outcome),
+                        error -> List.copyOf(events.values())
+                                .forEach(resourceEvent -> this.complete(resourceEvent, ActionOutcome.failure(resourceEvent.getAction(), error))));
+    }
+
+    private void complete(ResourceEvent resourceEvent, ActionOutcome outcome) {
+        if (outcome.contended()) {
+            this.retry(resourceEvent);
+            return;
+        }
+        this.detach(resourceEvent, outcome.succeeded());
+        scheduledEventStore.delete(resourceEvent);
+        Recurrence recurrence = occurrenceOf.remove(resourceEvent.getEventId());
+        if (recurrence != null) {
+            this.advance(recurrence, resourceEvent);
+        }
+        if (outcome.succeeded()) {
+            logger.info("Successfully executed scheduled Resource Action for entityId: {}", resourceEvent.getEntityId());
         } else {
-            logger.warn("Invalid event type received for un-scheduling.");
+            schedulerMetrics.recordRejection(Stage.FIRE, outcome.error());
+            logger.error("Failed to execute scheduled Resource Action for entityId: {}: {}",
+                    resourceEvent.getEntityId(), outcome.error().getMessage());
         }
-        } finally {
-            eventLock.writeLock().unlock();
+    }
+
+    /**
+     * Arms again, after the retry delay, an event not run because its entity stayed locked: it is still stored
+     * and in its timeline. An event unscheduled since it fired, or whose shard was lost, is left alone.
+     */
+    private void retry(ResourceEvent resourceEvent) {
+        if (!schedulerShards.owns(resourceEvent.getEntityId())) {
+            this.release(resourceEvent);
+            return;
         }
-        return Mono.empty();
+        timelines.computeIfPresent(resourceEvent.getEntityId(), (entityId, timeline) -> {
+            armedEvents.computeIfPresent(resourceEvent.getEventId(), (eventId, armed) -> new ArmedEvent(armed.event(),
+                    eventScheduler.schedule(Instant.now().plus(fireRetryDelay), resourceEvent, dueEvents), armed.startEpochMillis()));
+            return timeline;
+        });
+        logger.warn("Entity {} locked when its scheduled Resource Action fell due, retrying in {} ms",
+                resourceEvent.getEntityId(), fireRetryDelay.toMillis());
     }
 
+    /**
+     * Checks a recurring event against its rule and registers it under the lock of its entity. Only the next
+     * occurrences are materialized into the timeline, each one fired materializing the following one, so a rule
+     * costs the same whatever its length.
+     */
     @Override
-    public Mono<Void> pause() {
-        paused.set(true);
-        logger.warn("ResourceUpdater is now PAUSED. New events will wait until resume() is called.");
-        return Mono.empty();
+    public Mono<Void> handleRecurringEvent(RecurringEvent recurringEvent) {
+        if (recurringEvent == null || recurringEvent.getEventClass() != EventClass.Resource) {
+            return Mono.empty();
+        }
+        if (!schedulerShards.owns(recurringEvent.getEntityId())) {
+            return this.handOff(ShardHandOff.of(recurringEvent));
+        }
+
+        return entityLockManager.withLock(recurringEvent.getEntityId(), () -> {
+                    logger.info("Processing recurring Resource Event {} for entityId: {}",
+                            recurringEvent.getRecurrenceId(), recurringEvent.getEntityId());
+                    return this.resourceUpdaterPolicy.isRecurrenceAllowed(recurringEvent,
+                                    this.getTimeline(recurringEvent.getEntityId()))
+                            .doOnNext(allowed -> {
+                                if (allowed) {
+                                    this.scheduleRecurrence(recurringEvent);
+                                } else {
+                                    schedulerMetrics.recordRejection(Stage.SCHEDULE, SchedulerMetrics.Reason.NOT_ALLOWED);
+                                }
+                            });
+                })
+                .onErrorResume(error -> {
+                    schedulerMetrics.recordRejection(Stage.SCHEDULE, error);
+                    logger.error("Policy violation for recurring Resource Event with entityId: {}: {}",
+                            recurringEvent.getEntityId(), error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
     }
 
-    @Override
-    public Mono<Void> resume() {
-        if (!paused.get()) {
-            logger.info("ResourceUpdater is already running.");
+    private void scheduleRecurrence(RecurringEvent recurringEvent) {
+        Recurrence recurrence = new Recurrence(recurringEvent, 0);
+        this.register(recurrence);
+        recurringEventStore.save(recurringEvent);
+        this.materialize(recurrence);
+        logger.info("Successfully scheduled recurring Resource Event {} ({}) for entityId: {}",
+                recurringEvent.getRecurrenceId(), recurringEvent.getRule(), recurringEvent.getEntityId());
+    }
+
+    /**
+     * Registers again a recurring event read back at startup. The rule resumes after now: the occurrences it had
+     * materialized before the stop are restored by the {@link ScheduledEventStore}, including overdue ones.
+     */
+    public void restoreRecurrence(RecurringEvent recurringEvent) {
+        Recurrence recurrence = new Recurrence(recurringEvent, recurringEvent.getRule().indexAfter(LocalDateTime.now()));
+        if (recurrence.isOver()) {
+            recurringEventStore.delete(recurringEvent.getRecurrenceId());
+            return;
+        }
+        this.register(recurrence);
+        this.materialize(recurrence);
+    }
+
+    private void register(Recurrence recurrence) {
+        RecurringEvent recurringEvent = recurrence.getRecurringEvent();
+        timelines.compute(recurringEvent.getEntityId(), (entityId, timeline) -> {
+            EntityTimeline entityTimeline = timeline != null ? timeline : new EntityTimeline(entityId);
+            entityTimeline.addRecurrence(recurrence);
+            recurrences.put(recurringEvent.getRecurrenceId(), recurrence);
+            return entityTimeline;
+        });
+    }
+
+    /**
+     * Arms the pending occurrences up to the configured number ahead of the next one to fire.
+     */
+    private void materialize(Recurrence recurrence) {
+        RecurringEvent recurringEvent = recurrence.getRecurringEvent();
+        long last = Math.min(recurrence.getNextIndex() + materializedOccurrences - 1, recurrence.getRule().getLastIndex());
+        for (long index = recurrence.getNextToMaterialize(); index <= last; index++) {
+            ResourceEvent occurrence = (ResourceEvent) recurringEvent.occurrence(index);
+            occurrenceOf.put(occurrence.getEventId(), recurrence);
+            if (this.arm(occurrence, ScheduledEventStore.startOf(occurrence))) {
+                scheduledEventStore.save(occurrence);
+            }
+        }
+        recurrence.materializedUpTo(last);
+    }
+
+    private void advance(Recurrence recurrence, Event occurrence) {
+        recurrence.firedAt(occurrence.getEventStartDateTime());
+        if (recurrence.isOver()) {
+            this.dropRecurrence(recurrence);
+        } else if (recurrences.containsKey(recurrence.getRecurringEvent().getRecurrenceId())) {
+            this.materialize(recurrence);
+        }
+    }
+
+    private void dropRecurrence(Recurrence recurrence) {
+        this.forget(recurrence);
+        recurringEventStore.delete(recurrence.getRecurringEvent().getRecurrenceId());
+    }
+
+    private void forget(Recurrence recurrence) {
+        RecurringEvent recurringEvent = recurrence.getRecurringEvent();
+        recurrences.remove(recurringEvent.getRecurrenceId());
+        timelines.computeIfPresent(recurringEvent.getEntityId(), (entityId, timeline) -> {
+            timeline.removeRecurrence(recurrence);
+            return timeline.isEmpty() ? null : timeline;
+        });
+    }
+
+    /**
+     * Removes a recurring event and the occurrences it has materialized.
+     */
+    public Mono<Void> unscheduleRecurrence(UUID recurrenceId) {
+        Recurrence recurrence = recurrences.get(recurrenceId);
+        if (recurrence == null) {
+            logger.warn("No recurring event found with id: {}", recurrenceId);
             return Mono.empty();
         }
 
-        logger.info("ResourceUpdater is processing queued events before resuming...");
-        while (!this.waitingEvents.isEmpty()) {
-            Event event = this.waitingEvents.poll();
-            handleEvent(event);
+        this.dropRecurrence(recurrence);
+        for (long index = recurrence.getNextIndex(); index < recurrence.getNextToMaterialize(); index++) {
+            Event occurrence = recurrence.getRecurringEvent().occurrence(index);
+            occurrenceOf.remove(occurrence.getEventId());
+            this.unscheduleEvent(occurrence);
+        }
+        logger.info("Successfully unscheduled recurring event {}", recurrenceId);
+        return Mono.empty();
+    }
+
+    /**
+     * Drops from memory the events and recurring events of a shard this node no longer holds. Their durable
+     * copies are kept for the next holder, which restores them when it takes the shard over.
+     *
+     * @return the number of armed events dropped
+     */
+    public int evictShard(int shard) {
+        int evicted = 0;
+        for (ArmedEvent armed : armedEvents.values()) {
+            if (schedulerShards.shardOf(armed.event().getEntityId()) == shard) {
+                this.release((ResourceEvent) armed.event());
+                evicted++;
+            }
+        }
+        for (Recurrence recurrence : recurrences.values()) {
+            if (schedulerShards.shardOf(recurrence.getRecurringEvent().getEntityId()) == shard) {
+                this.forget(recurrence);
+            }
+        }
+        return evicted;
+    }
+
+    private void release(ResourceEvent resourceEvent) {
+        this.detach(resourceEvent, false);
+        occurrenceOf.remove(resourceEvent.getEventId());
+    }
+
+    /**
+     * @return the schedule of the entity, empty when nothing is scheduled for it
+     */
+    public EntityTimeline getTimeline(UUID entityId) {
+        EntityTimeline timeline = timelines.get(entityId);
+        return timeline != null ? timeline : new EntityTimeline(entityId);
+    }
+
+    /**
+     * @return every event scheduled here, ordered by start, for range reads that must not copy the schedule
+     */
+    public ScheduleIndex getScheduleIndex() {
+        return scheduleIndex;
+    }
+
+    /**
+     * @return the scheduled event with this id, null when it has already fired or is not scheduled here
+     */
+    public Event getScheduledEvent(UUID eventId) {
+        ArmedEvent armed = armedEvents.get(eventId);
+        return armed != null ? armed.event() : null;
+    }
+
+    /**
+     * Removes the event from its timeline and from the armed events, dropping the timeline once empty. Runs in the
+     * update of the entity's entry, like {@link #arm}. The timer of an event removed before its start is
+     * cancelled.
+     *
+     * @return whether the event was still scheduled
+     */
+    private boolean detach(ResourceEvent resourceEvent, boolean executed) {
+        boolean[] removed = new boolean[1];
+        timelines.compute(resourceEvent.getEntityId(), (entityId, timeline) -> {
+            if (timeline != null) {
+                removed[0] = timeline.remove(resourceEvent);
+            }
+
+            ArmedEvent armed = armedEvents.remove(resourceEvent.getEventId());
+            scheduleIndex.remove(resourceEvent);
+            if (armed != null && !executed) {
+                eventScheduler.cancel(armed.handle());
+            }
+            return timeline == null || timeline.isEmpty() ? null : timeline;
+        });
+        return removed[0];
+    }
+
+    public Mono<Void> unscheduleEvent(Event event) {
+        if (event instanceof ResourceEvent resourceEvent) {
+            UUID entityId = resourceEvent.getEntityId();
+            if (!this.detach(resourceEvent, false)) {
+                logger.warn("No scheduled event found for entityId: {}", entityId);
+            }
+
+            scheduledEventStore.delete(resourceEvent);
+            logger.info("Successfully unscheduled event for entityId: {}", entityId);
+        } else {
+            logger.warn("Invalid event type received for un-scheduling.");
         }
-        paused.set(false);
-        logger.info("All waiting events have been processed. ResourceUpdater is now RESUMED.");
         return Mono.empty();
     }
-}
\ No newline at end of file
+}
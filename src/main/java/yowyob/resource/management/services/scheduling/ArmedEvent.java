@@ -0,0 +1,11 @@
+package yowyob.resource.management.services.scheduling;
+
+import yowyob.resource.management.events.Event;
+
+/**
+ * A scheduled event and the handle of its timer, indexed by event id in the updaters so an event is found
+ * and cancelled in constant time whatever the number of events of its entity. The start is kept in epoch
+ * milliseconds, so the fire lag is measured without converting the date again.
+ */
+public record ArmedEvent(Event event, TimerHandle handle, long startEpochMillis) {
+}
@@ -0,0 +1,290 @@
+package yowyob.resource.management.services.scheduling;
+
+import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.actions.enums.ActionType;
+import yowyob.resource.management.actions.resource.operations.ResourceCreationAction;
+import yowyob.resource.management.actions.resource.operations.ResourceUpdateAction;
+import yowyob.resource.management.actions.service.operations.ServiceCreationAction;
+import yowyob.resource.management.actions.service.operations.ServiceUpdateAction;
+import yowyob.resource.management.events.Event;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Time-ordered schedule of one entity, with one secondary index per {@link ActionType}.
+ * Neighbour lookups by time, optionally restricted to an action type, are O(log n) instead of a
+ * filter-and-sort of the whole schedule. Events starting at the same time keep their insertion order.
+ * Recurring events are held as rules: their pending occurrences take part in the neighbour lookups and in the
+ * status function without being stored, while the listings only return the occurrences already materialized.
+ * Methods are synchronized on the timeline itself: one entity, one uncontended monitor.
+ */
+public class EntityTimeline {
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::start).thenComparingLong(Key::sequence);
+
+    private final UUID entityId;
+    private final NavigableMap<Key, Event> events = new TreeMap<>(KEY_ORDER);
+    private final Map<ActionType, NavigableMap<Key, Event>> byActionType = new EnumMap<>(ActionType.class);
+    private final NavigableMap<Key, Event> statusSteps = new TreeMap<>(KEY_ORDER);
+    private final Map<Event, Key> keys = new HashMap<>();
+    private final List<Recurrence> recurrences = new ArrayList<>();
+    private long nextSequence;
+
+    public EntityTimeline(UUID entityId) {
+        this.entityId = entityId;
+    }
+
+    public static EntityTimeline of(UUID entityId, Collection<? extends Event> events) {
+        EntityTimeline timeline = new EntityTimeline(entityId);
+        events.forEach(timeline::add);
+        return timeline;
+    }
+
+    public UUID getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * @return an independent copy of the timeline, with the same events and rules
+     */
+    public synchronized EntityTimeline copy() {
+        EntityTimeline copy = new EntityTimeline(entityId);
+        events.values().forEach(copy::add);
+        copy.recurrences.addAll(recurrences);
+        return copy;
+    }
+
+    public synchronized void add(Event event) {
+        if (keys.containsKey(event)) {
+            return;
+        }
+        Key key = new Key(event.getEventStartDateTime(), nextSequence++);
+        keys.put(event, key);
+        events.put(key, event);
+        byActionType.computeIfAbsent(event.getAction().getActionType(), type -> new TreeMap<>(KEY_ORDER)).put(key, event);
+        if (changesStatus(event.getAction())) {
+            statusSteps.put(key, event);
+        }
+    }
+
+    public synchronized void addRecurrence(Recurrence recurrence) {
+        if (!recurrences.contains(recurrence)) {
+            recurrences.add(recurrence);
+        }
+    }
+
+    public synchronized boolean removeRecurrence(Recurrence recurrence) {
+        return recurrences.remove(recurrence);
+    }
+
+    public synchronized List<Recurrence> getRecurrences() {
+        return List.copyOf(recurrences);
+    }
+
+    public synchronized boolean remove(Event event) {
+        Key key = keys.remove(event);
+        if (key == null) {
+            return false;
+        }
+        events.remove(key);
+        NavigableMap<Key, Event> index = byActionType.get(event.getAction().getActionType());
+        index.remove(key);
+        if (index.isEmpty()) {
+            byActionType.remove(event.getAction().getActionType());
+        }
+        statusSteps.remove(key);
+        return true;
+    }
+
+    /**
+     * The state of the entity in the database is not kept here: it changes under strategies, direct actions and
+     * other nodes, so the caller reads it when no scheduled step precedes the time.
+     *
+     * @return the status set by the latest scheduled CREATE, UPDATE or DELETE before the given time, or null
+     */
+    public synchronized StatusStep statusBefore(LocalDateTime time) {
+        Event step = valueOf(statusSteps.lowerEntry(lowest(time)));
+        for (Recurrence recurrence : recurrences) {
+            if (changesStatus(recurrence.getRecurringEvent().getAction())) {
+                step = latest(step, recurrence.lastBefore(time));
+            }
+        }
+        return step == null ? null : stepOf(step, step);
+    }
+
+    public synchronized boolean contains(Event event) {
+        return keys.containsKey(event);
+    }
+
+    /**
+     * @return the latest event starting strictly before the given time, or null
+     */
+    public synchronized Event lastBefore(LocalDateTime time) {
+        Event last = valueOf(events.lowerEntry(lowest(time)));
+        for (Recurrence recurrence : recurrences) {
+            last = latest(last, recurrence.lastBefore(time));
+        }
+        return last;
+    }
+
+    /**
+     * @return the latest event of the given type starting strictly before the given time, or null
+     */
+    public synchronized Event lastBefore(LocalDateTime time, ActionType actionType) {
+        NavigableMap<Key, Event> index = byActionType.get(actionType);
+        Event last = index == null ? null : valueOf(index.lowerEntry(lowest(time)));
+        for (Recurrence recurrence : recurrences) {
+            if (recurrence.getActionType() == actionType) {
+                last = latest(last, recurrence.lastBefore(time));
+            }
+        }
+        return last;
+    }
+
+    /**
+     * @return the earliest event starting strictly after the given time, or null
+     */
+    public synchronized Event firstAfter(LocalDateTime time) {
+        Event first = valueOf(events.higherEntry(highest(time)));
+        for (Recurrence recurrence : recurrences) {
+            first = earliest(first, recurrence.firstAfter(time));
+        }
+        return first;
+    }
+
+    /**
+     * @return the earliest event of the given type starting strictly after the given time, or null
+     */
+    public synchronized Event firstAfter(LocalDateTime time, ActionType actionType) {
+        NavigableMap<Key, Event> index = byActionType.get(actionType);
+        Event first = index == null ? null : valueOf(index.higherEntry(highest(time)));
+        for (Recurrence recurrence : recurrences) {
+            if (recurrence.getActionType() == actionType) {
+                first = earliest(first, recurrence.firstAfter(time));
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Reads one page of the schedule in {@link ScheduleIndex.Slot} order. Events sharing a start are reordered by
+     * id a start at a time, so only the page and the ties of its last start are visited.
+     *
+     * @param actionType the only action type returned, or null for all of them
+     * @param after the last slot already returned, exclusive; null to start at {@code from}
+     * @return at most limit events starting in [from, to) after the given slot
+     */
+    public synchronized List<Event> page(LocalDateTime from, LocalDateTime to, ActionType actionType,
+                                         ScheduleIndex.Slot after, int limit) {
+        NavigableMap<Key, Event> index = actionType == null ? events : byActionType.get(actionType);
+        List<Event> page = new ArrayList<>();
+        if (index == null || !from.isBefore(to)) {
+            return page;
+        }
+
+        LocalDateTime lower = after != null && after.start().isAfter(from) ? after.start() : from;
+        List<Event> ties = new ArrayList<>();
+        for (Event event : index.subMap(lowest(lower), true, lowest(to), false).values()) {
+            if (!ties.isEmpty() && !ties.get(0).getEventStartDateTime().equals(event.getEventStartDateTime())) {
+                addTies(page, ties, after);
+                if (page.size() >= limit) {
+                    break;
+                }
+            }
+            ties.add(event);
+        }
+        addTies(page, ties, after);
+        return page.size() > limit ? new ArrayList<>(page.subList(0, limit)) : page;
+    }
+
+    private static void addTies(List<Event> page, List<Event> ties, ScheduleIndex.Slot after) {
+        ties.sort(Comparator.comparing(Event::getEventId));
+        for (Event event : ties) {
+            if (after == null || ScheduleIndex.Slot.of(event).compareTo(after) > 0) {
+                page.add(event);
+            }
+        }
+        ties.clear();
+    }
+
+    /**
+     * @return a time-ordered copy of the schedule
+     */
+    public synchronized List<Event> asList() {
+        return new ArrayList<>(events.values());
+    }
+
+    public synchronized int size() {
+        return events.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return events.isEmpty() && recurrences.isEmpty();
+    }
+
+    private static boolean changesStatus(Action action) {
+        ActionType type = action.getActionType();
+        return type == ActionType.CREATE || type == ActionType.UPDATE || type == ActionType.DELETE;
+    }
+
+    private static StatusStep stepOf(Event event, Event setBy) {
+        Action action = event.getAction();
+        Enum<?> status = switch (action.getActionType()) {
+            case CREATE -> switch (action.getActionClass()) {
+                case Resource -> ((ResourceCreationAction) action).getResourceToSave().getStatus();
+                case Service -> ((ServiceCreationAction) action).getServiceToSave().getStatus();
+            };
+            case UPDATE -> switch (action.getActionClass()) {
+                case Resource -> ((ResourceUpdateAction) action).getResourceToUpdate().getStatus();
+                case Service -> ((ServiceUpdateAction) action).getServicesToUpdate().getStatus();
+            };
+            default -> null;
+        };
+        return new StatusStep(status, action.getActionType() != ActionType.DELETE, setBy);
+    }
+
+    private static Key lowest(LocalDateTime time) {
+        return new Key(time, Long.MIN_VALUE);
+    }
+
+    private static Key highest(LocalDateTime time) {
+        return new Key(time, Long.MAX_VALUE);
+    }
+
+    /**
+     * A materialized occurrence is also described by its rule: on equal starts the stored event is kept.
+     */
+    private static Event latest(Event current, Event candidate) {
+        return candidate != null && (current == null || candidate.getEventStartDateTime().isAfter(current.getEventStartDateTime()))
+                ? candidate : current;
+    }
+
+    private static Event earliest(Event current, Event candidate) {
+        return candidate != null && (current == null || candidate.getEventStartDateTime().isBefore(current.getEventStartDateTime()))
+                ? candidate : current;
+    }
+
+    private static Event valueOf(Map.Entry<Key, Event> entry) {
+        return entry == null ? null : entry.getValue();
+    }
+
+    private record Key(LocalDateTime start, long sequence) {
+    }
+
+    /**
+     * A step of the status function.
+     * @param status the status of the entity, null when it does not exist
+     * @param setBy the scheduled event that set it, null for the database state
+     */
+    public record StatusStep(Enum<?> status, boolean exists, Event setBy) {
+    }
+}
@@ -0,0 +1,209 @@
+package yowyob.resource.management.services.scheduling;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Schedules the tasks of the updaters on a {@link TimingWheel} driven by one dedicated ticking thread.
+ * Callers never touch the wheel: new and cancelled handles go through lock-free queues the ticking thread
+ * drains on every tick, so schedule and cancel are O(1) for them. Tasks due on a tick are handed over to the
+ * worker pool in batches instead of one pool submission each, and the items of a {@link TimerGroup} due on
+ * the same tick reach their group in a single call.
+ */
+@Component
+public class EventScheduler {
+    private final long tickMs;
+    private final int batchSize;
+    private final Executor workerPool;
+    private final TimingWheel wheel;
+    private final long startNanos;
+    private final Queue<TimerHandle> additions = new ConcurrentLinkedQueue<>();
+    private final Queue<TimerHandle> cancellations = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final Thread ticker;
+    private volatile boolean running = true;
+    private static final Logger logger = LoggerFactory.getLogger(EventScheduler.class);
+
+    @Autowired
+    public EventScheduler(@Qualifier("eventSchedulerWorkerPool") Executor workerPool,
+                          @Value("${app.scheduler.tick-ms:10}") long tickMs,
+                          @Value("${app.scheduler.wheel-size:512}") int wheelSize,
+                          @Value("${app.scheduler.levels:4}") int levels,
+                          @Value("${app.scheduler.batch-size:256}") int batchSize) {
+        this.tickMs = tickMs;
+        this.batchSize = batchSize;
+        this.workerPool = workerPool;
+        this.startNanos = System.nanoTime();
+        this.wheel = new TimingWheel(wheelSize, levels, 0);
+
+        this.ticker = new Thread(this::tickLoop, "event-scheduler-tick");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+        logger.info("EventScheduler started: tick={} ms, {} levels of {} slots", tickMs, levels, wheelSize);
+    }
+
+    /**
+     * Runs the task on the worker pool once the given time is reached; a time in the past runs on the next tick.
+     */
+    public TimerHandle schedule(Instant at, Runnable task) {
+        return this.enqueue(new TimerHandle(at, this.deadlineTickOf(at), task));
+    }
+
+    /**
+     * Hands the item over to its group once the given time is reached, together with the other items of the
+     * group due on the same tick. The group must be the same instance for every item to be batched together.
+     */
+    public <T> TimerHandle schedule(Instant at, T item, TimerGroup<T> group) {
+        return this.enqueue(new TimerHandle(at, this.deadlineTickOf(at), item, group));
+    }
+
+    private long deadlineTickOf(Instant at) {
+        long delayMs = Math.max(0, at.toEpochMilli() - System.currentTimeMillis());
+        return Math.ceilDiv(this.elapsedMs() + delayMs, tickMs);
+    }
+
+    private TimerHandle enqueue(TimerHandle handle) {
+        pending.incrementAndGet();
+        additions.add(handle);
+        return handle;
+    }
+
+    /**
+     * @return false when the task already fired or was already cancelled
+     */
+    public boolean cancel(TimerHandle handle) {
+        if (!handle.markCancelled()) {
+            return false;
+        }
+        pending.decrementAndGet();
+        cancellations.add(handle);
+        return true;
+    }
+
+    public long getPendingCount() {
+        return pending.get();
+    }
+
+    private long elapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private void tickLoop() {
+        List<TimerHandle> due = new ArrayList<>();
+        long tick = 0;
+        while (running) {
+            tick++;
+            long sleepNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(tick * tickMs) - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                if (Thread.interrupted() && !running) {
+                    return;
+                }
+            }
+
+            try {
+                TimerHandle handle;
+                while ((handle = cancellations.poll()) != null) {
+                    wheel.remove(handle);
+                }
+                while ((handle = additions.poll()) != null) {
+                    if (!handle.isCancelled()) {
+                        wheel.add(handle, due);
+                    }
+                }
+                // Catches up on the ticks missed while the thread was descheduled
+                wheel.advanceTo(Math.max(tick, this.elapsedMs() / tickMs), due);
+                tick = wheel.currentTick();
+                this.dispatch(due);
+            } catch (RuntimeException e) {
+                logger.error("Scheduler tick {} failed: {}", tick, e.getMessage(), e);
+            } finally {
+                due.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<TimerHandle> due) {
+        List<TimerHandle> batch = new ArrayList<>(Math.min(due.size(), batchSize));
+        Map<TimerGroup<?>, List<Object>> groups = null;
+        for (TimerHandle handle : due) {
+            if (!handle.markFired()) {
+                continue;
+            }
+            pending.decrementAndGet();
+
+            if (handle.group() != null) {
+                if (groups == null) {
+                    groups = new IdentityHashMap<>();
+                }
+                List<Object> items = groups.computeIfAbsent(handle.group(), group -> new ArrayList<>());
+                items.add(handle.item());
+                if (items.size() == batchSize) {
+                    this.submit(handle.group(), items);
+                    groups.remove(handle.group());
+                }
+                continue;
+            }
+
+            batch.add(handle);
+            if (batch.size() == batchSize) {
+                this.submit(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            this.submit(batch);
+        }
+        if (groups != null) {
+            groups.forEach(this::submit);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void submit(TimerGroup<?> group, List<Object> items) {
+        TimerGroup<Object> target = (TimerGroup<Object>) group;
+        workerPool.execute(() -> {
+            try {
+                target.fire(items);
+            } catch (RuntimeException e) {
+                logger.error("Scheduled batch of {} items failed: {}", items.size(), e.getMessage(), e);
+            }
+        });
+    }
+
+    private void submit(List<TimerHandle> batch) {
+        workerPool.execute(() -> {
+            for (TimerHandle handle : batch) {
+                try {
+                    handle.task().run();
+                } catch (RuntimeException e) {
+                    logger.error("Scheduled task due at {} failed: {}", handle.getDeadline(), e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        ticker.interrupt();
+        logger.info("EventScheduler stopped with {} pending tasks", pending.get());
+    }
+}
@@ -0,0 +1,84 @@
+package yowyob.resource.management.services.scheduling;
+
+import yowyob.resource.management.actions.enums.ActionType;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.recurrence.RecurrenceRule;
+import yowyob.resource.management.events.recurrence.RecurringEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * A recurring event held by an updater. Occurrences before {@link #getNextIndex()} have fired; those from
+ * there on are pending, whether already materialized into the timeline or only described by the rule.
+ * Neighbour lookups on the pending occurrences are answered from the rule in constant time.
+ */
+public class Recurrence {
+    private final RecurringEvent recurringEvent;
+    private volatile long nextIndex;
+    private volatile long nextToMaterialize;
+
+    public Recurrence(RecurringEvent recurringEvent, long nextIndex) {
+        this.recurringEvent = recurringEvent;
+        this.nextIndex = nextIndex;
+        this.nextToMaterialize = nextIndex;
+    }
+
+    public RecurringEvent getRecurringEvent() {
+        return recurringEvent;
+    }
+
+    public RecurrenceRule getRule() {
+        return recurringEvent.getRule();
+    }
+
+    public ActionType getActionType() {
+        return recurringEvent.getAction().getActionType();
+    }
+
+    public long getNextIndex() {
+        return nextIndex;
+    }
+
+    public long getNextToMaterialize() {
+        return Math.max(nextToMaterialize, nextIndex);
+    }
+
+    public synchronized void materializedUpTo(long index) {
+        nextToMaterialize = Math.max(nextToMaterialize, index + 1);
+    }
+
+    /**
+     * Marks every occurrence up to the one starting at the given time as fired. Never moves back, so an overdue
+     * occurrence fired late after a restart leaves the recurrence where it is.
+     */
+    public synchronized void firedAt(LocalDateTime start) {
+        nextIndex = Math.max(nextIndex, this.getRule().indexAfter(start));
+    }
+
+    public boolean isOver() {
+        return nextIndex > this.getRule().getLastIndex();
+    }
+
+    /**
+     * @return the latest pending occurrence starting strictly before the given time, or null
+     */
+    public Event lastBefore(LocalDateTime time) {
+        long index = this.getRule().indexBefore(time);
+        return index >= nextIndex ? recurringEvent.occurrence(index) : null;
+    }
+
+    /**
+     * @return the earliest pending occurrence starting strictly after the given time, or null
+     */
+    public Event firstAfter(LocalDateTime time) {
+        long index = Math.max(this.getRule().indexAfter(time), nextIndex);
+        return index <= this.getRule().getLastIndex() ? recurringEvent.occurrence(index) : null;
+    }
+
+    /**
+     * @return the start of the last occurrence, null when the rule has no end
+     */
+    public LocalDateTime getLastStart() {
+        return this.getRule().isBounded() ? this.getRule().occurrence(this.getRule().getLastIndex()) : null;
+    }
+}
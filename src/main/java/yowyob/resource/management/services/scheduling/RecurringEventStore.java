@@ -0,0 +1,74 @@
+package yowyob.resource.management.services.scheduling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.recurrence.RecurrenceRule;
+import yowyob.resource.management.events.recurrence.RecurringEvent;
+import yowyob.resource.management.models.scheduling.RecurringEventRecord;
+import yowyob.resource.management.repositories.scheduling.RecurringEventRepository;
+import yowyob.resource.management.services.strategy.StrategyBuilder;
+import yowyob.resource.management.services.strategy.StrategyConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Durable copy of the recurring events in Cassandra, one row per rule. Their materialized occurrences are
+ * stored by the {@link ScheduledEventStore} like any scheduled event; since occurrence ids are derived from
+ * the rule, those read back at startup and those materialized again from the rule are the same events.
+ */
+@Component
+public class RecurringEventStore {
+    private final RecurringEventRepository recurringEventRepository;
+    private final StrategyBuilder strategyBuilder;
+    private final StrategyConverter strategyConverter;
+    private static final Logger logger = LoggerFactory.getLogger(RecurringEventStore.class);
+
+    @Autowired
+    public RecurringEventStore(RecurringEventRepository recurringEventRepository,
+                               StrategyBuilder strategyBuilder,
+                               StrategyConverter strategyConverter) {
+        this.recurringEventRepository = recurringEventRepository;
+        this.strategyBuilder = strategyBuilder;
+        this.strategyConverter = strategyConverter;
+    }
+
+    public void save(RecurringEvent recurringEvent) {
+        RecurringEventRecord record = new RecurringEventRecord(recurringEvent.getRecurrenceId(), recurringEvent.getEntityId(),
+                recurringEvent.getEventClass(), recurringEvent.getRule().toString(),
+                strategyBuilder.buildFromEvents(List.of(recurringEvent.occurrence(0))));
+        recurringEventRepository.save(record)
+                .subscribe(saved -> { }, error -> logger.error("Failed to store recurring event {}: {}",
+                        recurringEvent.getRecurrenceId(), error.getMessage()));
+    }
+
+    public void delete(UUID recurrenceId) {
+        recurringEventRepository.deleteById(recurrenceId)
+                .subscribe(null, error -> logger.error("Failed to delete recurring event {}: {}",
+                        recurrenceId, error.getMessage()));
+    }
+
+    /**
+     * Reads every stored recurring event; unreadable rows are logged and skipped.
+     */
+    public Flux<RecurringEvent> loadAll() {
+        return recurringEventRepository.findAll()
+                .flatMap(record -> Mono.fromCallable(() -> this.decode(record))
+                        .onErrorResume(error -> {
+                            logger.error("Skipping unreadable recurring event {}: {}", record.getRecurrenceId(), error.getMessage());
+                            return Mono.empty();
+                        }));
+    }
+
+    private RecurringEvent decode(RecurringEventRecord record) {
+        Event first = strategyConverter.restoreEvents(record.getPayload().getBytes(StandardCharsets.UTF_8)).get(0);
+        RecurrenceRule rule = RecurrenceRule.parse(record.getRule(), first.getEventStartDateTime());
+        return new RecurringEvent(this, record.getRecurrenceId(), first.getAction(), rule);
+    }
+}
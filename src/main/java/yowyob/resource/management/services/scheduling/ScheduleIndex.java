@@ -0,0 +1,68 @@
+package yowyob.resource.management.services.scheduling;
+
+import yowyob.resource.management.events.Event;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Every event scheduled by one updater, ordered by start then id. Range reads walk a live view of the
+ * skip list, so a query never copies the schedule and never blocks the updater; a read racing with
+ * a schedule or a firing sees the index as it was either before or after that change.
+ */
+public class ScheduleIndex {
+    private final NavigableMap<Slot, Event> events = new ConcurrentSkipListMap<>();
+
+    public void add(Event event) {
+        events.put(Slot.of(event), event);
+    }
+
+    public void remove(Event event) {
+        events.remove(Slot.of(event));
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * @param after the last slot already returned, exclusive; null to start at {@code from}
+     * @return the events starting in [from, to) after the given slot, in slot order
+     */
+    public Iterator<Event> range(LocalDateTime from, LocalDateTime to, Slot after) {
+        Slot lower = Slot.lowest(from);
+        Slot upper = Slot.lowest(to);
+        boolean afterCursor = after != null && after.compareTo(lower) >= 0;
+        Slot start = afterCursor ? after : lower;
+        if (start.compareTo(upper) >= 0) {
+            return Collections.emptyIterator();
+        }
+        return events.subMap(start, !afterCursor, upper, false).values().iterator();
+    }
+
+    /**
+     * Position of an event in the schedule; ties on the start are broken by the event id.
+     */
+    public record Slot(LocalDateTime start, UUID eventId) implements Comparable<Slot> {
+        private static final UUID LOWEST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+        private static final Comparator<Slot> ORDER = Comparator.comparing(Slot::start).thenComparing(Slot::eventId);
+
+        public static Slot of(Event event) {
+            return new Slot(event.getEventStartDateTime(), event.getEventId());
+        }
+
+        static Slot lowest(LocalDateTime start) {
+            return new Slot(start, LOWEST_ID);
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package yowyob.resource.management.services.scheduling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.services.resource.ResourceUpdater;
+import yowyob.resource.management.services.service.ServiceUpdater;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebuilds the timelines of the updaters from the {@link ScheduledEventStore} for the shards this node takes
+ * over, at startup or from a node that stopped. Partitions are read and decoded side by side; future events are
+ * re-armed at their start. Events whose start passed while no node held their shard are fired in start order,
+ * paced at a fixed rate so the catch-up does not flood the executors. The recurring events are registered last
+ * and resume after now; the occurrences they had materialized are among the events restored.
+ */
+@Component
+public class ScheduledEventLoader {
+    private final ScheduledEventStore scheduledEventStore;
+    private final RecurringEventStore recurringEventStore;
+    private final SchedulerShards schedulerShards;
+    private final ResourceUpdater resourceUpdater;
+    private final ServiceUpdater serviceUpdater;
+    private final int concurrency;
+    private final int catchUpPerSecond;
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledEventLoader.class);
+
+    @Autowired
+    public ScheduledEventLoader(ScheduledEventStore scheduledEventStore,
+                                RecurringEventStore recurringEventStore,
+                                SchedulerShards schedulerShards,
+                                ResourceUpdater resourceUpdater,
+                                ServiceUpdater serviceUpdater,
+                                @Value("${app.scheduler.store.concurrency:8}") int concurrency,
+                                @Value("${app.scheduler.store.catch-up-per-second:200}") int catchUpPerSecond) {
+        this.scheduledEventStore = scheduledEventStore;
+        this.recurringEventStore = recurringEventStore;
+        this.schedulerShards = schedulerShards;
+        this.resourceUpdater = resourceUpdater;
+        this.serviceUpdater = serviceUpdater;
+        this.concurrency = concurrency;
+        this.catchUpPerSecond = Math.max(1, catchUpPerSecond);
+    }
+
+    public void restoreShards(Set<Integer> shards) {
+        long startedAt = System.nanoTime();
+        Instant now = Instant.now();
+        AtomicLong upcoming = new AtomicLong();
+        Queue<Event> overdue = new ConcurrentLinkedQueue<>();
+
+        try {
+            scheduledEventStore.flush()
+                    .thenMany(scheduledEventStore.loadShards(shards))
+                    .parallel(concurrency)
+                    .runOn(Schedulers.parallel())
+                    .flatMap(record -> Mono.fromCallable(() -> scheduledEventStore.decode(record))
+                            .onErrorResume(error -> {
+                                logger.error("Skipping unreadable scheduled event {}: {}",
+                                        record.getKey().getEventId(), error.getMessage());
+                                return Mono.empty();
+                            }))
+                    .doOnNext(event -> {
+                        Instant start = ScheduledEventStore.startOf(event);
+                        if (start.isAfter(now)) {
+                            this.restore(event, start);
+                            upcoming.incrementAndGet();
+                        } else {
+                            overdue.add(event);
+                        }
+                    })
+                    .sequential()
+                    .then()
+                    .block();
+        } catch (RuntimeException e) {
+            logger.error("Loading the scheduled events failed, only those read so far are re-armed: {}", e.getMessage());
+        }
+
+        List<Event> catchUp = new ArrayList<>(overdue);
+        catchUp.sort(Comparator.comparing(Event::getEventStartDateTime));
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / catchUpPerSecond;
+        for (int i = 0; i < catchUp.size(); i++) {
+            this.restore(catchUp.get(i), now.plusNanos(i * intervalNanos));
+        }
+
+        long recurring = this.restoreRecurringEvents(shards);
+        logger.info("Restored shards {}: {} scheduled events, {} overdue ones and {} recurring events in {} ms", shards,
+                upcoming.get(), catchUp.size(), recurring, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    private long restoreRecurringEvents(Set<Integer> shards) {
+        try {
+            Long restored = recurringEventStore.loadAll()
+                    .filter(recurringEvent -> shards.contains(schedulerShards.shardOf(recurringEvent.getEntityId())))
+                    .doOnNext(recurringEvent -> {
+                        switch (recurringEvent.getEventClass()) {
+                            case Resource -> resourceUpdater.restoreRecurrence(recurringEvent);
+                            case Service -> serviceUpdater.restoreRecurrence(recurringEvent);
+                        }
+                    })
+                    .count()
+                    .block();
+            return restored != null ? restored : 0;
+        } catch (RuntimeException e) {
+            logger.error("Loading the recurring events failed, only those read so far are registered: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private void restore(Event event, Instant executionTime) {
+        switch (event.getEventClass()) {
+            case Resource -> resourceUpdater.restoreEvent(event, executionTime);
+            case Service -> serviceUpdater.restoreEvent(event, executionTime);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package yowyob.resource.management.services.scheduling;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.cassandra.core.ReactiveCassandraBatchOperations;
+import org.springframework.data.cassandra.core.ReactiveCassandraOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.models.scheduling.ScheduledEventBucket;
+import yowyob.resource.management.models.scheduling.ScheduledEventBucketKey;
+import yowyob.resource.management.models.scheduling.ScheduledEventKey;
+import yowyob.resource.management.models.scheduling.ScheduledEventRecord;
+import yowyob.resource.management.repositories.scheduling.ScheduledEventBucketRepository;
+import yowyob.resource.management.repositories.scheduling.ScheduledEventRepository;
+import yowyob.resource.management.services.strategy.StrategyBuilder;
+import yowyob.resource.management.services.strategy.StrategyConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Durable copy of the scheduled events in Cassandra. Saves and deletions are queued and written in the
+ * background by micro-batches of one partition each, so scheduling an event never waits for the database.
+ * Only the latest mutation of an event within a flush is written, and a failed batch is retried at the next
+ * flush unless a newer mutation of the same event supersedes it.
+ * <p>
+ * Events are partitioned by hour of start and by shard of entity. The shard count must not be lowered once
+ * events are stored: the partitions of the dropped shards would never be read again.
+ */
+@Component
+public class ScheduledEventStore {
+    private static final long SECONDS_PER_BUCKET = 3600;
+
+    private final ReactiveCassandraOperations cassandraOperations;
+    private final ScheduledEventRepository scheduledEventRepository;
+    private final ScheduledEventBucketRepository scheduledEventBucketRepository;
+    private final StrategyBuilder strategyBuilder;
+    private final StrategyConverter strategyConverter;
+    private final int shards;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration flushInterval;
+
+    private final Queue<Mutation> pending = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, Mutation> retries = new ConcurrentHashMap<>();
+    private final Set<ScheduledEventBucketKey> knownBuckets = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    private final Disposable flusher;
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledEventStore.class);
+
+    @Autowired
+    public ScheduledEventStore(ReactiveCassandraOperations cassandraOperations,
+                               ScheduledEventRepository scheduledEventRepository,
+                               ScheduledEventBucketRepository scheduledEventBucketRepository,
+                               StrategyBuilder strategyBuilder,
+                               StrategyConverter strategyConverter,
+                               @Value("${app.scheduler.store.shards:16}") int shards,
+                               @Value("${app.scheduler.store.batch-size:100}") int batchSize,
+                               @Value("${app.scheduler.store.concurrency:8}") int concurrency,
+                               @Value("${app.scheduler.store.flush-interval-ms:20}") long flushIntervalMs) {
+        this.cassandraOperations = cassandraOperations;
+        this.scheduledEventRepository = scheduledEventRepository;
+        this.scheduledEventBucketRepository = scheduledEventBucketRepository;
+        this.strategyBuilder = strategyBuilder;
+        this.strategyConverter = strategyConverter;
+        this.shards = shards;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.flushInterval = Duration.ofMillis(flushIntervalMs);
+
+        this.flusher = Flux.interval(flushInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> this.hasPending() ? this.flush() : Mono.empty())
+                .subscribe();
+        logger.info("ScheduledEventStore initialized with {} shards, batches of {} every {} ms", shards, batchSize, flushIntervalMs);
+    }
+
+    public void save(Event event) {
+        pending.add(new Mutation(event, false));
+    }
+
+    public void delete(Event event) {
+        pending.add(new Mutation(event, true));
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty() || !retries.isEmpty();
+    }
+
+    /**
+     * Writes everything queued so far. Flushes never overlap: a call made during a flush waits for it to end.
+     */
+    public Mono<Void> flush() {
+        return Mono.defer(() -> {
+            if (!flushing.compareAndSet(false, true)) {
+                return Mono.delay(flushInterval).then(this.flush());
+            }
+            return this.writePending().doFinally(signal -> flushing.set(false));
+        });
+    }
+
+    private Mono<Void> writePending() {
+        Map<UUID, Mutation> latest = new LinkedHashMap<>(retries);
+        retries.clear();
+        Mutation mutation;
+        while ((mutation = pending.poll()) != null) {
+            latest.put(mutation.event().getEventId(), mutation);
+        }
+        if (latest.isEmpty()) {
+            return Mono.empty();
+        }
+
+        Map<ScheduledEventBucketKey, List<Mutation>> partitions = new HashMap<>();
+        for (Mutation next : latest.values()) {
+            partitions.computeIfAbsent(this.partitionOf(next.event()), key -> new ArrayList<>()).add(next);
+        }
+
+        return Flux.fromIterable(partitions.entrySet())
+                .flatMap(partition -> this.writePartition(partition.getKey(), partition.getValue()), concurrency)
+                .then();
+    }
+
+    private Mono<Void> writePartition(ScheduledEventBucketKey partition, List<Mutation> mutations) {
+        return this.registerBucket(partition, mutations)
+                .thenMany(Flux.fromIterable(mutations).buffer(batchSize))
+                .concatMap(this::writeBatch)
+                .then()
+                .onErrorResume(error -> {
+                    logger.warn("Writing {} scheduled events of partition {}/{} failed, retrying at the next flush: {}",
+                            mutations.size(), partition.getBucketHour(), partition.getShard(), error.getMessage());
+                    mutations.forEach(failed -> retries.put(failed.event().getEventId(), failed));
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> registerBucket(ScheduledEventBucketKey partition, List<Mutation> mutations) {
+        boolean saves = mutations.stream().anyMatch(next -> !next.delete());
+        if (!saves || !knownBuckets.add(partition)) {
+            return Mono.empty();
+        }
+        return scheduledEventBucketRepository.save(new ScheduledEventBucket(partition))
+                .doOnError(error -> knownBuckets.remove(partition))
+                .then();
+    }
+
+    private Mono<Void> writeBatch(List<Mutation> mutations) {
+        List<ScheduledEventRecord> inserts = new ArrayList<>();
+        List<ScheduledEventRecord> deletions = new ArrayList<>();
+        for (Mutation next : mutations) {
+            if (next.delete()) {
+                deletions.add(new ScheduledEventRecord(this.keyOf(next.event()), null, null, null));
+            } else {
+                inserts.add(this.encode(next.event()));
+            }
+        }
+
+        ReactiveCassandraBatchOperations batch = cassandraOperations.batchOps();
+        if (!inserts.isEmpty()) {
+            batch.insert(inserts);
+        }
+        if (!deletions.isEmpty()) {
+            batch.delete(deletions);
+        }
+        return batch.execute().then();
+    }
+
+    /**
+     * Reads the stored events of the given shards, partitions read side by side. Past partitions found empty
+     * leave the index.
+     */
+    public Flux<ScheduledEventRecord> loadShards(Collection<Integer> shardsToLoad) {
+        long currentBucket = bucketOf(Instant.now());
+        return Flux.fromIterable(shardsToLoad)
+                .flatMap(scheduledEventBucketRepository::findByKeyShard, concurrency)
+                .flatMap(bucket -> this.loadBucket(bucket, currentBucket), concurrency);
+    }
+
+    private Flux<ScheduledEventRecord> loadBucket(ScheduledEventBucket bucket, long currentBucket) {
+        ScheduledEventBucketKey key = bucket.getKey();
+        knownBuckets.add(key);
+        Flux<ScheduledEventRecord> records =
+                scheduledEventRepository.findByKeyBucketHourAndKeyShard(key.getBucketHour(), key.getShard());
+
+        if (key.getBucketHour() >= currentBucket) {
+            return records;
+        }
+        return records.switchIfEmpty(scheduledEventBucketRepository.delete(bucket)
+                .then(Mono.<ScheduledEventRecord>fromRunnable(() -> knownBuckets.remove(key))));
+    }
+
+    public Event decode(ScheduledEventRecord record) {
+        return strategyConverter.restoreEvents(record.getPayload().getBytes(StandardCharsets.UTF_8)).get(0);
+    }
+
+    private ScheduledEventRecord encode(Event event) {
+        return new ScheduledEventRecord(this.keyOf(event), event.getEntityId(), event.getEventClass(),
+                strategyBuilder.buildFromEvents(List.of(event)));
+    }
+
+    private ScheduledEventKey keyOf(Event event) {
+        Instant start = startOf(event);
+        return new ScheduledEventKey(bucketOf(start), this.shardOf(event.getEntityId()), start, event.getEventId());
+    }
+
+    private ScheduledEventBucketKey partitionOf(Event event) {
+        return new ScheduledEventBucketKey(this.shardOf(event.getEntityId()), bucketOf(startOf(event)));
+    }
+
+    private int shardOf(UUID entityId) {
+        return SchedulerShards.shardOf(entityId, shards);
+    }
+
+    private static long bucketOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_BUCKET);
+    }
+
+    public static Instant startOf(Event event) {
+        return event.getEventStartDateTime().atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.dispose();
+        try {
+            this.flush().block(Duration.ofSeconds(10));
+        } catch (RuntimeException e) {
+            logger.error("Last flush of the scheduled events failed: {}", e.getMessage());
+        }
+        logger.info("ScheduledEventStore stopped");
+    }
+
+    private record Mutation(Event event, boolean delete) {
+    }
+}
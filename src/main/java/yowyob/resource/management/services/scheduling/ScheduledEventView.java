@@ -0,0 +1,17 @@
+package yowyob.resource.management.services.scheduling;
+
+import yowyob.resource.management.actions.enums.ActionType;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.enums.EventClass;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ScheduledEventView(UUID eventId, UUID entityId, EventClass eventClass, ActionType actionType,
+                                 LocalDateTime start) {
+
+    public static ScheduledEventView of(Event event) {
+        return new ScheduledEventView(event.getEventId(), event.getEntityId(), event.getEventClass(),
+                event.getAction().getActionType(), event.getEventStartDateTime());
+    }
+}
@@ -0,0 +1,88 @@
+package yowyob.resource.management.services.scheduling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import yowyob.resource.management.events.enums.EventClass;
+import yowyob.resource.management.exceptions.policy.ExecutorPolicyViolationException;
+import yowyob.resource.management.exceptions.policy.UpdaterPolicyViolationException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of one updater: events pending, lag between the start of an event and its firing, rejections by
+ * stage and reason, and events per entity timeline. Every meter is registered up front, so recording on the
+ * firing path is a plain update of an existing meter and allocates nothing.
+ */
+public class SchedulerMetrics {
+    public enum Stage { SCHEDULE, FIRE }
+
+    public enum Reason { NOT_ALLOWED, NOT_OWNER, UPDATER_POLICY, EXECUTOR_POLICY, ERROR }
+
+    private final Timer fireLag;
+    private final DistributionSummary timelineSize;
+    private final Counter[][] rejections;
+
+    public SchedulerMetrics(MeterRegistry meterRegistry, EventClass eventClass, Map<?, ?> armedEvents) {
+        String eventClassTag = eventClass.name();
+        Gauge.builder("scheduler.events.pending", armedEvents, Map::size)
+                .description("Events scheduled and not fired yet")
+                .tag("class", eventClassTag)
+                .register(meterRegistry);
+        this.fireLag = Timer.builder("scheduler.fire.lag")
+                .description("Time between the start of an event and its firing")
+                .tag("class", eventClassTag)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(10))
+                .register(meterRegistry);
+        this.timelineSize = DistributionSummary.builder("scheduler.timeline.size")
+                .description("Events in the timeline of an entity, sampled when an event is added")
+                .tag("class", eventClassTag)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        Stage[] stages = Stage.values();
+        Reason[] reasons = Reason.values();
+        this.rejections = new Counter[stages.length][reasons.length];
+        for (Stage stage : stages) {
+            for (Reason reason : reasons) {
+                rejections[stage.ordinal()][reason.ordinal()] = Counter.builder("scheduler.events.rejected")
+                        .description("Events refused when scheduled or failed when fired")
+                        .tag("class", eventClassTag)
+                        .tag("stage", stage.name().toLowerCase())
+                        .tag("reason", reason.name().toLowerCase())
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    public void recordFireLag(long startEpochMillis) {
+        fireLag.record(Math.max(0, System.currentTimeMillis() - startEpochMillis), TimeUnit.MILLISECONDS);
+    }
+
+    public void recordTimelineSize(int size) {
+        timelineSize.record(size);
+    }
+
+    public void recordRejection(Stage stage, Reason reason) {
+        rejections[stage.ordinal()][reason.ordinal()].increment();
+    }
+
+    public void recordRejection(Stage stage, Throwable error) {
+        this.recordRejection(stage, reasonOf(error));
+    }
+
+    private static Reason reasonOf(Throwable error) {
+        if (error instanceof UpdaterPolicyViolationException) {
+            return Reason.UPDATER_POLICY;
+        } else if (error instanceof ExecutorPolicyViolationException) {
+            return Reason.EXECUTOR_POLICY;
+        }
+        return Reason.ERROR;
+    }
+}
@@ -0,0 +1,76 @@
+package yowyob.resource.management.services.scheduling;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Splits the entities into a fixed number of scheduler shards and tracks the shards this node holds the lease
+ * of. Only the holder of a shard arms and fires the events of its entities. A shard counts as held until its
+ * lease would expire, measured from the start of the last successful renewal, so a node cut off from the lease
+ * store stops firing before another node may take the shard over.
+ * <p>
+ * The shards are those of the {@link ScheduledEventStore} partitions, so taking a shard over reads exactly the
+ * partitions of that shard.
+ */
+@Component
+public class SchedulerShards {
+    private final int count;
+    private final Set<Integer> held = ConcurrentHashMap.newKeySet();
+    private final AtomicLongArray heldUntilNanos;
+
+    @Autowired
+    public SchedulerShards(@Value("${app.scheduler.store.shards:16}") int count) {
+        this.count = count;
+        this.heldUntilNanos = new AtomicLongArray(count);
+    }
+
+    public static int shardOf(UUID entityId, int count) {
+        return Math.floorMod(entityId.hashCode(), count);
+    }
+
+    public int shardOf(UUID entityId) {
+        return shardOf(entityId, count);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean owns(UUID entityId) {
+        return this.owns(this.shardOf(entityId));
+    }
+
+    public boolean owns(int shard) {
+        return held.contains(shard) && heldUntilNanos.get(shard) - System.nanoTime() > 0;
+    }
+
+    /**
+     * Extends the hold of a shard up to the given {@link System#nanoTime()} deadline.
+     *
+     * @return whether the shard was still held before, false when it is newly taken or its hold had lapsed
+     */
+    public boolean hold(int shard, long untilNanos) {
+        boolean wasOwned = this.owns(shard);
+        heldUntilNanos.set(shard, untilNanos);
+        held.add(shard);
+        return wasOwned;
+    }
+
+    public void drop(int shard) {
+        held.remove(shard);
+    }
+
+    /**
+     * @return the shards held, including those whose hold has lapsed and that are not dropped yet
+     */
+    public Set<Integer> getHeld() {
+        return new TreeSet<>(held);
+    }
+}
@@ -0,0 +1,32 @@
+package yowyob.resource.management.services.scheduling;
+
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.enums.EventClass;
+import yowyob.resource.management.events.recurrence.RecurringEvent;
+
+import java.util.UUID;
+
+/**
+ * An event received by a node for a shard it does not hold, waiting in the shard inbox for the holder of that
+ * shard. Exactly one of the event and the recurring event is set; the holder checks either against the timeline
+ * of its entity. Hand-off ids are time based, so a shard's inbox is read in arrival order.
+ */
+public record ShardHandOff(UUID handOffId, Event event, RecurringEvent recurringEvent) {
+
+    public static ShardHandOff of(Event event) {
+        return new ShardHandOff(Uuids.timeBased(), event, null);
+    }
+
+    public static ShardHandOff of(RecurringEvent recurringEvent) {
+        return new ShardHandOff(Uuids.timeBased(), null, recurringEvent);
+    }
+
+    public UUID entityId() {
+        return event != null ? event.getEntityId() : recurringEvent.getEntityId();
+    }
+
+    public EventClass eventClass() {
+        return event != null ? event.getEventClass() : recurringEvent.getEventClass();
+    }
+}
@@ -0,0 +1,9 @@
+package yowyob.resource.management.services.scheduling;
+
+import java.util.List;
+
+/**
+ * @param nextCursor cursor of the following page, null on the last one
+ */
+public record TimelinePage(List<ScheduledEventView> events, String nextCursor) {
+}
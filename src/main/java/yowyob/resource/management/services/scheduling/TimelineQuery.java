@@ -0,0 +1,18 @@
+package yowyob.resource.management.services.scheduling;
+
+import yowyob.resource.management.actions.enums.ActionType;
+import yowyob.resource.management.events.enums.EventClass;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Filters of a schedule read; every field is optional.
+ * @param from earliest start, inclusive
+ * @param to latest start, exclusive
+ * @param cursor the nextCursor of the previous page
+ * @param limit events per page, bounded by the configured maximum
+ */
+public record TimelineQuery(UUID entityId, EventClass eventClass, ActionType actionType,
+                            LocalDateTime from, LocalDateTime to, String cursor, Integer limit) {
+}
@@ -0,0 +1,126 @@
+package yowyob.resource.management.services.scheduling;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.actions.enums.ActionType;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.enums.EventClass;
+import yowyob.resource.management.exceptions.invalid.InvalidCursorException;
+import yowyob.resource.management.services.resource.ResourceUpdater;
+import yowyob.resource.management.services.scheduling.ScheduleIndex.Slot;
+import yowyob.resource.management.services.service.ServiceUpdater;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Reads the schedule held in memory by the updaters. Entity queries page through the entity's timeline,
+ * window queries walk the {@link ScheduleIndex} of each class; both are lazy and stop at the page size, so
+ * a planner polling the next hour never copies the rest of the schedule. Pages are ordered by start then
+ * event id, and the opaque cursor is the position of the last event returned: events fired or scheduled
+ * between two calls neither shift nor repeat the following pages.
+ */
+@Service
+public class TimelineQueryService {
+    private static final Comparator<Event> SLOT_ORDER = Comparator.comparing(Slot::of);
+
+    private final ResourceUpdater resourceUpdater;
+    private final ServiceUpdater serviceUpdater;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    @Autowired
+    public TimelineQueryService(ResourceUpdater resourceUpdater,
+                                ServiceUpdater serviceUpdater,
+                                @Value("${app.timeline.page-size:100}") int defaultPageSize,
+                                @Value("${app.timeline.max-page-size:1000}") int maxPageSize) {
+        this.resourceUpdater = resourceUpdater;
+        this.serviceUpdater = serviceUpdater;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * @return the events matching the query in slot order, at most one page of them
+     */
+    public Flux<Event> events(TimelineQuery query) {
+        return Flux.defer(() -> this.select(query, this.pageSize(query)));
+    }
+
+    public Mono<TimelinePage> page(TimelineQuery query) {
+        return Mono.defer(() -> {
+            int size = this.pageSize(query);
+            return this.select(query, size)
+                    .collectList()
+                    .map(events -> new TimelinePage(
+                            events.stream().map(ScheduledEventView::of).toList(),
+                            events.size() < size ? null : encodeCursor(Slot.of(events.get(events.size() - 1)))));
+        });
+    }
+
+    private Flux<Event> select(TimelineQuery query, int size) {
+        LocalDateTime from = query.from() != null ? query.from() : LocalDateTime.MIN;
+        LocalDateTime to = query.to() != null ? query.to() : LocalDateTime.MAX;
+        Slot after = decodeCursor(query.cursor());
+
+        List<Flux<Event>> sources = new ArrayList<>(2);
+        if (query.eventClass() == null || query.eventClass() == EventClass.Resource) {
+            sources.add(this.select(resourceUpdater.getScheduleIndex(), resourceUpdater::getTimeline, query, from, to, after, size));
+        }
+        if (query.eventClass() == null || query.eventClass() == EventClass.Service) {
+            sources.add(this.select(serviceUpdater.getScheduleIndex(), serviceUpdater::getTimeline, query, from, to, after, size));
+        }
+
+        Flux<Event> merged = sources.size() == 1
+                ? sources.get(0)
+                : Flux.mergeComparing(SLOT_ORDER, sources.get(0), sources.get(1));
+        return merged.take(size);
+    }
+
+    private Flux<Event> select(ScheduleIndex index, Function<UUID, EntityTimeline> timelines,
+                               TimelineQuery query, LocalDateTime from, LocalDateTime to, Slot after, int size) {
+        if (query.entityId() != null) {
+            return Flux.defer(() -> Flux.fromIterable(
+                    timelines.apply(query.entityId()).page(from, to, query.actionType(), after, size)));
+        }
+
+        ActionType actionType = query.actionType();
+        Flux<Event> window = Flux.fromIterable(() -> index.range(from, to, after));
+        return actionType == null
+                ? window
+                : window.filter(event -> event.getAction().getActionType() == actionType);
+    }
+
+    private int pageSize(TimelineQuery query) {
+        int requested = query.limit() != null ? query.limit() : defaultPageSize;
+        return Math.max(1, Math.min(requested, maxPageSize));
+    }
+
+    static String encodeCursor(Slot slot) {
+        String position = slot.start() + "|" + slot.eventId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Slot decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            return new Slot(LocalDateTime.parse(position.substring(0, separator)),
+                    UUID.fromString(position.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+    }
+}
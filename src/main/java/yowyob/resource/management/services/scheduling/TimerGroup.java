@@ -0,0 +1,12 @@
+package yowyob.resource.management.services.scheduling;
+
+import java.util.List;
+
+/**
+ * Target of timers whose items are processed together: the {@link EventScheduler} hands over at once the items
+ * of all the timers of a group falling due on the same tick, in chunks of at most its batch size.
+ */
+@FunctionalInterface
+public interface TimerGroup<T> {
+    void fire(List<T> items);
+}
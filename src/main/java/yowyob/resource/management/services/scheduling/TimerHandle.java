@@ -0,0 +1,78 @@
+package yowyob.resource.management.services.scheduling;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handle of a task scheduled on the {@link EventScheduler}. Doubles as the node of the wheel bucket
+ * holding it, so inserting and unlinking never allocate.
+ */
+public final class TimerHandle {
+    static final int PENDING = 0;
+    static final int CANCELLED = 1;
+    static final int FIRED = 2;
+
+    private final Instant deadline;
+    private final long deadlineTick;
+    private final Runnable task;
+    private final Object item;
+    private final TimerGroup<?> group;
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+
+    // Owned by the ticking thread
+    TimingWheel.Bucket bucket;
+    TimerHandle previous;
+    TimerHandle next;
+
+    TimerHandle(Instant deadline, long deadlineTick, Runnable task) {
+        this(deadline, deadlineTick, task, null, null);
+    }
+
+    <T> TimerHandle(Instant deadline, long deadlineTick, T item, TimerGroup<T> group) {
+        this(deadline, deadlineTick, null, item, group);
+    }
+
+    private TimerHandle(Instant deadline, long deadlineTick, Runnable task, Object item, TimerGroup<?> group) {
+        this.deadline = deadline;
+        this.deadlineTick = deadlineTick;
+        this.task = task;
+        this.item = item;
+        this.group = group;
+    }
+
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    public boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
+
+    public boolean isFired() {
+        return state.get() == FIRED;
+    }
+
+    long deadlineTick() {
+        return deadlineTick;
+    }
+
+    Runnable task() {
+        return task;
+    }
+
+    Object item() {
+        return item;
+    }
+
+    TimerGroup<?> group() {
+        return group;
+    }
+
+    boolean markCancelled() {
+        return state.compareAndSet(PENDING, CANCELLED);
+    }
+
+    boolean markFired() {
+        return state.compareAndSet(PENDING, FIRED);
+    }
+}
@@ -0,0 +1,153 @@
+package yowyob.resource.management.services.scheduling;
+
+import java.util.List;
+
+/**
+ * Hierarchical hashed timing wheel (Varghese &amp; Lauck). Level 0 has one bucket per tick; each level above
+ * covers {@code wheelSize} times the span of the level below, and its buckets are cascaded down when the
+ * clock reaches them. Insert and remove are O(1); advancing one tick costs the size of the expiring bucket.
+ * Not thread-safe: it is only touched by the ticking thread of the {@link EventScheduler}.
+ */
+final class TimingWheel {
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final Bucket[][] wheels;
+    private long currentTick;
+    private int size;
+
+    TimingWheel(int wheelSize, int levels, long startTick) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("The wheel size must be a power of two: " + wheelSize);
+        }
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        if (bits * levels >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("The wheel span does not fit in a long");
+        }
+        this.mask = wheelSize - 1;
+        this.levels = levels;
+        this.wheels = new Bucket[levels][wheelSize];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < wheelSize; slot++) {
+                wheels[level][slot] = new Bucket();
+            }
+        }
+        this.currentTick = startTick;
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Places the handle in its bucket, or in {@code due} when its tick has already been reached.
+     */
+    void add(TimerHandle handle, List<TimerHandle> due) {
+        long deadline = handle.deadlineTick();
+        long delta = deadline - currentTick;
+        if (delta <= 0) {
+            due.add(handle);
+            return;
+        }
+
+        int level = Math.min((63 - Long.numberOfLeadingZeros(delta)) / bits, levels - 1);
+        if (level == levels - 1 && delta >> (bits * levels) != 0) {
+            // Beyond the span of the wheel: parked in the farthest bucket and placed again when it cascades
+            deadline = currentTick + (1L << (bits * levels)) - 1;
+        }
+        wheels[level][(int) (deadline >>> (bits * level)) & mask].append(handle);
+        size++;
+    }
+
+    void remove(TimerHandle handle) {
+        if (handle.bucket != null) {
+            handle.bucket.unlink(handle);
+            size--;
+        }
+    }
+
+    /**
+     * Moves the clock up to the given tick, collecting every handle whose tick is reached.
+     */
+    void advanceTo(long tick, List<TimerHandle> due) {
+        while (currentTick < tick) {
+            currentTick++;
+            for (int level = levels - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                    Bucket bucket = wheels[level][(int) (currentTick >>> (bits * level)) & mask];
+                    for (TimerHandle handle = bucket.drain(); handle != null; ) {
+                        TimerHandle next = handle.next;
+                        handle.next = null;
+                        size--;
+                        this.add(handle, due);
+                        handle = next;
+                    }
+                }
+            }
+
+            // Handles parked beyond the span of a single-level wheel go back in instead of expiring
+            Bucket expired = wheels[0][(int) currentTick & mask];
+            for (TimerHandle handle = expired.drain(); handle != null; ) {
+                TimerHandle next = handle.next;
+                handle.next = null;
+                size--;
+                this.add(handle, due);
+                handle = next;
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of the handles sharing a slot.
+     */
+    static final class Bucket {
+        private TimerHandle head;
+        private TimerHandle tail;
+
+        private void append(TimerHandle handle) {
+            handle.bucket = this;
+            handle.previous = tail;
+            handle.next = null;
+            if (tail == null) {
+                head = handle;
+            } else {
+                tail.next = handle;
+            }
+            tail = handle;
+        }
+
+        private void unlink(TimerHandle handle) {
+            if (handle.previous == null) {
+                head = handle.next;
+            } else {
+                handle.previous.next = handle.next;
+            }
+            if (handle.next == null) {
+                tail = handle.previous;
+            } else {
+                handle.next.previous = handle.previous;
+            }
+            handle.bucket = null;
+            handle.previous = null;
+            handle.next = null;
+        }
+
+        /**
+         * Detaches every handle at once and returns the first one; the chain stays linked through {@code next}.
+         */
+        private TimerHandle drain() {
+            TimerHandle first = head;
+            for (TimerHandle handle = first; handle != null; handle = handle.next) {
+                handle.bucket = null;
+                handle.previous = null;
+            }
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+}
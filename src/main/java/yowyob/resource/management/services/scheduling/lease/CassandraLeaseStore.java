@@ -0,0 +1,77 @@
+package yowyob.resource.management.services.scheduling.lease;
+
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.cassandra.ReactiveResultSet;
+import org.springframework.data.cassandra.core.ReactiveCassandraOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.models.scheduling.SchedulerLease;
+import yowyob.resource.management.models.scheduling.SchedulerNode;
+import yowyob.resource.management.services.interfaces.leases.LeaseStore;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Leases kept in Cassandra. Taking, renewing and freeing a lease are lightweight transactions conditioned on
+ * the current holder, so two nodes never hold the same shard; the TTL of the row frees the lease of a node
+ * that stopped renewing it.
+ */
+@Component
+@ConditionalOnProperty(name = "app.scheduler.lease.store", havingValue = "cassandra", matchIfMissing = true)
+public class CassandraLeaseStore implements LeaseStore {
+    private static final String JOIN = "INSERT INTO scheduler_node (node_id) VALUES (?) USING TTL ?";
+    private static final String RENEW = "UPDATE scheduler_lease USING TTL ? SET owner = ? WHERE shard = ? IF owner = ?";
+    private static final String TAKE = "INSERT INTO scheduler_lease (shard, owner) VALUES (?, ?) IF NOT EXISTS USING TTL ?";
+    private static final String RELEASE = "DELETE FROM scheduler_lease WHERE shard = ? IF owner = ?";
+
+    private final ReactiveCassandraOperations cassandraOperations;
+
+    @Autowired
+    public CassandraLeaseStore(ReactiveCassandraOperations cassandraOperations) {
+        this.cassandraOperations = cassandraOperations;
+    }
+
+    @Override
+    public Mono<Void> join(String node, Duration ttl) {
+        return cassandraOperations.execute(SimpleStatement.newInstance(JOIN, node, ttlSeconds(ttl))).then();
+    }
+
+    @Override
+    public Mono<Set<String>> nodes() {
+        return cassandraOperations.select("SELECT node_id FROM scheduler_node", SchedulerNode.class)
+                .map(SchedulerNode::getNodeId)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Mono<Boolean> acquire(int shard, String node, Duration ttl) {
+        int ttlSeconds = ttlSeconds(ttl);
+        return this.apply(SimpleStatement.newInstance(RENEW, ttlSeconds, node, shard, node))
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.defer(() -> this.apply(SimpleStatement.newInstance(TAKE, shard, node, ttlSeconds))));
+    }
+
+    @Override
+    public Mono<Void> release(int shard, String node) {
+        return this.apply(SimpleStatement.newInstance(RELEASE, shard, node)).then();
+    }
+
+    @Override
+    public Mono<Map<Integer, String>> owners() {
+        return cassandraOperations.select("SELECT shard, owner FROM scheduler_lease", SchedulerLease.class)
+                .collectMap(SchedulerLease::getShard, SchedulerLease::getOwner);
+    }
+
+    private Mono<Boolean> apply(SimpleStatement statement) {
+        return cassandraOperations.execute(statement).map(ReactiveResultSet::wasApplied);
+    }
+
+    private static int ttlSeconds(Duration ttl) {
+        return (int) Math.max(1, ttl.toSeconds());
+    }
+}
@@ -0,0 +1,88 @@
+package yowyob.resource.management.services.scheduling.lease;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.recurrence.RecurrenceRule;
+import yowyob.resource.management.events.recurrence.RecurringEvent;
+import yowyob.resource.management.models.scheduling.ShardHandOffKey;
+import yowyob.resource.management.models.scheduling.ShardHandOffRecord;
+import yowyob.resource.management.repositories.scheduling.ShardHandOffRepository;
+import yowyob.resource.management.services.interfaces.leases.ShardInbox;
+import yowyob.resource.management.services.scheduling.ShardHandOff;
+import yowyob.resource.management.services.strategy.StrategyBuilder;
+import yowyob.resource.management.services.strategy.StrategyConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Shard inboxes kept in Cassandra, one partition per shard, so every node posts to the same inbox and the holder
+ * of a shard reads a single partition. Unreadable rows are logged and removed, they would never be handled.
+ */
+@Component
+@ConditionalOnProperty(name = "app.scheduler.lease.store", havingValue = "cassandra", matchIfMissing = true)
+public class CassandraShardInbox implements ShardInbox {
+    private final ShardHandOffRepository shardHandOffRepository;
+    private final StrategyBuilder strategyBuilder;
+    private final StrategyConverter strategyConverter;
+    private static final Logger logger = LoggerFactory.getLogger(CassandraShardInbox.class);
+
+    @Autowired
+    public CassandraShardInbox(ShardHandOffRepository shardHandOffRepository,
+                               StrategyBuilder strategyBuilder,
+                               StrategyConverter strategyConverter) {
+        this.shardHandOffRepository = shardHandOffRepository;
+        this.strategyBuilder = strategyBuilder;
+        this.strategyConverter = strategyConverter;
+    }
+
+    @Override
+    public Mono<Void> post(int shard, ShardHandOff handOff) {
+        return Mono.fromCallable(() -> this.encode(shard, handOff))
+                .flatMap(shardHandOffRepository::save)
+                .then();
+    }
+
+    @Override
+    public Flux<ShardHandOff> pending(int shard) {
+        return shardHandOffRepository.findByKeyShard(shard)
+                .concatMap(record -> Mono.fromCallable(() -> this.decode(record))
+                        .onErrorResume(error -> {
+                            logger.error("Dropping unreadable hand-off {} of shard {}: {}",
+                                    record.getKey().getHandOffId(), shard, error.getMessage());
+                            return shardHandOffRepository.deleteById(record.getKey()).then(Mono.empty());
+                        }));
+    }
+
+    @Override
+    public Mono<Void> remove(int shard, ShardHandOff handOff) {
+        return shardHandOffRepository.deleteById(new ShardHandOffKey(shard, handOff.handOffId()));
+    }
+
+    private ShardHandOffRecord encode(int shard, ShardHandOff handOff) {
+        ShardHandOffKey key = new ShardHandOffKey(shard, handOff.handOffId());
+        RecurringEvent recurringEvent = handOff.recurringEvent();
+        if (recurringEvent == null) {
+            return new ShardHandOffRecord(key, null, null,
+                    strategyBuilder.buildFromEvents(List.of(handOff.event())));
+        }
+        return new ShardHandOffRecord(key, recurringEvent.getRecurrenceId(), recurringEvent.getRule().toString(),
+                strategyBuilder.buildFromEvents(List.of(recurringEvent.occurrence(0))));
+    }
+
+    private ShardHandOff decode(ShardHandOffRecord record) {
+        Event event = strategyConverter.restoreEvents(record.getPayload().getBytes(StandardCharsets.UTF_8)).get(0);
+        if (record.getRule() == null) {
+            return new ShardHandOff(record.getKey().getHandOffId(), event, null);
+        }
+        RecurrenceRule rule = RecurrenceRule.parse(record.getRule(), event.getEventStartDateTime());
+        return new ShardHandOff(record.getKey().getHandOffId(), null,
+                new RecurringEvent(this, record.getRecurrenceId(), event.getAction(), rule));
+    }
+}
@@ -0,0 +1,79 @@
+package yowyob.resource.management.services.scheduling.lease;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.services.interfaces.leases.LeaseStore;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Leases kept in the memory of one process, for a single node and for tests. Several managers sharing one
+ * instance behave like nodes sharing the Cassandra lease table.
+ */
+@Component
+@ConditionalOnProperty(name = "app.scheduler.lease.store", havingValue = "memory")
+public class InMemoryLeaseStore implements LeaseStore {
+    private final Clock clock;
+    private final Map<String, Instant> nodes = new ConcurrentHashMap<>();
+    private final Map<Integer, Lease> leases = new ConcurrentHashMap<>();
+
+    public InMemoryLeaseStore() {
+        this(Clock.systemUTC());
+    }
+
+    public InMemoryLeaseStore(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Mono<Void> join(String node, Duration ttl) {
+        return Mono.fromRunnable(() -> nodes.put(node, clock.instant().plus(ttl)));
+    }
+
+    @Override
+    public Mono<Set<String>> nodes() {
+        return Mono.fromCallable(() -> {
+            Instant now = clock.instant();
+            nodes.values().removeIf(expiry -> !expiry.isAfter(now));
+            return Set.copyOf(nodes.keySet());
+        });
+    }
+
+    @Override
+    public Mono<Boolean> acquire(int shard, String node, Duration ttl) {
+        return Mono.fromCallable(() -> {
+            Instant now = clock.instant();
+            Lease lease = leases.compute(shard, (key, current) ->
+                    current == null || current.owner().equals(node) || !current.expiry().isAfter(now)
+                            ? new Lease(node, now.plus(ttl))
+                            : current);
+            return lease.owner().equals(node);
+        });
+    }
+
+    @Override
+    public Mono<Void> release(int shard, String node) {
+        return Mono.fromRunnable(() -> leases.computeIfPresent(shard, (key, current) ->
+                current.owner().equals(node) ? null : current));
+    }
+
+    @Override
+    public Mono<Map<Integer, String>> owners() {
+        return Mono.fromCallable(() -> {
+            Instant now = clock.instant();
+            return leases.entrySet().stream()
+                    .filter(entry -> entry.getValue().expiry().isAfter(now))
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().owner()));
+        });
+    }
+
+    private record Lease(String owner, Instant expiry) {
+    }
+}
@@ -0,0 +1,47 @@
+package yowyob.resource.management.services.scheduling.lease;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.services.interfaces.leases.ShardInbox;
+import yowyob.resource.management.services.scheduling.ShardHandOff;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Shard inboxes kept in the memory of one process, for a single node and for tests. A single node only posts
+ * to them before its first lease round, for the events received while it held no shard yet.
+ */
+@Component
+@ConditionalOnProperty(name = "app.scheduler.lease.store", havingValue = "memory")
+public class InMemoryShardInbox implements ShardInbox {
+    private final Map<Integer, Queue<ShardHandOff>> inboxes = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> post(int shard, ShardHandOff handOff) {
+        return Mono.fromRunnable(() -> inboxes.computeIfAbsent(shard, key -> new ConcurrentLinkedQueue<>()).add(handOff));
+    }
+
+    @Override
+    public Flux<ShardHandOff> pending(int shard) {
+        return Flux.defer(() -> {
+            Queue<ShardHandOff> inbox = inboxes.get(shard);
+            return Flux.fromIterable(inbox != null ? List.copyOf(inbox) : List.of());
+        });
+    }
+
+    @Override
+    public Mono<Void> remove(int shard, ShardHandOff handOff) {
+        return Mono.fromRunnable(() -> {
+            Queue<ShardHandOff> inbox = inboxes.get(shard);
+            if (inbox != null) {
+                inbox.remove(handOff);
+            }
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package yowyob.resource.management.services.scheduling.lease;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.services.interfaces.leases.ShardInbox;
+import yowyob.resource.management.services.resource.ResourceUpdater;
+import yowyob.resource.management.services.scheduling.SchedulerShards;
+import yowyob.resource.management.services.scheduling.ShardHandOff;
+import yowyob.resource.management.services.service.ServiceUpdater;
+
+import java.time.Duration;
+
+/**
+ * Schedules the events other nodes received for the shards this node holds. The inbox of every held shard is
+ * polled and each hand-off is handled as if it had been received here: checked against the timeline of its
+ * entity. A hand-off leaves the inbox only once handled, so a node stopping
+ * meanwhile leaves it to the next holder; a shard lost meanwhile sends it back to the inbox.
+ */
+@Component
+public class ShardInboxRelay {
+    private final ShardInbox shardInbox;
+    private final SchedulerShards schedulerShards;
+    private final ResourceUpdater resourceUpdater;
+    private final ServiceUpdater serviceUpdater;
+    private final Duration pollInterval;
+    private Disposable poller;
+    private static final Logger logger = LoggerFactory.getLogger(ShardInboxRelay.class);
+
+    @Autowired
+    public ShardInboxRelay(ShardInbox shardInbox,
+                           SchedulerShards schedulerShards,
+                           ResourceUpdater resourceUpdater,
+                           ServiceUpdater serviceUpdater,
+                           @Value("${app.scheduler.inbox.poll-interval-ms:1000}") long pollIntervalMs) {
+        this.shardInbox = shardInbox;
+        this.schedulerShards = schedulerShards;
+        this.resourceUpdater = resourceUpdater;
+        this.serviceUpdater = serviceUpdater;
+        this.pollInterval = Duration.ofMillis(Math.max(50, pollIntervalMs));
+    }
+
+    /**
+     * Starts polling once the first shards are taken.
+     */
+    @Order(2)
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        this.poller = Flux.interval(pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> this.poll().onErrorResume(error -> {
+                    logger.error("Polling the shard inboxes failed: {}", error.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    /**
+     * Handles the hand-offs waiting for the shards held now, shard by shard in arrival order.
+     */
+    public Mono<Void> poll() {
+        return Flux.fromIterable(schedulerShards.getHeld())
+                .filter(schedulerShards::owns)
+                .concatMap(shard -> shardInbox.pending(shard)
+                        .concatMap(handOff -> this.handle(handOff)
+                                .onErrorResume(error -> {
+                                    logger.error("Hand-off {} for entityId: {} failed: {}",
+                                            handOff.handOffId(), handOff.entityId(), error.getMessage());
+                                    return Mono.empty();
+                                })
+                                .then(shardInbox.remove(shard, handOff))))
+                .then();
+    }
+
+    private Mono<Void> handle(ShardHandOff handOff) {
+        logger.info("Scheduling {} Event for entityId: {} handed over by another node", handOff.eventClass(), handOff.entityId());
+        if (handOff.recurringEvent() != null) {
+            return switch (handOff.eventClass()) {
+                case Resource -> resourceUpdater.handleRecurringEvent(handOff.recurringEvent());
+                case Service -> serviceUpdater.handleRecurringEvent(handOff.recurringEvent());
+            };
+        }
+        return switch (handOff.eventClass()) {
+            case Resource -> resourceUpdater.handleEvent(handOff.event());
+            case Service -> serviceUpdater.handleEvent(handOff.event());
+        };
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.dispose();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package yowyob.resource.management.services.scheduling.lease;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import yowyob.resource.management.services.interfaces.leases.LeaseStore;
+import yowyob.resource.management.services.resource.ResourceUpdater;
+import yowyob.resource.management.services.scheduling.ScheduledEventLoader;
+import yowyob.resource.management.services.scheduling.SchedulerShards;
+import yowyob.resource.management.services.service.ServiceUpdater;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Keeps this node's share of the scheduler shards. Every round, a third of the lease TTL apart, the node
+ * renews its registration and the leases it holds, frees one shard when it holds more than its fair share and
+ * takes free shards until it holds its share. A shard taken over is loaded from the durable store, with the
+ * events overdue since its previous holder stopped fired first; a shard lost or freed leaves the updaters.
+ * A dead node's shards are thus fired again by another node at most one TTL after its last renewal.
+ */
+@Component
+public class ShardLeaseManager {
+    private final LeaseStore leaseStore;
+    private final SchedulerShards schedulerShards;
+    private final ScheduledEventLoader scheduledEventLoader;
+    private final ResourceUpdater resourceUpdater;
+    private final ServiceUpdater serviceUpdater;
+    private final String nodeId;
+    private final Duration ttl;
+    private final Duration renewInterval;
+    private Disposable renewer;
+    private static final Logger logger = LoggerFactory.getLogger(ShardLeaseManager.class);
+
+    @Autowired
+    public ShardLeaseManager(LeaseStore leaseStore,
+                             SchedulerShards schedulerShards,
+                             ScheduledEventLoader scheduledEventLoader,
+                             ResourceUpdater resourceUpdater,
+                             ServiceUpdater serviceUpdater,
+                             @Value("${app.scheduler.lease.node-id:}") String nodeId,
+                             @Value("${app.scheduler.lease.ttl-ms:15000}") long ttlMs) {
+        this.leaseStore = leaseStore;
+        this.schedulerShards = schedulerShards;
+        this.scheduledEventLoader = scheduledEventLoader;
+        this.resourceUpdater = resourceUpdater;
+        this.serviceUpdater = serviceUpdater;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.ttl = Duration.ofMillis(Math.max(3000, ttlMs));
+        this.renewInterval = this.ttl.dividedBy(3);
+    }
+
+    /**
+     * Takes the first shards before serving, after the rollback of the interrupted strategies, then keeps
+     * renewing in the background.
+     */
+    @Order(1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            this.round().block();
+        } catch (RuntimeException e) {
+            logger.error("First lease round of node {} failed, retrying in {} ms: {}", nodeId, renewInterval.toMillis(), e.getMessage());
+        }
+        this.renewer = Flux.interval(renewInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> this.round().onErrorResume(error -> {
+                    logger.error("Lease round of node {} failed: {}", nodeId, error.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+        logger.info("Node {} schedules shards {} of {}, lease TTL {} ms", nodeId, schedulerShards.getHeld(),
+                schedulerShards.getCount(), ttl.toMillis());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Runs one renewal round; rounds must not overlap.
+     */
+    public Mono<Void> round() {
+        return leaseStore.join(nodeId, ttl)
+                .then(Mono.zip(leaseStore.nodes(), leaseStore.owners()))
+                .flatMap(state -> {
+                    Set<String> nodes = new TreeSet<>(state.getT1());
+                    nodes.add(nodeId);
+                    int fairShare = (schedulerShards.getCount() + nodes.size() - 1) / nodes.size();
+                    return this.renew(fairShare).then(Mono.defer(() -> this.take(fairShare, state.getT2())));
+                });
+    }
+
+    /**
+     * Renews the held leases, freeing the last one when above the fair share so another node can take it.
+     */
+    private Mono<Void> renew(int fairShare) {
+        List<Integer> held = new ArrayList<>(schedulerShards.getHeld());
+        Integer surplus = held.size() > fairShare ? held.remove(held.size() - 1) : null;
+        List<Integer> taken = new ArrayList<>();
+
+        Mono<Void> release = surplus == null ? Mono.empty() : Mono.defer(() -> {
+            this.evict(surplus);
+            return leaseStore.release(surplus, nodeId)
+                    .doOnSuccess(v -> logger.info("Node {} handed shard {} over, above its share of {}", nodeId, surplus, fairShare));
+        });
+
+        return release.thenMany(Flux.fromIterable(held))
+                .concatMap(shard -> {
+                    long startedAt = System.nanoTime();
+                    return leaseStore.acquire(shard, nodeId, ttl)
+                            .doOnNext(renewed -> {
+                                if (!renewed) {
+                                    logger.warn("Node {} lost the lease of shard {}", nodeId, shard);
+                                    this.evict(shard);
+                                } else if (!schedulerShards.hold(shard, startedAt + ttl.toNanos())) {
+                                    // The hold had lapsed: events may have been left unfired meanwhile
+                                    this.evict(shard);
+                                    schedulerShards.hold(shard, startedAt + ttl.toNanos());
+                                    taken.add(shard);
+                                }
+                            });
+                })
+                .then(Mono.defer(() -> this.load(taken)));
+    }
+
+    /**
+     * Takes free shards until the fair share is held, starting at an offset of the node so that nodes starting
+     * together do not all race for the same shards.
+     */
+    private Mono<Void> take(int fairShare, Map<Integer, String> owners) {
+        int count = schedulerShards.getCount();
+        int offset = Math.floorMod(nodeId.hashCode(), count);
+        List<Integer> free = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int shard = (offset + i) % count;
+            String owner = owners.get(shard);
+            if ((owner == null || owner.equals(nodeId)) && !schedulerShards.getHeld().contains(shard)) {
+                free.add(shard);
+            }
+        }
+        List<Integer> taken = new ArrayList<>();
+
+        return Flux.fromIterable(free)
+                .concatMap(shard -> {
+                    if (schedulerShards.getHeld().size() >= fairShare) {
+                        return Mono.empty();
+                    }
+                    long startedAt = System.nanoTime();
+                    return leaseStore.acquire(shard, nodeId, ttl)
+                            .filter(Boolean::booleanValue)
+                            .doOnNext(acquired -> {
+                                schedulerShards.hold(shard, startedAt + ttl.toNanos());
+                                taken.add(shard);
+                            });
+                })
+                .then(Mono.defer(() -> this.load(taken)));
+    }
+
+    private Mono<Void> load(List<Integer> shards) {
+        if (shards.isEmpty()) {
+            return Mono.empty();
+        }
+        logger.info("Node {} takes over shards {}", nodeId, shards);
+        return Mono.fromRunnable(() -> scheduledEventLoader.restoreShards(Set.copyOf(shards)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private void evict(int shard) {
+        schedulerShards.drop(shard);
+        int evicted = resourceUpdater.evictShard(shard) + serviceUpdater.evictShard(shard);
+        logger.info("Node {} no longer schedules shard {}, {} armed events left to the next holder", nodeId, shard, evicted);
+    }
+
+    /**
+     * Frees the held leases on shutdown, so the other nodes take the shards over at their next round
+     * instead of after the TTL.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (renewer != null) {
+            renewer.dispose();
+        }
+        Set<Integer> held = schedulerShards.getHeld();
+        held.forEach(schedulerShards::drop);
+        try {
+            Flux.fromIterable(held)
+                    .concatMap(shard -> leaseStore.release(shard, nodeId))
+                    .then()
+                    .block(Duration.ofSeconds(5));
+        } catch (RuntimeException e) {
+            logger.error("Freeing the leases of node {} failed, they lapse after their TTL: {}", nodeId, e.getMessage());
+        }
+        logger.info("Node {} freed shards {}", nodeId, held);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -4,68 +4,123 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.actions.ActionOutcome;
 import yowyob.resource.management.repositories.service.ServiceRepository;
 import yowyob.resource.management.services.interfaces.executors.Executor;
 import yowyob.resource.management.actions.service.ServiceAction;
+import yowyob.resource.management.services.context.locks.EntityLockManager;
+import yowyob.resource.management.services.context.snapshot.PreImageLoader;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
 import yowyob.resource.management.services.policy.executors.ServiceExecutorPolicy;
+import yowyob.resource.management.exceptions.EntityLockedException;
 import yowyob.resource.management.exceptions.policy.ExecutorPolicyViolationException;
 
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class ServiceActionExecutor implements Executor {
 
     private final ServiceRepository serviceRepository;
     private final ServiceExecutorPolicy serviceExecutorPolicy;
-    private final AtomicBoolean paused = new AtomicBoolean(false);
-    private final BlockingQueue<Action> waitingActions = new LinkedBlockingQueue<>();
-    private final ExecutorService executorService;
+    private final EntityLockManager entityLockManager;
+    private final PreImageLoader preImageLoader;
+    private final int batchConcurrency;
     private static final Logger logger = LoggerFactory.getLogger(ServiceActionExecutor.class);
-    private static final int THREAD_POOL_SIZE = 10;
 
     @Autowired
     public ServiceActionExecutor(ServiceExecutorPolicy serviceExecutorPolicy,
-                                 ServiceRepository serviceRepository) {
+                                 ServiceRepository serviceRepository,
+                                 EntityLockManager entityLockManager,
+                                 PreImageLoader preImageLoader,
+                                 @Value("${app.scheduler.fire-concurrency:16}") int batchConcurrency) {
         this.serviceExecutorPolicy = serviceExecutorPolicy;
         this.serviceRepository = serviceRepository;
-        this.executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE,
-            r -> {
-                Thread t = new Thread(r, "ServiceActionExecutor-" + System.currentTimeMillis());
-                t.setDaemon(true);
-                return t;
-            });
+        this.entityLockManager = entityLockManager;
+        this.preImageLoader = preImageLoader;
+        this.batchConcurrency = batchConcurrency;
     }
 
+    /**
+     * Runs the action under the lock of its entity, so it waits only for a strategy or another
+     * action touching the same service.
+     */
     public Mono<?> executeAction(Action action) {
-        if (paused.get()) {
-            waitingActions.add(action);
-            logger.warn("ServiceActionExecutor is paused. Action of Type={} with entityId={} has been queued.",
-                    action.getActionType(),
-                    action.getEntityId());
-            return Mono.empty();
+        return entityLockManager.withLock(action.getEntityId(), () -> {
+            logger.info("{} for entityId: {}",
+                    action.getActionType(), action.getEntityId());
+
+            return this.serviceExecutorPolicy.isExecutionAllowed(action)
+                    .flatMap(isAllowed -> {
+                        if (!isAllowed) {
+                            return Mono.error(new ExecutorPolicyViolationException(
+                                    action,
+                                    String.format("Execution of service action %s is not allowed by policy",
+                                            action.getClass().getSimpleName())
+                            ));
+                        }
+
+                        return executeServiceAction(action);
+                    });
+        });
+    }
+
+    /**
+     * Executes actions falling due together, e.g. the scheduled events of one tick. The actions of one entity form
+     * a chain run under the lock of that entity alone, so a contended entity only holds back its own chain: when
+     * its lock times out, the chain's actions are reported with an {@link EntityLockedException} and not run.
+     * Services are partitioned by id, so each write is a single-partition statement: the chains run side by
+     * side, each action checked against the pre-image of its entity, then applied to it before the next check.
+     *
+     * @return one outcome per action, emitted as the chain of its entity completes
+     */
+    public Flux<ActionOutcome> executeBatch(List<? extends Action> actions) {
+        if (actions.isEmpty()) {
+            return Flux.empty();
         }
 
-        logger.info("{} for entityId: {}",
-                action.getActionType(), action.getEntityId());
+        Map<UUID, List<Action>> chains = new LinkedHashMap<>();
+        for (Action action : actions) {
+            chains.computeIfAbsent(action.getEntityId(), id -> new ArrayList<>()).add(action);
+        }
 
-        return this.serviceExecutorPolicy.isExecutionAllowed(action)
+        return Flux.fromIterable(chains.entrySet())
+                .flatMap(chain -> entityLockManager.withLock(chain.getKey(), () -> preImageLoader.load(chain.getValue())
+                                .flatMap(snapshot -> Flux.fromIterable(chain.getValue())
+                                        .concatMap(action -> this.executeChecked(action, snapshot))
+                                        .collectList()
+                                        .doFinally(signal -> snapshot.discard())))
+                        .onErrorResume(error -> Mono.just(chain.getValue().stream()
+                                .map(action -> ActionOutcome.failure(action, error))
+                                .toList()))
+                        .flatMapIterable(outcomes -> outcomes), batchConcurrency);
+    }
+
+    private Mono<ActionOutcome> executeChecked(Action action, PreImageSnapshot snapshot) {
+        return this.serviceExecutorPolicy.isExecutionAllowed(action, snapshot)
                 .flatMap(isAllowed -> {
                     if (!isAllowed) {
-                        return Mono.error(new ExecutorPolicyViolationException(
-                                action,
-                                String.format("Execution of service action %s is not allowed by policy",
-                                        action.getClass().getSimpleName())
-                        ));
+                        return Mono.error(new ExecutorPolicyViolationException(action,
+                                "Execution of the specified service action is not allowed by policy"));
                     }
-                    
-                    return executeServiceAction(action);
-                });
+                    return this.executeServiceAction(action).then();
+                })
+                .doOnSuccess(result -> snapshot.apply(action))
+                .thenReturn(ActionOutcome.success(action))
+                .onErrorResume(error -> Mono.just(ActionOutcome.failure(action, error)));
     }
 
+    /**
+     * Executes without policy check nor locking: the caller (a strategy context) already holds the entity lock.
+     */
     public Mono<?> forceActionExecution(Action action) {
         logger.warn("Action execution of {} for entityId: {} without Policy verification",
                 action.getActionType(), action.getEntityId());
@@ -79,62 +134,4 @@ public class ServiceActionExecutor implements Executor {
                 serviceAction.getActionType(), serviceAction.getEntityId());
         return result;
     }
-
-    @Override
-    public void pause() {
-        paused.set(true);
-        logger.warn("ServiceActionExecutor is now PAUSED. New events will wait until resume() is called.");
-    }
-
-    @Override
-    public void resume() {
-        if (!paused.get()) {
-            logger.info("ServiceActionExecutor is already running.");
-            return;
-        }
-
-        logger.info("ServiceActionExecutor is processing queued actions before resuming...");
-        
-        // Process all waiting actions in parallel
-        CompletableFuture<Void>[] futures = new CompletableFuture[waitingActions.size()];
-        int index = 0;
-        
-        while (!this.waitingActions.isEmpty()) {
-            Action action = this.waitingActions.poll();
-            futures[index++] = CompletableFuture.runAsync(() -> {
-                try {
-                    executeServiceAction(action);
-                } catch (Exception e) {
-                    logger.error("Error executing queued action: {}", e.getMessage(), e);
-                }
-            }, executorService);
-        }
-        
-        // Wait for all actions to complete
-        try {
-            CompletableFuture.allOf(futures).get(30, TimeUnit.SECONDS);
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
-            logger.error("Error waiting for queued actions to complete: {}", e.getMessage(), e);
-        }
-        
-        paused.set(false);
-        logger.info("All waiting actions have been processed. ServiceActionExecutor is now RESUMED.");
-    }
-    
-    /**
-     * Shutdown the executor service gracefully
-     */
-    public void shutdown() {
-        logger.info("Shutting down ServiceActionExecutor...");
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
-        logger.info("ServiceActionExecutor shutdown completed.");
-    }
-}
\ No newline at end of file
+}
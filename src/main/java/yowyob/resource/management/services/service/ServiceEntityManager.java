@@ -1,35 +1,51 @@
 package yowyob.resource.management.services.service;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.ApplicationEventPublisher;
 import reactor.core.publisher.Mono;
 import yowyob.resource.management.events.service.ServiceEvent;
+import yowyob.resource.management.events.recurrence.RecurrenceRule;
+import yowyob.resource.management.events.recurrence.RecurringEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import yowyob.resource.management.actions.service.ServiceAction;
+import yowyob.resource.management.services.bus.EventBus;
 import yowyob.resource.management.services.product.ProductEntityManager;
 
 
 @org.springframework.stereotype.Service
 public class ServiceEntityManager {
-    private final ApplicationEventPublisher eventPublisher;
+    private final EventBus eventBus;
     private final ServiceActionExecutor serviceActionExecutor;
+    private final ServiceUpdater serviceUpdater;
     private static final Logger logger = LoggerFactory.getLogger(ProductEntityManager.class);
 
     @Autowired
-    public ServiceEntityManager(ApplicationEventPublisher eventPublisher, ServiceActionExecutor serviceActionExecutor) {
-        this.eventPublisher = eventPublisher;
+    public ServiceEntityManager(EventBus eventBus, ServiceActionExecutor serviceActionExecutor,
+                                ServiceUpdater serviceUpdater) {
+        this.eventBus = eventBus;
         this.serviceActionExecutor = serviceActionExecutor;
+        this.serviceUpdater = serviceUpdater;
     }
 
     public Mono<Void> triggerServiceEvent(ServiceAction action, LocalDateTime eventStartDateTime) {
         logger.info("Triggering Services Event for entityId: {} with action: {} at: {}",
                 action.getEntityId(), action.getActionType(), eventStartDateTime);
 
-        eventPublisher.publishEvent(new ServiceEvent(this, action, eventStartDateTime));
-        return Mono.empty();
+        return Mono.defer(() -> eventBus.publish(new ServiceEvent(this, action, eventStartDateTime)));
+    }
+
+    public Mono<Void> triggerRecurringServiceEvent(ServiceAction action, RecurrenceRule rule) {
+        logger.info("Triggering recurring Services Event for entityId: {} with action: {} from: {} rule: {}",
+                action.getEntityId(), action.getActionType(), rule.getStart(), rule);
+
+        return Mono.defer(() -> eventBus.publish(new RecurringEvent(this, action, rule)));
+    }
+
+    public Mono<Void> cancelRecurringServiceEvent(UUID recurrenceId) {
+        return Mono.defer(() -> serviceUpdater.unscheduleRecurrence(recurrenceId));
     }
 
     public Mono<?> executeAction(ServiceAction serviceAction) {
@@ -0,0 +1,118 @@
+package yowyob.resource.management.services.strategy;
+
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.commons.Command;
+import yowyob.resource.management.events.Event;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Splits a batch of strategies into lanes that can be processed concurrently.
+ * Two strategies sharing at least one entity end up in the same lane, in their original order,
+ * so the per-entity ordering of the batch is preserved.
+ */
+@Service
+public class StrategyBatchPlanner {
+    private final StrategyConverter strategyConverter;
+    private static final Logger logger = LoggerFactory.getLogger(StrategyBatchPlanner.class);
+
+    @Autowired
+    public StrategyBatchPlanner(StrategyConverter strategyConverter) {
+        this.strategyConverter = strategyConverter;
+    }
+
+    public List<List<PlannedStrategy>> planLanes(List<byte[]> strategies) {
+        List<PlannedStrategy> planned = new ArrayList<>(strategies.size());
+        for (byte[] strategy : strategies) {
+            planned.add(this.parse(strategy));
+        }
+
+        int[] parents = new int[planned.size()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+
+        Map<UUID, Integer> entityOwners = new HashMap<>();
+        for (int i = 0; i < planned.size(); i++) {
+            for (UUID entityId : planned.get(i).getEntityIds()) {
+                Integer owner = entityOwners.putIfAbsent(entityId, i);
+                if (owner != null) {
+                    union(parents, owner, i);
+                }
+            }
+        }
+
+        Map<Integer, List<PlannedStrategy>> lanes = new LinkedHashMap<>();
+        for (int i = 0; i < planned.size(); i++) {
+            lanes.computeIfAbsent(find(parents, i), root -> new ArrayList<>()).add(planned.get(i));
+        }
+
+        logger.info("Planned {} strategies into {} independent lanes", planned.size(), lanes.size());
+        return new ArrayList<>(lanes.values());
+    }
+
+    private PlannedStrategy parse(byte[] strategy) {
+        try {
+            List<Command> commands = this.strategyConverter.convertToCommandList(strategy);
+            Set<UUID> entityIds = new LinkedHashSet<>();
+            for (Command command : commands) {
+                if (command instanceof Action action) {
+                    entityIds.add(action.getEntityId());
+                } else if (command instanceof Event event) {
+                    entityIds.add(event.getEntityId());
+                }
+            }
+            return new PlannedStrategy(strategy, commands, entityIds);
+        } catch (Exception e) {
+            // Unparseable strategies get a lane of their own, the error is reported when the lane runs
+            logger.warn("Could not pre-parse strategy for lane planning: {}", e.getMessage());
+            return new PlannedStrategy(strategy, null, Set.of());
+        }
+    }
+
+    private static int find(int[] parents, int index) {
+        while (parents[index] != index) {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+
+    private static void union(int[] parents, int first, int second) {
+        int firstRoot = find(parents, first);
+        int secondRoot = find(parents, second);
+        if (firstRoot != secondRoot) {
+            // Keep the smallest index as root so lanes come out in batch order
+            parents[Math.max(firstRoot, secondRoot)] = Math.min(firstRoot, secondRoot);
+        }
+    }
+
+    @Getter
+    public static class PlannedStrategy {
+        private final byte[] rawStrategy;
+        private final List<Command> commands;
+        private final Set<UUID> entityIds;
+
+        public PlannedStrategy(byte[] rawStrategy, List<Command> commands, Set<UUID> entityIds) {
+            this.rawStrategy = rawStrategy;
+            this.commands = commands;
+            this.entityIds = entityIds;
+        }
+
+        public boolean isParsed() {
+            return this.commands != null;
+        }
+    }
+}
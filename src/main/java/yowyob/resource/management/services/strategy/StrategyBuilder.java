@@ -119,6 +119,7 @@ public class StrategyBuilder {
         else {
             throw new StrategyConversionException("Unknown event type");
         }
+        eventNode.put("eventId", event.getEventId().toString());
         return eventNode;
     }
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package yowyob.resource.management.services.strategy;
 
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import yowyob.resource.management.commons.Command;
 import yowyob.resource.management.events.Event;
 import yowyob.resource.management.actions.Action;
@@ -21,9 +23,14 @@ import yowyob.resource.management.exceptions.StrategyConversionException;
 import yowyob.resource.management.exceptions.invalid.InvalidJsonFormatException;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.util.*;
 
+/**
+ * Converts strategy payloads into commands with a streaming parser: the payload is never materialized
+ * as an intermediate String or JsonNode tree, each strategy entry is bound as soon as it is read.
+ */
 @org.springframework.stereotype.Service
 public class StrategyConverter {
     private final ObjectMapper objectMapper;
@@ -32,69 +39,110 @@ public class StrategyConverter {
         this.objectMapper = new ObjectMapper();
     }
 
-    private Command convertJsonNodeToCommand(JsonNode node) {
-
-        try{
-            if (!node.has("entityId") || !node.has("actionType")) {
-                throw new InvalidJsonFormatException("Missing 'entityId' or 'actionType' fields in the input JSON.");
+    private Command readCommand(JsonParser parser, boolean restore) throws IOException {
+        UUID eventId = null;
+        UUID entityId = null;
+        ActionType actionType = null;
+        ActionClass actionClass = null;
+        LocalDateTime eventStartDateTime = null;
+        String query = null;
+        Object params = null;
+        TokenBuffer bufferedParams = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            switch (fieldName) {
+                case "entityId" -> entityId = UUID.fromString(parser.getValueAsString());
+                case "eventId" -> eventId = UUID.fromString(parser.getValueAsString());
+                case "actionType" -> {
+                    String value = parser.getValueAsString();
+                    try {
+                        actionType = ActionType.valueOf(value);
+                    } catch (IllegalArgumentException | NullPointerException e) {
+                        throw new StrategyConversionException("Invalid ActionType specified : " + value, e);
+                    }
+                }
+                case "actionClass" -> actionClass = ActionClass.valueOf(parser.getValueAsString());
+                case "eventStartDateTime" -> eventStartDateTime = LocalDateTime.parse(parser.getValueAsString());
+                case "query" -> query = parser.getValueAsString();
+                case "params" -> {
+                    if (actionClass != null) {
+                        params = readParams(parser, actionClass);
+                    } else {
+                        // actionClass not seen yet: keep the raw tokens until the end of the entry
+                        bufferedParams = new TokenBuffer(parser);
+                        bufferedParams.copyCurrentStructure(parser);
+                    }
+                }
+                default -> parser.skipChildren();
             }
+        }
 
-            UUID entityId = UUID.fromString(node.get("entityId").asText());
-
-            ActionType actionType;
-            try {
-                actionType = ActionType.valueOf(node.get("actionType").asText());
-            } catch (IllegalArgumentException e) {
-                throw new StrategyConversionException("Invalid ActionType specified : " + node.get("actionType").asText(), e);
-            }
+        if (entityId == null || actionType == null) {
+            throw new InvalidJsonFormatException("Missing 'entityId' or 'actionType' fields in the input JSON.");
+        }
 
-            ActionClass actionClass = node.has("actionClass")
-                    ? ActionClass.valueOf(node.get("actionClass").asText())
-                    : ActionClass.Resource;
+        if (actionClass == null) {
+            actionClass = ActionClass.Resource;
+        }
 
-            LocalDateTime eventStartDateTime = node.has("eventStartDateTime")
-                    ? LocalDateTime.parse(node.get("eventStartDateTime").asText())
-                    : null;
+        if (bufferedParams != null) {
+            try (JsonParser bufferedParser = bufferedParams.asParser()) {
+                bufferedParser.nextToken();
+                params = readParams(bufferedParser, actionClass);
+            }
+        }
 
-            JsonNode paramsNode = node.has("params") ? node.get("params") : null;
-            String query = node.has("query") ? node.get("query").asText() : null;
+        if (restore && (eventId == null || eventStartDateTime == null)) {
+            throw new InvalidJsonFormatException("Missing 'eventId' or 'eventStartDateTime' fields in a stored event.");
+        }
 
-            if (eventStartDateTime != null) {
-                if (actionClass == ActionClass.Resource) {
-                    return new ResourceEvent(this, buildResourceAction(entityId, actionType, paramsNode, query), eventStartDateTime);
-                } else {
-                    return new ServiceEvent(this, buildServiceAction(entityId, actionType, paramsNode, query), eventStartDateTime);
-                }
-            } else {
-                if (actionClass == ActionClass.Resource) {
-                    return buildResourceAction(entityId, actionType, paramsNode, query);
-                }else {
-                    return buildServiceAction(entityId, actionType, paramsNode, query);
-                }
+        if (actionClass == ActionClass.Resource) {
+            ResourceAction action = buildResourceAction(entityId, actionType, (Resource) params, query);
+            if (restore) {
+                return new ResourceEvent(this, eventId, action, eventStartDateTime);
+            }
+            return eventStartDateTime != null ? new ResourceEvent(this, action, eventStartDateTime) : action;
+        } else {
+            ServiceAction action = buildServiceAction(entityId, actionType, (Services) params, query);
+            if (restore) {
+                return new ServiceEvent(this, eventId, action, eventStartDateTime);
             }
+            return eventStartDateTime != null ? new ServiceEvent(this, action, eventStartDateTime) : action;
+        }
+    }
 
-        }catch (IllegalArgumentException e) {
-            throw new StrategyConversionException("Error converting action: " + e.getMessage(), e);
-        } catch (Exception e) {
-            throw new StrategyConversionException("Unknown error during JSON → Action conversion.", e);
+    private Object readParams(JsonParser parser, ActionClass actionClass) {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
         }
 
+        try {
+            return actionClass == ActionClass.Resource
+                    ? objectMapper.readValue(parser, Resource.class)
+                    : objectMapper.readValue(parser, Services.class);
+        } catch (IOException e) {
+            throw new InvalidJsonFormatException(String.format("Error converting JSON → %s: %s",
+                    actionClass == ActionClass.Resource ? "Resource" : "Services", e.getMessage()), e);
+        }
     }
 
-    public ServiceAction buildServiceAction(UUID entityId, ActionType actionType, JsonNode paramsNode, String query) {
+    public ServiceAction buildServiceAction(UUID entityId, ActionType actionType, Services params, String query) {
         return switch (actionType) {
             case CREATE -> {
-                if (paramsNode == null) {
+                if (params == null) {
                     throw new MissingParameterException("Parameters are required for the CREATE action.");
                 }
-                yield new ServiceCreationAction(parseServiceFromParams(paramsNode));
+                yield new ServiceCreationAction(params);
             }
             case READ -> new ServiceReadingAction(entityId);
             case UPDATE -> {
-                if (paramsNode == null) {
+                if (params == null) {
                     throw new MissingParameterException("Parameters are required for the UPDATE action.");
                 }
-                yield new ServiceUpdateAction(parseServiceFromParams(paramsNode));
+                yield new ServiceUpdateAction(params);
             }
             case DELETE -> new ServiceDeletionAction(entityId);
             case CUSTOM -> {
@@ -106,20 +154,20 @@ public class StrategyConverter {
         };
     }
 
-    public ResourceAction buildResourceAction(UUID entityId, ActionType actionType, JsonNode paramsNode, String query) {
+    public ResourceAction buildResourceAction(UUID entityId, ActionType actionType, Resource params, String query) {
         return switch (actionType) {
             case CREATE -> {
-                if (paramsNode == null) {
+                if (params == null) {
                     throw new MissingParameterException("Parameters are required for the CREATE action.");
                 }
-                yield new ResourceCreationAction(parseResourceFromParams(paramsNode));
+                yield new ResourceCreationAction(params);
             }
             case READ -> new ResourceReadingAction(entityId);
             case UPDATE -> {
-                if (paramsNode == null) {
+                if (params == null) {
                     throw new MissingParameterException("Parameters are required for the UPDATE action.");
                 }
-                yield new ResourceUpdateAction(parseResourceFromParams(paramsNode));
+                yield new ResourceUpdateAction(params);
             }
             case DELETE -> new ResourceDeletionAction(entityId);
             case CUSTOM -> {
@@ -131,51 +179,88 @@ public class StrategyConverter {
         };
     }
 
-    private Resource parseResourceFromParams(JsonNode paramsNode) {
-        try {
-            return objectMapper.treeToValue(paramsNode, Resource.class);
-        } catch (IOException e) {
-            throw new InvalidJsonFormatException("Error converting JSON → Resource: " + e.getMessage(), e);
+    private List<Command> readStrategies(JsonParser parser, boolean restore) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new InvalidJsonFormatException("Strategy payload must be a JSON object.");
         }
-    }
 
-    private Services parseServiceFromParams(JsonNode paramsNode) {
-        try {
-            return objectMapper.treeToValue(paramsNode, Services.class);
-        } catch (IOException e) {
-            throw new InvalidJsonFormatException("Error converting JSON → Services: " + e.getMessage(), e);
+        List<Command> convertedList = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken token = parser.nextToken();
+
+            if (!"strategies".equals(fieldName) || token != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+
+            convertedList = new ArrayList<>();
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new InvalidJsonFormatException("Each entry of the 'strategies' array must be a JSON object.");
+                }
+
+                try {
+                    convertedList.add(readCommand(parser, restore));
+                } catch (Exception e) {
+                    throw new StrategyConversionException("Error during JSON → Strategy conversion.", e);
+                }
+            }
+        }
+
+        if (convertedList == null) {
+            throw new InvalidJsonFormatException("Missing or invalid 'strategies' array in JSON.");
         }
+
+        return convertedList;
     }
 
-    public Map<String, ArrayList<Command>> convertFromJson(String jsonString) throws StrategyConversionException, InvalidJsonFormatException {
-        ArrayList<Command> strategyEvents = new ArrayList<>();
-        ArrayList<Command> strategyActions = new ArrayList<>();
+    public List<Command> convertToCommandList(byte[] payload) throws StrategyConversionException, InvalidJsonFormatException {
+        return convertToCommandList(payload, 0, payload.length);
+    }
 
-        JsonNode rootNode;
-        try {
-            rootNode = objectMapper.readTree(jsonString);
+    public List<Command> convertToCommandList(ByteBuffer payload) throws StrategyConversionException, InvalidJsonFormatException {
+        if (payload.hasArray()) {
+            return convertToCommandList(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+        }
+
+        // Direct buffers have no backing array, a single copy is unavoidable
+        byte[] copy = new byte[payload.remaining()];
+        payload.duplicate().get(copy);
+        return convertToCommandList(copy, 0, copy.length);
+    }
+
+    public List<Command> convertToCommandList(byte[] payload, int offset, int length) throws StrategyConversionException, InvalidJsonFormatException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload, offset, length)) {
+            return readStrategies(parser, false);
         } catch (IOException ioe) {
             throw new InvalidJsonFormatException(ioe.getMessage());
         }
+    }
 
-        if (!rootNode.has("strategies") || !rootNode.get("strategies").isArray()) {
-            throw new InvalidJsonFormatException("Missing or invalid 'strategies' array in JSON.");
+    /**
+     * Reads back events serialized by {@link StrategyBuilder#buildFromEvents(List)}, e.g. from the undo journal
+     * or the scheduled-event store. The events keep their id and their start is not required to be in the future.
+     */
+    public List<Event> restoreEvents(byte[] payload) throws StrategyConversionException, InvalidJsonFormatException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            return readStrategies(parser, true).stream().map(Event.class::cast).toList();
+        } catch (IOException ioe) {
+            throw new InvalidJsonFormatException(ioe.getMessage());
         }
+    }
 
-        JsonNode strategiesNode = rootNode.get("strategies");
-        for (JsonNode strategyNode : strategiesNode) {
-            try {
-                Object result = convertJsonNodeToCommand(strategyNode);
+    public Map<String, ArrayList<Command>> convertFromJson(String jsonString) throws StrategyConversionException, InvalidJsonFormatException {
+        ArrayList<Command> strategyEvents = new ArrayList<>();
+        ArrayList<Command> strategyActions = new ArrayList<>();
 
-                if (result instanceof Event event) {
-                    strategyEvents.add(event);
-                } else if (result instanceof Action action) {
-                    strategyActions.add(action);
-                } else {
-                    throw new StrategyConversionException("Unknown type during JSON → Strategy conversion.");
-                }
-            } catch (Exception e){
-                throw new StrategyConversionException("Error during JSON → Strategy conversion.", e);
+        for (Command command : convertToCommandListFromJson(jsonString)) {
+            if (command instanceof Event event) {
+                strategyEvents.add(event);
+            } else if (command instanceof Action action) {
+                strategyActions.add(action);
+            } else {
+                throw new StrategyConversionException("Unknown type during JSON → Strategy conversion.");
             }
         }
 
@@ -187,36 +272,10 @@ public class StrategyConverter {
     }
 
     public List<Command> convertToCommandListFromJson(String jsonString) throws StrategyConversionException, InvalidJsonFormatException {
-        List<Command> convertedList = new ArrayList<>();
-
-        JsonNode rootNode;
-        try {
-            rootNode = objectMapper.readTree(jsonString);
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonString)) {
+            return readStrategies(parser, false);
         } catch (IOException ioe) {
             throw new InvalidJsonFormatException(ioe.getMessage());
         }
-
-        if (!rootNode.has("strategies") || !rootNode.get("strategies").isArray()) {
-            throw new InvalidJsonFormatException("Missing or invalid 'strategies' array in JSON.");
-        }
-
-        JsonNode strategiesNode = rootNode.get("strategies");
-        for (JsonNode strategyNode : strategiesNode) {
-            try {
-                Object result = convertJsonNodeToCommand(strategyNode);
-
-                if (result instanceof Event event) {
-                    convertedList.add(event);
-                } else if (result instanceof Action action) {
-                    convertedList.add(action);
-                } else {
-                    throw new StrategyConversionException("Unknown type during JSON → Strategy conversion.");
-                }
-            } catch (Exception e){
-                throw new StrategyConversionException("Error during JSON → Strategy conversion.", e);
-            }
-        }
-
-        return convertedList;
     }
 }
@@ -0,0 +1,85 @@
+package yowyob.resource.management.services.strategy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.commons.Command;
+import yowyob.resource.management.services.context.snapshot.PreImageLoader;
+import yowyob.resource.management.services.policy.BatchPolicyEvaluator;
+import yowyob.resource.management.services.policy.PolicyVerdict;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Tells whether a strategy would be accepted, without running it. The commands go through the policies against
+ * an overlay of the current entity states and timelines: nothing is written, scheduled or locked, so a dry run
+ * never waits behind a running strategy and never holds one back. The verdicts reflect the state at the time of
+ * the dry run; a strategy running meanwhile on the same entities may change the answer.
+ */
+@Service
+public class StrategyDryRunner {
+    private final StrategyConverter strategyConverter;
+    private final PreImageLoader preImageLoader;
+    private final BatchPolicyEvaluator batchPolicyEvaluator;
+    private static final Logger logger = LoggerFactory.getLogger(StrategyDryRunner.class);
+
+    @Autowired
+    public StrategyDryRunner(StrategyConverter strategyConverter, PreImageLoader preImageLoader,
+                             BatchPolicyEvaluator batchPolicyEvaluator) {
+        this.strategyConverter = strategyConverter;
+        this.preImageLoader = preImageLoader;
+        this.batchPolicyEvaluator = batchPolicyEvaluator;
+    }
+
+    public Mono<StrategyResult> dryRun(byte[] strategy) {
+        return Mono.fromCallable(() -> strategyConverter.convertToCommandList(strategy))
+                .flatMap(this::dryRun)
+                .onErrorResume(error -> {
+                    logger.error("Error parsing strategy to dry-run - Error: {}", error.getMessage());
+                    return Mono.just(StrategyResult.simulated(UUID.randomUUID(), List.of(), error));
+                });
+    }
+
+    /**
+     * @return a result holding one message per command, with its verdict and the time the policies took on it
+     */
+    public Mono<StrategyResult> dryRun(List<Command> commands) {
+        return Mono.defer(() -> {
+            UUID strategyId = UUID.randomUUID();
+            long start = System.nanoTime();
+            return preImageLoader.load(commands)
+                    .flatMap(snapshot -> batchPolicyEvaluator.evaluate(commands, snapshot))
+                    .map(verdicts -> {
+                        List<String> messages = new ArrayList<>(verdicts.size());
+                        RuntimeException firstViolation = null;
+                        for (PolicyVerdict verdict : verdicts) {
+                            messages.add(describe(verdict));
+                            if (!verdict.allowed() && firstViolation == null) {
+                                firstViolation = verdict.violation();
+                            }
+                        }
+                        logger.info("Dry run {} of {} commands done in {} ms - {}", strategyId, commands.size(),
+                                (System.nanoTime() - start) / 1_000_000, firstViolation == null ? "ACCEPTED" : "REJECTED");
+                        return StrategyResult.simulated(strategyId, messages, firstViolation);
+                    })
+                    .onErrorResume(error -> {
+                        logger.error("Dry run {} could not be completed - Error: {}", strategyId, error.getMessage());
+                        return Mono.just(StrategyResult.simulated(strategyId, List.of(), error));
+                    });
+        });
+    }
+
+    private static String describe(PolicyVerdict verdict) {
+        double elapsedMs = verdict.elapsed().toNanos() / 1_000_000.0;
+        return verdict.allowed()
+                ? String.format(Locale.ROOT, "%s -> verdict : ALLOWED in %.3f ms",
+                        StrategyEntityManager.describe(verdict.command()), elapsedMs)
+                : String.format(Locale.ROOT, "%s -> verdict : DENIED in %.3f ms - %s",
+                        StrategyEntityManager.describe(verdict.command()), elapsedMs, verdict.violation().getMessage());
+    }
+}
@@ -1,224 +1,241 @@
 package yowyob.resource.management.services.strategy;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 
 import org.springframework.stereotype.Service;
 import yowyob.resource.management.events.Event;
 import yowyob.resource.management.actions.Action;
 import yowyob.resource.management.commons.Command;
 import yowyob.resource.management.services.context.ContextManager;
+import yowyob.resource.management.services.context.StrategyContext;
 import yowyob.resource.management.services.service.ServiceUpdater;
 import yowyob.resource.management.services.resource.ResourceUpdater;
 import yowyob.resource.management.services.service.ServiceActionExecutor;
 import yowyob.resource.management.services.resource.ResourceActionExecutor;
+import yowyob.resource.management.exceptions.ShardNotHeldException;
 import yowyob.resource.management.exceptions.invalid.InvalidCommandException;
-import yowyob.resource.management.services.kafka.KafkaStrategyResponseProducer;
 import yowyob.resource.management.exceptions.invalid.InvalidEventClassException;
-import yowyob.resource.management.services.policy.updaters.ServiceUpdaterPolicy;
-import yowyob.resource.management.services.policy.updaters.ResourceUpdaterPolicy;
+import yowyob.resource.management.services.policy.PolicyVerdict;
+import yowyob.resource.management.services.policy.BatchPolicyEvaluator;
+import yowyob.resource.management.services.scheduling.SchedulerShards;
 import yowyob.resource.management.exceptions.invalid.InvalidActionClassException;
-import yowyob.resource.management.services.policy.executors.ServiceExecutorPolicy;
-import yowyob.resource.management.services.policy.executors.ResourceExecutorPolicy;
-import yowyob.resource.management.exceptions.policy.UpdaterPolicyViolationException;
-import yowyob.resource.management.exceptions.policy.ExecutorPolicyViolationException;
 
-import java.util.Comparator;
-import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
+/**
+ * Runs strategies as a single reactive pipeline: commands touching the same entity are chained with
+ * concatMap to keep their order, commands on different entities run through a bounded flatMap.
+ * No thread is blocked while a strategy is in flight; a failure triggers the rollback inside onErrorResume.
+ * Each strategy runs in its own {@link StrategyContext}, so several strategies on disjoint entities run at once.
+ * The policies judge the whole strategy up front through the {@link BatchPolicyEvaluator}: a strategy with a
+ * denied command fails before any of its commands is executed, with the outcome of every denied command.
+ * So does a strategy scheduling an event on a scheduler shard held by another node, which alone can check it.
+ */
 @Service
 public class StrategyEntityManager {
     private final ServiceUpdater serviceUpdater;
     private final ContextManager contextManager;
     private final ResourceUpdater resourceUpdater;
     private final StrategyConverter strategyConverter;
-    private final ServiceUpdaterPolicy serviceUpdaterPolicy;
+    private final BatchPolicyEvaluator batchPolicyEvaluator;
+    private final SchedulerShards schedulerShards;
     private final ServiceActionExecutor serviceActionExecutor;
-    private final ServiceExecutorPolicy serviceExecutorPolicy;
-    private final ResourceUpdaterPolicy resourceUpdaterPolicy;
     private final ResourceActionExecutor resourceActionExecutor;
-    private final ResourceExecutorPolicy resourceExecutorPolicy;
-    private final KafkaStrategyResponseProducer kafkaStrategyResponseProducer;
+    private final int maxConcurrency;
     private static final Logger logger = LoggerFactory.getLogger(StrategyEntityManager.class);
 
     @Autowired
     public StrategyEntityManager(StrategyConverter strategyConverter, ContextManager contextManager,
                                  ServiceUpdater serviceUpdater, ResourceUpdater resourceUpdater,
                                  ServiceActionExecutor serviceActionExecutor, ResourceActionExecutor resourceActionExecutor,
-                                 ServiceExecutorPolicy serviceExecutorPolicy, ResourceExecutorPolicy resourceExecutorPolicy,
-                                 ServiceUpdaterPolicy serviceUpdaterPolicy, ResourceUpdaterPolicy resourceUpdaterPolicy,
-                                 KafkaStrategyResponseProducer kafkaStrategyResponseProducer) {
+                                 BatchPolicyEvaluator batchPolicyEvaluator, SchedulerShards schedulerShards,
+                                 @Value("${app.strategy.max-concurrency:8}") int maxConcurrency) {
         this.strategyConverter = strategyConverter;
         this.contextManager = contextManager;
         this.serviceUpdater = serviceUpdater;
         this.resourceUpdater = resourceUpdater;
         this.serviceActionExecutor = serviceActionExecutor;
         this.resourceActionExecutor = resourceActionExecutor;
-        this.serviceExecutorPolicy = serviceExecutorPolicy;
-        this.resourceExecutorPolicy = resourceExecutorPolicy;
-        this.serviceUpdaterPolicy = serviceUpdaterPolicy;
-        this.resourceUpdaterPolicy = resourceUpdaterPolicy;
-        this.kafkaStrategyResponseProducer = kafkaStrategyResponseProducer;
+        this.batchPolicyEvaluator = batchPolicyEvaluator;
+        this.schedulerShards = schedulerShards;
+        this.maxConcurrency = maxConcurrency;
     }
-    
-    public void processStrategy(String strategy) {
-        contextManager.init();
-        try {
-            StrategyConverter converter = new StrategyConverter();
-            List<Command> commands = converter.convertToCommandListFromJson(strategy);
-            logger.debug("Successfully parsed {} commands from Kafka record", commands.size());
-            processCommands(commands);
-        } catch (Exception e) {
-            logger.error("Error processing Received Strategy - Error: {}", e.getMessage());
-            handleError(e);
-        }
+
+    public Mono<StrategyResult> processStrategy(byte[] strategy) {
+        return Mono.fromCallable(() -> strategyConverter.convertToCommandList(strategy))
+                .doOnNext(commands -> logger.debug("Successfully parsed {} commands from strategy", commands.size()))
+                .flatMap(this::processStrategy)
+                .onErrorResume(error -> {
+                    logger.error("Error parsing Received Strategy - Error: {}", error.getMessage());
+                    return Mono.just(StrategyResult.failed(UUID.randomUUID(), List.of(), error));
+                });
     }
 
-    private void processCommands(List<Command> commands) {
-        logger.debug("Starting to process {} commands, initializing contextManager", commands.size());
-        contextManager.init();
-
-        for (Command command : commands) {
-            if (command instanceof Action action) {
-                processAction(action);
-            } else if (command instanceof Event event) {
-                processEvent(event);
-            } else {
-                logger.error("Unknown command type received: {}", command.getClass().getSimpleName());
-                throw new InvalidCommandException(
-                        String.format("Unsupported command type: %s. Expected types are Action or Event",
-                                command.getClass().getSimpleName())
-                );
-            }
+    public Mono<StrategyResult> processStrategy(List<Command> commands) {
+        return Mono.defer(() -> {
+            UUID strategyId = UUID.randomUUID();
+            String[] outcomes = new String[commands.size()];
+            Map<UUID, List<Integer>> lanes = groupByEntity(commands);
+            Set<UUID> entityIds = lanes.keySet().stream().filter(Objects::nonNull).collect(Collectors.toSet());
+            logger.debug("Starting to process {} commands of strategy {} on {} entities",
+                    commands.size(), strategyId, entityIds.size());
+
+            Mono<StrategyResult> strategy = Mono.usingWhen(
+                            contextManager.open(strategyId, entityIds, commands),
+                            context -> this.run(context, commands, lanes.values(), outcomes),
+                            contextManager::close)
+                    .onErrorResume(error -> {
+                        logger.error("Strategy {} could not be completed - Error: {}", strategyId, error.getMessage());
+                        return Mono.just(StrategyResult.failed(strategyId, List.of(), error));
+                    });
+            // Detached from the caller: a client that disconnects must not cancel the strategy half way, with its
+            // locks released and neither a commit nor a rollback. It runs to its end and only the reply is dropped.
+            return Mono.fromFuture(strategy::toFuture, true);
+        });
+    }
+
+    private Mono<StrategyResult> run(StrategyContext context, List<Command> commands,
+                                     Collection<List<Integer>> lanes, String[] outcomes) {
+        UUID strategyId = context.getStrategyId();
+        return this.rejectForeignEvents(commands, outcomes)
+                .then(batchPolicyEvaluator.evaluate(commands, context.getSnapshot()))
+                .flatMap(verdicts -> checkVerdicts(verdicts, outcomes))
+                .thenMany(Flux.fromIterable(lanes))
+                .flatMap(lane -> Flux.fromIterable(lane)
+                        .concatMap(index -> processCommand(context, commands.get(index))
+                                .doOnNext(outcome -> outcomes[index] = outcome)), maxConcurrency)
+                .then(contextManager.commit(context))
+                .then(Mono.fromCallable(() -> {
+                    logger.info("Finished processing all commands of strategy {}", strategyId);
+                    return StrategyResult.succeeded(strategyId, collectOutcomes(outcomes));
+                }))
+                .onErrorResume(error -> {
+                    logger.error("Error processing strategy {} - Error: {}", strategyId, error.getMessage());
+                    return contextManager.rollback(context)
+                            .then(Mono.fromCallable(() -> StrategyResult.failed(strategyId, collectOutcomes(outcomes), error)));
+                });
+    }
+
+    private Mono<String> processCommand(StrategyContext context, Command command) {
+        if (command instanceof Action action) {
+            return processAction(context, action);
+        } else if (command instanceof Event event) {
+            return processEvent(context, event);
         }
 
-        logger.info("Finished processing all commands, clearing contextManager");
-        contextManager.clear();
+        logger.error("Unknown command type received: {}", command.getClass().getSimpleName());
+        return Mono.error(new InvalidCommandException(
+                String.format("Unsupported command type: %s. Expected types are Action or Event",
+                        command.getClass().getSimpleName())
+        ));
     }
 
-    private void processAction(Action action) {
+    private Mono<String> processAction(StrategyContext context, Action action) {
         logger.info("Processing action - Type={}, EntityId={}", action.getActionClass(), action.getEntityId());
 
-        switch (action.getActionClass()) {
-            case Resource -> {
-                resourceExecutorPolicy.isExecutionAllowed(action)
-                        .flatMap(isAllowed -> {
-                            if (!isAllowed) {
-                                return Mono.error(new ExecutorPolicyViolationException(action,
-                                        "Execution of resource action is not allowed by policy"));
-                            }
-                            
-                            contextManager.pushAction(action);
-                            return resourceActionExecutor.forceActionExecution(action);
-                        })
-                        .doOnSuccess(result -> {
-                            kafkaStrategyResponseProducer.pushMessage(String.format("Action - Class=%s, Type=%s, EntityId=%s -> status : OK",
-                                    action.getActionClass(), action.getActionType(), action.getEntityId()));
-                        })
-                        .doOnError(error -> {
-                            logger.error("Error processing resource action: {}", error.getMessage());
-                            throw new RuntimeException(error);
-                        })
-                        .block(); // Block here since processCommands is synchronous
-            }
-            case Service -> {
-                serviceExecutorPolicy.isExecutionAllowed(action)
-                        .flatMap(isAllowed -> {
-                            if (!isAllowed) {
-                                return Mono.error(new ExecutorPolicyViolationException(action,
-                                        "Execution of service action is not allowed by policy"));
-                            }
-                            
-                            contextManager.pushAction(action);
-                            return serviceActionExecutor.forceActionExecution(action);
-                        })
-                        .doOnSuccess(result -> {
-                            kafkaStrategyResponseProducer.pushMessage(String.format("Action - Class=%s, Type=%s, EntityId=%s -> status : OK",
-                                    action.getActionClass(), action.getActionType(), action.getEntityId()));
-                        })
-                        .doOnError(error -> {
-                            logger.error("Error processing service action: {}", error.getMessage());
-                            throw new RuntimeException(error);
-                        })
-                        .block(); // Block here since processCommands is synchronous
-            }
-            default -> throw new InvalidActionClassException(action);
-        }
+        return contextManager.pushReverseAction(context, action)
+                .then(switch (action.getActionClass()) {
+                    case Resource -> resourceActionExecutor.forceActionExecution(action).then();
+                    case Service -> serviceActionExecutor.forceActionExecution(action).then();
+                    default -> Mono.<Void>error(new InvalidActionClassException(action));
+                })
+                .doOnSuccess(v -> context.getSnapshot().apply(action))
+                .thenReturn(describe(action) + " -> status : OK")
+                .doOnError(error -> logger.error("Error processing {} action: {}", action.getActionClass(), error.getMessage()));
     }
 
-    private void processEvent(Event event) {
+    private Mono<String> processEvent(StrategyContext context, Event event) {
         logger.info("Processing Event - Type={}, EntityId={}, start={}",
                 event.getEventClass(), event.getEntityId(), event.getEventStartDateTime());
 
-        switch (event.getEventClass()) {
-            case Resource -> {
-                List<Event> events = !resourceUpdater.getScheduledEvents().containsKey(event.getEntityId())
-                        ? new ArrayList<>() : resourceUpdater.getScheduledEvents().get(event.getEntityId());
-
-                resourceUpdaterPolicy.isExecutionAllowed(event, events)
-                        .flatMap(isAllowed -> {
-                            if (!isAllowed) {
-                                return Mono.error(new UpdaterPolicyViolationException(event,
-                                        "Scheduling of resource event is not allowed by policy"));
-                            }
-                            
-                            contextManager.pushEvent(event);
-                            resourceUpdater.forceEventScheduling(event);
-                            return Mono.just("success");
-                        })
-                        .doOnSuccess(result -> {
-                            kafkaStrategyResponseProducer.pushMessage(String.format("Event - Class=%s, ActionType=%s, EntityId=%s -> status : OK",
-                                    event.getEventClass(), event.getAction().getActionType(), event.getEntityId()));
-                        })
-                        .doOnError(error -> {
-                            logger.error("Error processing resource event: {}", error.getMessage());
-                            throw new RuntimeException(error);
-                        })
-                        .block(); // Block here since processCommands is synchronous
+        return Mono.defer(() -> {
+                    contextManager.pushEvent(context, event);
+                    return switch (event.getEventClass()) {
+                        case Resource -> resourceUpdater.forceEventScheduling(event);
+                        case Service -> serviceUpdater.forceEventScheduling(event);
+                        default -> Mono.<Void>error(new InvalidEventClassException(event));
+                    };
+                })
+                .thenReturn(describe(event) + " -> status : OK")
+                .doOnError(error -> logger.error("Error processing {} event: {}", event.getEventClass(), error.getMessage()));
+    }
+
+    /**
+     * Fails on the first event of an entity whose scheduler shard is held by another node: only that node knows the
+     * timeline to check the event against, and handing the event over could not be undone with the strategy.
+     */
+    private Mono<Void> rejectForeignEvents(List<Command> commands, String[] outcomes) {
+        for (int index = 0; index < commands.size(); index++) {
+            if (commands.get(index) instanceof Event event && !schedulerShards.owns(event.getEntityId())) {
+                ShardNotHeldException violation = new ShardNotHeldException(event.getEntityId(),
+                        schedulerShards.shardOf(event.getEntityId()));
+                outcomes[index] = String.format("%s -> status : DENIED - %s", describe(event), violation.getMessage());
+                return Mono.error(violation);
             }
-            case Service -> {
-                List<Event> serviceEvents = serviceUpdater.getScheduledEvents().get(event.getEntityId());
-                
-                serviceUpdaterPolicy.isExecutionAllowed(event, serviceEvents)
-                        .flatMap(isAllowed -> {
-                            if (!isAllowed) {
-                                return Mono.error(new UpdaterPolicyViolationException(event,
-                                        "Scheduling of service event is not allowed by policy"));
-                            }
-                            
-                            contextManager.pushEvent(event);
-                            serviceUpdater.forceEventScheduling(event);
-                            return Mono.just("success");
-                        })
-                        .doOnSuccess(result -> {
-                            kafkaStrategyResponseProducer.pushMessage(String.format("Event - Class=%s, ActionType=%s, EntityId=%s -> status : OK",
-                                    event.getEventClass(), event.getAction().getActionType(), event.getEntityId()));
-                        })
-                        .doOnError(error -> {
-                            logger.error("Error processing service event: {}", error.getMessage());
-                            throw new RuntimeException(error);
-                        })
-                        .block(); // Block here since processCommands is synchronous
+        }
+        return Mono.empty();
+    }
+
+    /**
+     * Records the outcome of every denied command and fails with the first violation, so the strategy is rolled
+     * back before any of its commands ran.
+     */
+    private static Mono<Void> checkVerdicts(List<PolicyVerdict> verdicts, String[] outcomes) {
+        RuntimeException firstViolation = null;
+        for (int index = 0; index < verdicts.size(); index++) {
+            PolicyVerdict verdict = verdicts.get(index);
+            if (!verdict.allowed()) {
+                outcomes[index] = String.format("%s -> status : DENIED - %s",
+                        describe(verdict.command()), verdict.violation().getMessage());
+                if (firstViolation == null) {
+                    firstViolation = verdict.violation();
+                }
             }
-            default -> throw new InvalidEventClassException(event);
         }
+        return firstViolation == null ? Mono.empty() : Mono.error(firstViolation);
+    }
+
+    static String describe(Command command) {
+        if (command instanceof Action action) {
+            return String.format("Action - Class=%s, Type=%s, EntityId=%s",
+                    action.getActionClass(), action.getActionType(), action.getEntityId());
+        } else if (command instanceof Event event) {
+            return String.format("Event - Class=%s, ActionType=%s, EntityId=%s",
+                    event.getEventClass(), event.getAction().getActionType(), event.getEntityId());
+        }
+        return command.getClass().getSimpleName();
+    }
+
+    /**
+     * Groups command indexes by entity, keeping the strategy order inside each group.
+     */
+    private static Map<UUID, List<Integer>> groupByEntity(List<Command> commands) {
+        Map<UUID, List<Integer>> lanes = new LinkedHashMap<>();
+        for (int index = 0; index < commands.size(); index++) {
+            Command command = commands.get(index);
+            UUID entityId = command instanceof Action action ? action.getEntityId()
+                    : command instanceof Event event ? event.getEntityId()
+                    : null;
+            lanes.computeIfAbsent(entityId, id -> new ArrayList<>()).add(index);
+        }
+        return lanes;
     }
 
-    private void handleError(Exception e) {
-        logger.error("Handling error in KafkaStrategyConsumer. message : ");
-        logger.error(e.getMessage());
-        contextManager.rollback();
-        logger.error("Context rolled back");
-        contextManager.clear();
-        logger.info("Context cleared");
-
-        kafkaStrategyResponseProducer.pushMessage(e.getMessage());
-        kafkaStrategyResponseProducer.send();
-        logger.info("Error message sent to Kafka response entity");
+    private static List<String> collectOutcomes(String[] outcomes) {
+        return Arrays.stream(outcomes).filter(Objects::nonNull).toList();
     }
 }
@@ -0,0 +1,47 @@
+package yowyob.resource.management.services.strategy;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of a strategy run, shared by the Kafka response and the REST front-end.
+ */
+@Getter
+public class StrategyResult {
+    private final UUID strategyId;
+    private final boolean success;
+    private final List<String> messages;
+    private final String error;
+    private final boolean dryRun;
+
+    private StrategyResult(UUID strategyId, boolean success, List<String> messages, String error, boolean dryRun) {
+        this.strategyId = strategyId;
+        this.success = success;
+        this.messages = messages;
+        this.error = error;
+        this.dryRun = dryRun;
+    }
+
+    public static StrategyResult succeeded(UUID strategyId, List<String> messages) {
+        return new StrategyResult(strategyId, true, List.copyOf(messages), null, false);
+    }
+
+    public static StrategyResult failed(UUID strategyId, List<String> messages, Throwable error) {
+        return new StrategyResult(strategyId, false, List.copyOf(messages), messageOf(error), false);
+    }
+
+    /**
+     * Result of a strategy judged by the policies without being run.
+     * @param violation the first denied command's violation, null when every command would be accepted
+     */
+    public static StrategyResult simulated(UUID strategyId, List<String> messages, Throwable violation) {
+        return new StrategyResult(strategyId, violation == null, List.copyOf(messages),
+                violation != null ? messageOf(violation) : null, true);
+    }
+
+    private static String messageOf(Throwable error) {
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,97 @@
+package yowyob.products.management.unitsTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import yowyob.resource.management.actions.resource.operations.ResourceCreationAction;
+import yowyob.resource.management.actions.resource.operations.ResourceUpdateAction;
+import yowyob.resource.management.commons.Command;
+import yowyob.resource.management.exceptions.policy.ExecutorPolicyViolationException;
+import yowyob.resource.management.models.resource.Resource;
+import yowyob.resource.management.models.resource.enums.ResourceStatus;
+import yowyob.resource.management.repositories.resource.ResourceRepository;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
+import yowyob.resource.management.services.policy.BatchPolicyEvaluator;
+import yowyob.resource.management.services.policy.PolicyVerdict;
+import yowyob.resource.management.services.policy.executors.ResourceExecutorPolicy;
+import yowyob.resource.management.services.policy.executors.ServiceExecutorPolicy;
+import yowyob.resource.management.services.policy.updaters.ResourceUpdaterPolicy;
+import yowyob.resource.management.services.policy.updaters.ServiceUpdaterPolicy;
+import yowyob.resource.management.services.policy.validators.operations.ResourceStatusBasedOperationValidator;
+import yowyob.resource.management.services.policy.validators.transition.ResourceTransitionValidator;
+import yowyob.resource.management.services.resource.ResourceUpdater;
+import yowyob.resource.management.services.service.ServiceUpdater;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BatchPolicyEvaluatorTest {
+
+    private ResourceRepository resourceRepository;
+    private BatchPolicyEvaluator evaluator;
+
+    @BeforeEach
+    void setUp() {
+        resourceRepository = mock(ResourceRepository.class);
+        ResourceTransitionValidator transitionValidator = mock(ResourceTransitionValidator.class);
+        when(transitionValidator.isTransitionAllowed(any(), any())).thenReturn(true);
+        ResourceExecutorPolicy resourceExecutorPolicy = new ResourceExecutorPolicy(resourceRepository,
+                transitionValidator, mock(ResourceStatusBasedOperationValidator.class));
+
+        evaluator = new BatchPolicyEvaluator(resourceExecutorPolicy, mock(ServiceExecutorPolicy.class),
+                mock(ResourceUpdaterPolicy.class), mock(ServiceUpdaterPolicy.class),
+                mock(ResourceUpdater.class), mock(ServiceUpdater.class));
+    }
+
+    @Test
+    void testLaterCommandsSeeTheEffectOfEarlierOnes() {
+        // Given
+        UUID entityId = new UUID(0L, 1L);
+        PreImageSnapshot snapshot = new PreImageSnapshot(List.of(entityId), List.of());
+        List<Command> commands = List.of(
+                new ResourceCreationAction(resource(entityId, ResourceStatus.FREE)),
+                new ResourceUpdateAction(resource(entityId, ResourceStatus.AFFECTED)));
+
+        // When
+        List<PolicyVerdict> verdicts = evaluator.evaluate(commands, snapshot).block();
+
+        // Then
+        assertNotNull(verdicts);
+        assertEquals(2, verdicts.size());
+        assertTrue(verdicts.stream().allMatch(PolicyVerdict::allowed));
+        verify(resourceRepository, never()).findById(any(UUID.class));
+        assertFalse(snapshot.getResource(entityId).hasElement().block());
+    }
+
+    @Test
+    void testEveryDeniedCommandGetsItsVerdict() {
+        // Given
+        UUID entityId = new UUID(0L, 1L);
+        UUID missingId = new UUID(0L, 2L);
+        PreImageSnapshot snapshot = new PreImageSnapshot(List.of(entityId, missingId), List.of());
+        List<Command> commands = List.of(
+                new ResourceCreationAction(resource(entityId, ResourceStatus.FREE)),
+                new ResourceCreationAction(resource(entityId, ResourceStatus.FREE)),
+                new ResourceUpdateAction(resource(missingId, ResourceStatus.FREE)));
+
+        // When
+        List<PolicyVerdict> verdicts = evaluator.evaluate(commands, snapshot).block();
+
+        // Then
+        assertNotNull(verdicts);
+        assertEquals(List.of(true, false, false), verdicts.stream().map(PolicyVerdict::allowed).toList());
+        assertInstanceOf(ExecutorPolicyViolationException.class, verdicts.get(1).violation());
+        assertInstanceOf(ExecutorPolicyViolationException.class, verdicts.get(2).violation());
+        assertSame(commands.get(2), verdicts.get(2).command());
+    }
+
+    private static Resource resource(UUID id, ResourceStatus status) {
+        Resource resource = new Resource();
+        resource.setId(id);
+        resource.setStatus(status);
+        return resource;
+    }
+}
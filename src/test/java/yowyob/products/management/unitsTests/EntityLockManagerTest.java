@@ -0,0 +1,92 @@
+package yowyob.products.management.unitsTests;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import yowyob.resource.management.exceptions.EntityLockedException;
+import yowyob.resource.management.services.context.locks.EntityLockManager;
+import yowyob.resource.management.services.context.locks.EntityLockManager.EntityLocks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityLockManagerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EntityLockManager lockManager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lockManager = new EntityLockManager(meterRegistry, 64, 200);
+    }
+
+    @Test
+    void testWaitersAreServedInArrivalOrder() {
+        // Given
+        UUID entityId = UUID.randomUUID();
+        List<String> order = new CopyOnWriteArrayList<>();
+        Sinks.Empty<Void> gate = Sinks.empty();
+
+        // When
+        lockManager.withLock(entityId, () -> gate.asMono().doOnSuccess(v -> order.add("first"))).subscribe();
+        Mono<String> second = lockManager.withLock(entityId, () -> Mono.fromCallable(() -> {
+            order.add("second");
+            return "second";
+        }));
+        Mono<String> third = lockManager.withLock(entityId, () -> Mono.fromCallable(() -> {
+            order.add("third");
+            return "third";
+        }));
+        second.subscribe();
+        third.subscribe();
+        assertTrue(order.isEmpty());
+        gate.tryEmitEmpty();
+
+        // Then
+        assertEquals(List.of("first", "second", "third"), order);
+    }
+
+    @Test
+    void testDisjointEntitiesDoNotWait() {
+        // Given
+        UUID firstEntity = new UUID(0L, 1L);
+        UUID secondEntity = new UUID(0L, 2L);
+        EntityLocks held = lockManager.acquire(List.of(firstEntity)).block();
+
+        // Then
+        StepVerifier.create(lockManager.withLock(secondEntity, () -> Mono.just("done")))
+                .expectNext("done")
+                .verifyComplete();
+        assertNotNull(held);
+        held.release();
+    }
+
+    @Test
+    void testTimeoutReleasesPartiallyAcquiredLocks() {
+        // Given
+        UUID firstEntity = new UUID(0L, 1L);
+        UUID secondEntity = new UUID(0L, 2L);
+        EntityLocks held = lockManager.acquire(List.of(secondEntity)).block();
+
+        // When
+        StepVerifier.create(lockManager.acquire(List.of(firstEntity, secondEntity)))
+                .expectError(EntityLockedException.class)
+                .verify(Duration.ofSeconds(2));
+
+        // Then
+        StepVerifier.create(lockManager.withLock(firstEntity, () -> Mono.just("free")))
+                .expectNext("free")
+                .verifyComplete();
+        assertNotNull(held);
+        held.release();
+        assertEquals(1, meterRegistry.get("entity.lock.wait").tag("outcome", "timeout").timer().count());
+    }
+}
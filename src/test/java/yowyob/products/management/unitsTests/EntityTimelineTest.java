@@ -0,0 +1,206 @@
+package yowyob.products.management.unitsTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import yowyob.resource.management.actions.enums.ActionType;
+import yowyob.resource.management.actions.resource.operations.ResourceDeletionAction;
+import yowyob.resource.management.actions.resource.operations.ResourceReadingAction;
+import yowyob.resource.management.actions.resource.operations.ResourceUpdateAction;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.recurrence.RecurrenceRule;
+import yowyob.resource.management.events.recurrence.RecurringEvent;
+import yowyob.resource.management.events.resource.ResourceEvent;
+import yowyob.resource.management.models.resource.Resource;
+import yowyob.resource.management.models.resource.enums.ResourceStatus;
+import yowyob.resource.management.services.scheduling.EntityTimeline;
+import yowyob.resource.management.services.scheduling.Recurrence;
+import yowyob.resource.management.services.scheduling.ScheduleIndex;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityTimelineTest {
+
+    private UUID entityId;
+    private LocalDateTime base;
+    private EntityTimeline timeline;
+
+    @BeforeEach
+    void setUp() {
+        entityId = UUID.randomUUID();
+        base = LocalDateTime.now().plusDays(1);
+        timeline = new EntityTimeline(entityId);
+    }
+
+    @Test
+    void testNeighboursByTimeAndActionType() {
+        // Given
+        Event firstRead = read(base.plusHours(1));
+        Event deletion = delete(base.plusHours(2));
+        Event secondRead = read(base.plusHours(3));
+        timeline.add(secondRead);
+        timeline.add(firstRead);
+        timeline.add(deletion);
+
+        // Then
+        assertSame(deletion, timeline.lastBefore(base.plusHours(3)));
+        assertSame(firstRead, timeline.lastBefore(base.plusHours(3), ActionType.READ));
+        assertSame(secondRead, timeline.firstAfter(base.plusHours(2)));
+        assertSame(deletion, timeline.firstAfter(base, ActionType.DELETE));
+        assertNull(timeline.lastBefore(base.plusHours(1)));
+        assertNull(timeline.firstAfter(base, ActionType.UPDATE));
+        assertEquals(List.of(firstRead, deletion, secondRead), timeline.asList());
+    }
+
+    @Test
+    void testBoundsAreStrict() {
+        // Given
+        Event read = read(base.plusHours(1));
+        timeline.add(read);
+
+        // Then
+        assertNull(timeline.lastBefore(base.plusHours(1)));
+        assertNull(timeline.firstAfter(base.plusHours(1)));
+        assertSame(read, timeline.lastBefore(base.plusHours(1).plusNanos(1)));
+    }
+
+    @Test
+    void testRemovalUpdatesEveryIndex() {
+        // Given
+        Event sameTimeFirst = read(base.plusHours(1));
+        Event sameTimeSecond = read(base.plusHours(1));
+        timeline.add(sameTimeFirst);
+        timeline.add(sameTimeSecond);
+
+        // When
+        boolean removed = timeline.remove(sameTimeFirst);
+
+        // Then
+        assertTrue(removed);
+        assertFalse(timeline.remove(sameTimeFirst));
+        assertEquals(1, timeline.size());
+        assertSame(sameTimeSecond, timeline.firstAfter(base, ActionType.READ));
+        assertEquals(List.of(sameTimeSecond), timeline.asList());
+    }
+
+    @Test
+    void testStatusFunctionFollowsScheduledUpdates() {
+        // Given
+        Event reservation = update(base.plusHours(1), ResourceStatus.AFFECTED);
+        Event deletion = delete(base.plusHours(3));
+        timeline.add(deletion);
+        timeline.add(reservation);
+
+        // Then
+        assertNull(timeline.statusBefore(base.plusHours(1)));
+        assertEquals(ResourceStatus.AFFECTED, timeline.statusBefore(base.plusHours(2)).status());
+        assertSame(reservation, timeline.statusBefore(base.plusHours(2)).setBy());
+        assertFalse(timeline.statusBefore(base.plusHours(4)).exists());
+
+        // When
+        timeline.remove(reservation);
+
+        // Then
+        assertNull(timeline.statusBefore(base.plusHours(2)));
+    }
+
+    @Test
+    void testExecutedEventLeavesNoCachedStatus() {
+        // Given
+        Event reservation = update(base.plusHours(1), ResourceStatus.AFFECTED);
+        timeline.add(reservation);
+        EntityTimeline copy = timeline.copy();
+
+        // When
+        timeline.remove(reservation);
+
+        // Then
+        assertTrue(timeline.isEmpty());
+        assertNull(timeline.statusBefore(base.plusHours(2)));
+        assertSame(reservation, copy.statusBefore(base.plusHours(2)).setBy());
+    }
+
+    @Test
+    void testRecurrenceTakesPartInTheStatusFunction() {
+        // Given
+        Resource resource = new Resource();
+        resource.setId(entityId);
+        resource.setStatus(ResourceStatus.AFFECTED);
+        RecurringEvent daily = new RecurringEvent(this, new ResourceUpdateAction(resource),
+                RecurrenceRule.parse("FREQ=DAILY;COUNT=365", base.plusHours(1)));
+        Recurrence recurrence = new Recurrence(daily, 0);
+        timeline.addRecurrence(recurrence);
+
+        // When
+        recurrence.firedAt(base.plusDays(9).plusHours(1));
+
+        // Then
+        assertEquals(0, timeline.size());
+        assertFalse(timeline.isEmpty());
+        assertNull(timeline.statusBefore(base.plusDays(10)));
+        assertEquals(ResourceStatus.AFFECTED, timeline.statusBefore(base.plusDays(200)).status());
+        assertEquals(base.plusDays(199).plusHours(1), timeline.lastBefore(base.plusDays(200)).getEventStartDateTime());
+        assertEquals(daily.occurrence(10), timeline.firstAfter(base, ActionType.UPDATE));
+        assertNull(timeline.firstAfter(base.plusDays(365), ActionType.UPDATE));
+    }
+
+    @Test
+    void testEventsAreIdentifiedByTheirId() {
+        // Given
+        Event read = read(base.plusHours(1));
+        Event copy = new ResourceEvent(this, read.getEventId(), new ResourceReadingAction(entityId), read.getEventStartDateTime());
+        Event twin = read(base.plusHours(1));
+        timeline.add(read);
+        timeline.add(twin);
+
+        // When
+        boolean removed = timeline.remove(copy);
+
+        // Then
+        assertTrue(removed);
+        assertNotEquals(read, twin);
+        assertEquals(List.of(twin), timeline.asList());
+    }
+
+    @Test
+    void testPagesFollowTheCursorAcrossTies() {
+        // Given
+        List<Event> sameTime = new ArrayList<>(List.of(read(base.plusHours(1)), read(base.plusHours(1)), read(base.plusHours(1))));
+        Event deletion = delete(base.plusHours(2));
+        Event later = read(base.plusHours(3));
+        sameTime.forEach(timeline::add);
+        timeline.add(deletion);
+        timeline.add(later);
+        sameTime.sort(Comparator.comparing(Event::getEventId));
+
+        // When
+        List<Event> first = timeline.page(base, base.plusHours(3), null, null, 2);
+        List<Event> second = timeline.page(base, base.plusHours(3), null, ScheduleIndex.Slot.of(first.get(1)), 2);
+        List<Event> reads = timeline.page(base, base.plusDays(1), ActionType.READ, ScheduleIndex.Slot.of(sameTime.get(2)), 10);
+
+        // Then
+        assertEquals(sameTime.subList(0, 2), first);
+        assertEquals(List.of(sameTime.get(2), deletion), second);
+        assertEquals(List.of(later), reads);
+    }
+
+    private Event update(LocalDateTime start, ResourceStatus status) {
+        Resource resource = new Resource();
+        resource.setId(entityId);
+        resource.setStatus(status);
+        return new ResourceEvent(this, new ResourceUpdateAction(resource), start);
+    }
+
+    private Event read(LocalDateTime start) {
+        return new ResourceEvent(this, new ResourceReadingAction(entityId), start);
+    }
+
+    private Event delete(LocalDateTime start) {
+        return new ResourceEvent(this, new ResourceDeletionAction(entityId), start);
+    }
+}
@@ -0,0 +1,147 @@
+package yowyob.products.management.unitsTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import yowyob.resource.management.services.scheduling.EventScheduler;
+import yowyob.resource.management.services.scheduling.TimerGroup;
+import yowyob.resource.management.services.scheduling.TimerHandle;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSchedulerTest {
+    private static final Logger logger = LoggerFactory.getLogger(EventSchedulerTest.class);
+
+    private EventScheduler eventScheduler;
+
+    @BeforeEach
+    void setUp() {
+        eventScheduler = new EventScheduler(Runnable::run, 1, 64, 4, 256);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventScheduler.shutdown();
+    }
+
+    @Test
+    void testDueTasksAreFired() throws InterruptedException {
+        // Given
+        CountDownLatch fired = new CountDownLatch(3);
+        Instant now = Instant.now();
+
+        // When
+        eventScheduler.schedule(now.plusMillis(20), fired::countDown);
+        eventScheduler.schedule(now.plusMillis(80), fired::countDown);
+        eventScheduler.schedule(now.minusSeconds(5), fired::countDown);
+
+        // Then
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertEquals(0, eventScheduler.getPendingCount());
+    }
+
+    @Test
+    void testCancelledTasksNeverFire() throws InterruptedException {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch kept = new CountDownLatch(1);
+        Instant at = Instant.now().plusMillis(50);
+        TimerHandle cancelled = eventScheduler.schedule(at, runs::incrementAndGet);
+        eventScheduler.schedule(at.plusMillis(20), kept::countDown);
+
+        // When
+        boolean result = eventScheduler.cancel(cancelled);
+
+        // Then
+        assertTrue(result);
+        assertFalse(eventScheduler.cancel(cancelled));
+        assertTrue(kept.await(2, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertTrue(cancelled.isCancelled());
+    }
+
+    @Test
+    void testGroupedItemsDueOnATickAreFiredTogether() throws InterruptedException {
+        // Given
+        EventScheduler slowTicking = new EventScheduler(Runnable::run, 500, 64, 4, 256);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(300);
+        TimerGroup<Integer> group = items -> {
+            batchSizes.add(items.size());
+            items.forEach(item -> fired.countDown());
+        };
+        Instant due = Instant.now().minusSeconds(1);
+
+        // When
+        for (int i = 0; i < 300; i++) {
+            slowTicking.schedule(due, i, group);
+        }
+
+        // Then
+        try {
+            assertTrue(fired.await(3, TimeUnit.SECONDS));
+            assertEquals(List.of(256, 44), batchSizes);
+        } finally {
+            slowTicking.shutdown();
+        }
+    }
+
+    /**
+     * Schedules then cancels a million far-future tasks on the wheel and on the Spring TaskScheduler path it
+     * replaces. Timings are logged rather than asserted, so the test stays stable on a loaded machine; being a
+     * benchmark, it only runs with the benchmark profile.
+     */
+    @Test
+    @Tag("benchmark")
+    void testMillionPendingEventsAgainstTaskScheduler() {
+        // Given
+        int count = 1_000_000;
+        Instant base = Instant.now().plusSeconds(3600);
+        Runnable task = () -> { };
+
+        // When
+        long wheelStart = System.nanoTime();
+        List<TimerHandle> handles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            handles.add(eventScheduler.schedule(base.plusMillis(i), task));
+        }
+        long wheelScheduled = System.nanoTime();
+        handles.forEach(eventScheduler::cancel);
+        long wheelCancelled = System.nanoTime();
+
+        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(1);
+        taskScheduler.initialize();
+        long schedulerStart = System.nanoTime();
+        List<ScheduledFuture<?>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            futures.add(taskScheduler.schedule(task, base.plusMillis(i)));
+        }
+        long schedulerScheduled = System.nanoTime();
+        futures.forEach(future -> future.cancel(false));
+        long schedulerCancelled = System.nanoTime();
+        taskScheduler.shutdown();
+
+        // Then
+        logger.info("Timing wheel: schedule {} ms, cancel {} ms - TaskScheduler: schedule {} ms, cancel {} ms",
+                TimeUnit.NANOSECONDS.toMillis(wheelScheduled - wheelStart),
+                TimeUnit.NANOSECONDS.toMillis(wheelCancelled - wheelScheduled),
+                TimeUnit.NANOSECONDS.toMillis(schedulerScheduled - schedulerStart),
+                TimeUnit.NANOSECONDS.toMillis(schedulerCancelled - schedulerScheduled));
+        assertEquals(0, eventScheduler.getPendingCount());
+        assertTrue(handles.stream().allMatch(TimerHandle::isCancelled));
+    }
+}
@@ -0,0 +1,129 @@
+package yowyob.products.management.unitsTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import yowyob.resource.management.actions.resource.operations.ResourceDeletionAction;
+import yowyob.resource.management.actions.resource.operations.ResourceUpdateAction;
+import yowyob.resource.management.commons.Command;
+import yowyob.resource.management.models.resource.Resource;
+import yowyob.resource.management.models.resource.enums.ResourceStatus;
+import yowyob.resource.management.repositories.resource.ResourceRepository;
+import yowyob.resource.management.repositories.service.ServiceRepository;
+import yowyob.resource.management.services.context.snapshot.PreImageLoader;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PreImageLoaderTest {
+
+    private ResourceRepository resourceRepository;
+    private ServiceRepository serviceRepository;
+    private PreImageLoader preImageLoader;
+
+    @BeforeEach
+    void setUp() {
+        resourceRepository = mock(ResourceRepository.class);
+        serviceRepository = mock(ServiceRepository.class);
+        preImageLoader = new PreImageLoader(resourceRepository, serviceRepository, 2, 4);
+    }
+
+    @Test
+    void testPreImagesAreLoadedInChunks() {
+        // Given
+        List<Resource> stored = new ArrayList<>();
+        List<Command> commands = new ArrayList<>();
+        for (long i = 1; i <= 5; i++) {
+            Resource resource = resource(new UUID(0L, i));
+            stored.add(resource);
+            commands.add(new ResourceUpdateAction(resource));
+        }
+        when(resourceRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<UUID> ids = invocation.getArgument(0);
+            List<UUID> requested = new ArrayList<>();
+            ids.forEach(requested::add);
+            return Flux.fromIterable(stored).filter(resource -> requested.contains(resource.getId()));
+        });
+
+        // When
+        PreImageSnapshot snapshot = preImageLoader.load(commands).block();
+
+        // Then
+        assertNotNull(snapshot);
+        verify(resourceRepository, times(3)).findAllById(anyIterable());
+        verify(resourceRepository, never()).findById(any(UUID.class));
+        for (Resource resource : stored) {
+            StepVerifier.create(snapshot.getResource(resource.getId()))
+                    .expectNext(resource)
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void testMissingEntitiesAreKnownAsAbsent() {
+        // Given
+        UUID entityId = new UUID(0L, 1L);
+        when(resourceRepository.findAllById(anyIterable())).thenReturn(Flux.empty());
+
+        // When
+        PreImageSnapshot snapshot = preImageLoader.load(List.of(new ResourceDeletionAction(entityId))).block();
+
+        // Then
+        assertNotNull(snapshot);
+        assertTrue(snapshot.containsResource(entityId));
+        StepVerifier.create(snapshot.getResource(entityId)).verifyComplete();
+    }
+
+    @Test
+    void testAppliedActionsUpdateTheSnapshot() {
+        // Given
+        Resource resource = resource(new UUID(0L, 1L));
+        when(resourceRepository.findAllById(anyIterable())).thenReturn(Flux.just(resource));
+        ResourceUpdateAction update = new ResourceUpdateAction(resource(resource.getId()));
+        PreImageSnapshot snapshot = preImageLoader.load(List.of(update)).block();
+        assertNotNull(snapshot);
+
+        // When
+        snapshot.apply(update);
+
+        // Then
+        StepVerifier.create(snapshot.getResource(resource.getId()))
+                .expectNext(update.getResourceToUpdate())
+                .verifyComplete();
+
+        // When
+        snapshot.apply(new ResourceDeletionAction(resource.getId()));
+
+        // Then
+        StepVerifier.create(snapshot.getResource(resource.getId())).verifyComplete();
+    }
+
+    @Test
+    void testDiscardedSnapshotNoLongerServesPreImages() {
+        // Given
+        Resource resource = resource(new UUID(0L, 1L));
+        when(resourceRepository.findAllById(anyIterable())).thenReturn(Flux.just(resource));
+        PreImageSnapshot snapshot = preImageLoader.load(List.of(new ResourceUpdateAction(resource))).block();
+        assertNotNull(snapshot);
+        assertTrue(snapshot.containsResource(resource.getId()));
+
+        // When
+        snapshot.discard();
+
+        // Then
+        assertFalse(snapshot.containsResource(resource.getId()));
+    }
+
+    private static Resource resource(UUID id) {
+        Resource resource = new Resource();
+        resource.setId(id);
+        resource.setStatus(ResourceStatus.FREE);
+        return resource;
+    }
+}
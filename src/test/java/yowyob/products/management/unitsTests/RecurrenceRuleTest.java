@@ -0,0 +1,55 @@
+package yowyob.products.management.unitsTests;
+
+import org.junit.jupiter.api.Test;
+import yowyob.resource.management.events.recurrence.RecurrenceRule;
+import yowyob.resource.management.exceptions.invalid.InvalidEventException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest {
+
+    private final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    @Test
+    void testNeighbourOccurrencesAreComputedFromTheRule() {
+        // Given
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=2;COUNT=10", start);
+
+        // Then
+        assertEquals(9, rule.getLastIndex());
+        assertEquals(start.plusDays(18), rule.occurrence(9));
+        assertEquals(-1, rule.indexBefore(start));
+        assertEquals(0, rule.indexBefore(start.plusNanos(1)));
+        assertEquals(1, rule.indexBefore(start.plusDays(3)));
+        assertEquals(0, rule.indexBefore(start.plusDays(2)));
+        assertEquals(1, rule.indexAfter(start));
+        assertEquals(2, rule.indexAfter(start.plusDays(3)));
+        assertEquals(0, rule.indexAfter(start.minusDays(1)));
+        assertEquals(9, rule.indexBefore(start.plusYears(1)));
+        assertEquals(10, rule.indexAfter(start.plusDays(18)));
+    }
+
+    @Test
+    void testUntilBoundsTheRule() {
+        // Given
+        RecurrenceRule weekly = RecurrenceRule.parse("FREQ=WEEKLY;UNTIL=20300122T080000", start);
+        RecurrenceRule endless = RecurrenceRule.parse("FREQ=HOURLY", start);
+
+        // Then
+        assertEquals(3, weekly.getLastIndex());
+        assertTrue(weekly.isBounded());
+        assertEquals("FREQ=WEEKLY;INTERVAL=1;COUNT=4", weekly.toString());
+        assertFalse(endless.isBounded());
+        assertEquals(start.plusHours(1_000_000), endless.occurrence(endless.indexBefore(start.plusHours(1_000_000).plusSeconds(1))));
+    }
+
+    @Test
+    void testInvalidRulesAreRejected() {
+        assertThrows(InvalidEventException.class, () -> RecurrenceRule.parse("INTERVAL=2", start));
+        assertThrows(InvalidEventException.class, () -> RecurrenceRule.parse("FREQ=YEARLY", start));
+        assertThrows(InvalidEventException.class, () -> RecurrenceRule.parse("FREQ=DAILY;COUNT=0", start));
+        assertThrows(InvalidEventException.class, () -> RecurrenceRule.parse("FREQ=DAILY;UNTIL=2029-12-31T00:00", start));
+    }
+}
@@ -0,0 +1,97 @@
+package yowyob.products.management.unitsTests;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.actions.Action;
+import yowyob.resource.management.actions.ActionOutcome;
+import yowyob.resource.management.actions.resource.operations.ResourceUpdateAction;
+import yowyob.resource.management.models.resource.Resource;
+import yowyob.resource.management.models.resource.enums.ResourceStatus;
+import yowyob.resource.management.repositories.resource.ResourceRepository;
+import yowyob.resource.management.repositories.service.ServiceRepository;
+import yowyob.resource.management.services.context.locks.EntityLockManager;
+import yowyob.resource.management.services.context.locks.EntityLockManager.EntityLocks;
+import yowyob.resource.management.services.context.snapshot.PreImageLoader;
+import yowyob.resource.management.services.context.snapshot.PreImageSnapshot;
+import yowyob.resource.management.services.policy.executors.ResourceExecutorPolicy;
+import yowyob.resource.management.services.resource.ResourceActionExecutor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ResourceActionExecutorTest {
+
+    private ResourceRepository resourceRepository;
+    private EntityLockManager entityLockManager;
+    private ResourceActionExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        resourceRepository = mock(ResourceRepository.class);
+        when(resourceRepository.findAllById(anyIterable())).thenReturn(Flux.empty());
+        when(resourceRepository.save(any(Resource.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        ResourceExecutorPolicy policy = mock(ResourceExecutorPolicy.class);
+        when(policy.isExecutionAllowed(any(Action.class), any(PreImageSnapshot.class))).thenReturn(Mono.just(true));
+
+        entityLockManager = new EntityLockManager(new SimpleMeterRegistry(), 1024, 200);
+        PreImageLoader preImageLoader = new PreImageLoader(resourceRepository, mock(ServiceRepository.class), 100, 4);
+        executor = new ResourceActionExecutor(policy, resourceRepository, entityLockManager, preImageLoader, 16);
+    }
+
+    @Test
+    void testContendedEntityOnlyHoldsBackItsOwnChain() {
+        // Given
+        Action free = new ResourceUpdateAction(resource(new UUID(0L, 1L)));
+        Action contended = new ResourceUpdateAction(resource(new UUID(0L, 2L)));
+        EntityLocks held = entityLockManager.acquire(Set.of(contended.getEntityId())).block();
+
+        // When
+        Map<Action, ActionOutcome> outcomes = executor.executeBatch(List.of(free, contended))
+                .collectMap(ActionOutcome::action, Function.identity())
+                .block();
+        held.release();
+
+        // Then
+        assertNotNull(outcomes);
+        assertEquals(2, outcomes.size());
+        assertTrue(outcomes.get(free).succeeded());
+        assertTrue(outcomes.get(contended).contended());
+        verify(resourceRepository, times(1)).save(any(Resource.class));
+        verify(resourceRepository).save(((ResourceUpdateAction) free).getResourceToUpdate());
+    }
+
+    @Test
+    void testChainsOfFreeEntitiesAllSucceed() {
+        // Given
+        List<Action> actions = List.of(
+                new ResourceUpdateAction(resource(new UUID(0L, 1L))),
+                new ResourceUpdateAction(resource(new UUID(0L, 1L))),
+                new ResourceUpdateAction(resource(new UUID(0L, 2L))));
+
+        // When
+        List<ActionOutcome> outcomes = executor.executeBatch(actions).collectList().block();
+
+        // Then
+        assertNotNull(outcomes);
+        assertEquals(3, outcomes.size());
+        assertTrue(outcomes.stream().allMatch(ActionOutcome::succeeded));
+        assertEquals(Set.copyOf(actions), outcomes.stream().map(ActionOutcome::action).collect(Collectors.toSet()));
+    }
+
+    private static Resource resource(UUID id) {
+        Resource resource = new Resource();
+        resource.setId(id);
+        resource.setStatus(ResourceStatus.FREE);
+        return resource;
+    }
+}
@@ -0,0 +1,93 @@
+package yowyob.products.management.unitsTests;
+
+import org.junit.jupiter.api.Test;
+import yowyob.resource.management.services.bus.RingBuffer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void testItemsComeOutInOfferOrderUntilFull() {
+        // Given
+        RingBuffer<Integer> ring = new RingBuffer<>(3);
+
+        // When
+        for (int i = 0; i < ring.capacity(); i++) {
+            assertTrue(ring.offer(i));
+        }
+
+        // Then
+        assertEquals(4, ring.capacity());
+        assertFalse(ring.offer(99));
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, ring.poll());
+        }
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothing() throws InterruptedException {
+        // Given
+        RingBuffer<Integer> ring = new RingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean stop = new AtomicBoolean(false);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        if (stop.get()) {
+                            return;
+                        }
+                        // Yields rather than spins, so the consumer also runs on a single CPU
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // When
+        Set<Integer> received = new HashSet<>();
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+            Integer item = ring.poll();
+            if (item != null) {
+                assertTrue(received.add(item));
+            } else {
+                Thread.yield();
+            }
+        }
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        // Then
+        assertTrue(threads.stream().noneMatch(Thread::isAlive));
+        assertEquals(producers * perProducer, received.size());
+        assertTrue(ring.isEmpty());
+    }
+}
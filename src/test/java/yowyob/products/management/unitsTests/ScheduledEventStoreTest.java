@@ -0,0 +1,121 @@
+package yowyob.products.management.unitsTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.cassandra.core.ReactiveCassandraBatchOperations;
+import org.springframework.data.cassandra.core.ReactiveCassandraOperations;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.actions.resource.operations.ResourceDeletionAction;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.resource.ResourceEvent;
+import yowyob.resource.management.models.scheduling.ScheduledEventBucket;
+import yowyob.resource.management.models.scheduling.ScheduledEventRecord;
+import yowyob.resource.management.repositories.scheduling.ScheduledEventBucketRepository;
+import yowyob.resource.management.repositories.scheduling.ScheduledEventRepository;
+import yowyob.resource.management.services.scheduling.ScheduledEventStore;
+import yowyob.resource.management.services.strategy.StrategyBuilder;
+import yowyob.resource.management.services.strategy.StrategyConverter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ScheduledEventStoreTest {
+
+    private ReactiveCassandraBatchOperations batch;
+    private ScheduledEventBucketRepository bucketRepository;
+    private ScheduledEventStore store;
+    private final List<Object> inserted = new ArrayList<>();
+    private final List<Object> deleted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReactiveCassandraOperations cassandraOperations = mock(ReactiveCassandraOperations.class);
+        batch = mock(ReactiveCassandraBatchOperations.class);
+        bucketRepository = mock(ScheduledEventBucketRepository.class);
+
+        when(cassandraOperations.batchOps()).thenReturn(batch);
+        when(batch.insert(anyIterable())).thenAnswer(invocation -> {
+            Iterable<?> records = invocation.getArgument(0);
+            records.forEach(inserted::add);
+            return batch;
+        });
+        when(batch.delete(anyIterable())).thenAnswer(invocation -> {
+            Iterable<?> records = invocation.getArgument(0);
+            records.forEach(deleted::add);
+            return batch;
+        });
+        when(batch.execute()).thenReturn(Mono.empty());
+        when(bucketRepository.save(any(ScheduledEventBucket.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // A long flush period keeps the background flush out of the way
+        store = new ScheduledEventStore(cassandraOperations, mock(ScheduledEventRepository.class), bucketRepository,
+                new StrategyBuilder(), new StrategyConverter(), 16, 100, 4, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void testStoredEventIsRestoredWithItsId() {
+        // Given
+        Event event = event(new UUID(0L, 1L));
+
+        // When
+        store.save(event);
+        store.flush().block();
+
+        // Then
+        assertEquals(1, inserted.size());
+        Event restored = store.decode((ScheduledEventRecord) inserted.get(0));
+        assertEquals(event.getEventId(), restored.getEventId());
+        assertEquals(event.getEventStartDateTime(), restored.getEventStartDateTime());
+        assertEquals(event, restored);
+        verify(bucketRepository, times(1)).save(any(ScheduledEventBucket.class));
+    }
+
+    @Test
+    void testOnlyTheLatestMutationOfAnEventIsWritten() {
+        // Given
+        Event event = event(new UUID(0L, 1L));
+
+        // When
+        store.save(event);
+        store.delete(event);
+        store.flush().block();
+
+        // Then
+        assertTrue(inserted.isEmpty());
+        assertEquals(1, deleted.size());
+        verify(bucketRepository, never()).save(any(ScheduledEventBucket.class));
+    }
+
+    @Test
+    void testFailedBatchIsRetriedAtNextFlush() {
+        // Given
+        when(batch.execute()).thenReturn(Mono.error(new IllegalStateException("unavailable")), Mono.empty());
+        store.save(event(new UUID(0L, 1L)));
+
+        // When
+        store.flush().block();
+        boolean pendingAfterFailure = store.hasPending();
+        store.flush().block();
+
+        // Then
+        assertTrue(pendingAfterFailure);
+        assertFalse(store.hasPending());
+        assertEquals(2, inserted.size());
+    }
+
+    private Event event(UUID entityId) {
+        return new ResourceEvent(this, new ResourceDeletionAction(entityId), LocalDateTime.now().plusHours(1));
+    }
+}
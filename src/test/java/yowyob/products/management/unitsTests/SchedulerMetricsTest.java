@@ -0,0 +1,70 @@
+package yowyob.products.management.unitsTests;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import yowyob.resource.management.events.enums.EventClass;
+import yowyob.resource.management.exceptions.policy.UpdaterPolicyViolationException;
+import yowyob.resource.management.services.scheduling.SchedulerMetrics;
+import yowyob.resource.management.services.scheduling.SchedulerMetrics.Reason;
+import yowyob.resource.management.services.scheduling.SchedulerMetrics.Stage;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SchedulerMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Map<UUID, Object> armedEvents;
+    private SchedulerMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        armedEvents = new ConcurrentHashMap<>();
+        metrics = new SchedulerMetrics(meterRegistry, EventClass.Resource, armedEvents);
+    }
+
+    @Test
+    void testPendingGaugeFollowsArmedEvents() {
+        // When
+        armedEvents.put(UUID.randomUUID(), new Object());
+        armedEvents.put(UUID.randomUUID(), new Object());
+
+        // Then
+        assertEquals(2.0, meterRegistry.get("scheduler.events.pending").tag("class", "Resource").gauge().value());
+    }
+
+    @Test
+    void testRejectionsAreCountedByStageAndReason() {
+        // When
+        metrics.recordRejection(Stage.SCHEDULE, Reason.NOT_ALLOWED);
+        metrics.recordRejection(Stage.SCHEDULE, mock(UpdaterPolicyViolationException.class));
+        metrics.recordRejection(Stage.FIRE, new IllegalStateException("boom"));
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("scheduler.events.rejected")
+                .tags("stage", "schedule", "reason", "not_allowed").counter().count());
+        assertEquals(1.0, meterRegistry.get("scheduler.events.rejected")
+                .tags("stage", "schedule", "reason", "updater_policy").counter().count());
+        assertEquals(1.0, meterRegistry.get("scheduler.events.rejected")
+                .tags("stage", "fire", "reason", "error").counter().count());
+    }
+
+    @Test
+    void testFireLagIsMeasuredFromTheEventStart() {
+        // When
+        metrics.recordFireLag(System.currentTimeMillis() - 1_000);
+        metrics.recordTimelineSize(3);
+
+        // Then
+        assertEquals(1, meterRegistry.get("scheduler.fire.lag").timer().count());
+        assertTrue(meterRegistry.get("scheduler.fire.lag").timer().max(TimeUnit.MILLISECONDS) >= 1_000);
+        assertEquals(3.0, meterRegistry.get("scheduler.timeline.size").summary().totalAmount());
+    }
+}
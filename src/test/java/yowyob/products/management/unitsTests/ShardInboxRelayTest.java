@@ -0,0 +1,106 @@
+package yowyob.products.management.unitsTests;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import yowyob.resource.management.actions.resource.operations.ResourceDeletionAction;
+import yowyob.resource.management.events.Event;
+import yowyob.resource.management.events.resource.ResourceEvent;
+import yowyob.resource.management.exceptions.ShardNotHeldException;
+import yowyob.resource.management.services.context.locks.EntityLockManager;
+import yowyob.resource.management.services.policy.updaters.ResourceUpdaterPolicy;
+import yowyob.resource.management.services.resource.ResourceActionExecutor;
+import yowyob.resource.management.services.resource.ResourceUpdater;
+import yowyob.resource.management.services.scheduling.EntityTimeline;
+import yowyob.resource.management.services.scheduling.EventScheduler;
+import yowyob.resource.management.services.scheduling.RecurringEventStore;
+import yowyob.resource.management.services.scheduling.ScheduledEventStore;
+import yowyob.resource.management.services.scheduling.SchedulerShards;
+import yowyob.resource.management.services.scheduling.lease.InMemoryShardInbox;
+import yowyob.resource.management.services.scheduling.lease.ShardInboxRelay;
+import yowyob.resource.management.services.service.ServiceUpdater;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ShardInboxRelayTest {
+    private static final int SHARDS = 8;
+
+    private InMemoryShardInbox inbox;
+
+    @BeforeEach
+    void setUp() {
+        inbox = new InMemoryShardInbox();
+    }
+
+    @Test
+    void testEventOfAForeignShardIsScheduledByItsHolder() {
+        // Given
+        Node receiving = new Node();
+        Node holder = new Node();
+        Event event = event(new UUID(0L, 1L));
+        int shard = receiving.shards.shardOf(event.getEntityId());
+
+        // When
+        receiving.updater.handleEvent(event).block();
+        receiving.relay.poll().block();
+        Long waiting = inbox.pending(shard).count().block();
+        holder.holdAll();
+        holder.relay.poll().block();
+
+        // Then
+        assertNull(receiving.updater.getScheduledEvent(event.getEventId()));
+        assertEquals(1L, waiting);
+        assertNotNull(holder.updater.getScheduledEvent(event.getEventId()));
+        verify(holder.policy).isExecutionAllowed(any(Event.class), any(EntityTimeline.class));
+        verify(holder.store).save(event);
+        assertEquals(0L, inbox.pending(shard).count().block());
+    }
+
+    @Test
+    void testForcedEventOfAForeignShardIsRejected() {
+        // Given
+        Node receiving = new Node();
+        Event event = event(new UUID(0L, 2L));
+        int shard = receiving.shards.shardOf(event.getEntityId());
+
+        // When / Then
+        assertThrows(ShardNotHeldException.class, () -> receiving.updater.forceEventScheduling(event).block());
+        assertNull(receiving.updater.getScheduledEvent(event.getEventId()));
+        verify(receiving.store, never()).save(any(Event.class));
+        assertEquals(0L, inbox.pending(shard).count().block());
+    }
+
+    private static Event event(UUID entityId) {
+        return new ResourceEvent(ShardInboxRelayTest.class, new ResourceDeletionAction(entityId), LocalDateTime.now().plusHours(1));
+    }
+
+    private class Node {
+        private final SchedulerShards shards = new SchedulerShards(SHARDS);
+        private final ResourceUpdaterPolicy policy = mock(ResourceUpdaterPolicy.class);
+        private final ScheduledEventStore store = mock(ScheduledEventStore.class);
+        private final ResourceUpdater updater;
+        private final ShardInboxRelay relay;
+
+        private Node() {
+            when(policy.isExecutionAllowed(any(Event.class), any(EntityTimeline.class))).thenReturn(Mono.just(true));
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            this.updater = new ResourceUpdater(policy, mock(ResourceActionExecutor.class), mock(EventScheduler.class),
+                    new EntityLockManager(meterRegistry, 16, 1000), shards, inbox, store,
+                    mock(RecurringEventStore.class), meterRegistry, 3, 1000);
+            this.relay = new ShardInboxRelay(inbox, shards, updater, mock(ServiceUpdater.class), 1000);
+        }
+
+        private void holdAll() {
+            for (int shard = 0; shard < SHARDS; shard++) {
+                shards.hold(shard, System.nanoTime() + TimeUnit.MINUTES.toNanos(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package yowyob.products.management.unitsTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import yowyob.resource.management.services.resource.ResourceUpdater;
+import yowyob.resource.management.services.scheduling.ScheduledEventLoader;
+import yowyob.resource.management.services.scheduling.SchedulerShards;
+import yowyob.resource.management.services.scheduling.lease.InMemoryLeaseStore;
+import yowyob.resource.management.services.scheduling.lease.ShardLeaseManager;
+import yowyob.resource.management.services.service.ServiceUpdater;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+class ShardLeaseManagerTest {
+    private static final int SHARDS = 8;
+    private static final long TTL_MS = 3000;
+
+    private MutableClock clock;
+    private InMemoryLeaseStore leaseStore;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        leaseStore = new InMemoryLeaseStore(clock);
+    }
+
+    @Test
+    void testSingleNodeTakesEveryShardAndLoadsThem() {
+        // Given
+        Node node = new Node("node-a");
+
+        // When
+        node.manager.round().block();
+
+        // Then
+        assertEquals(SHARDS, node.shards.getHeld().size());
+        verify(node.loader).restoreShards(node.shards.getHeld());
+    }
+
+    @Test
+    void testShardsAreSplitBetweenNodesWithoutOverlap() {
+        // Given
+        Node first = new Node("node-a");
+        Node second = new Node("node-b");
+        first.manager.round().block();
+
+        // When
+        for (int i = 0; i < SHARDS; i++) {
+            second.manager.round().block();
+            first.manager.round().block();
+        }
+
+        // Then
+        assertEquals(SHARDS / 2, first.shards.getHeld().size());
+        assertEquals(SHARDS / 2, second.shards.getHeld().size());
+        Set<Integer> overlap = new HashSet<>(first.shards.getHeld());
+        overlap.retainAll(second.shards.getHeld());
+        assertTrue(overlap.isEmpty());
+        verify(first.resourceUpdater, times(SHARDS / 2)).evictShard(anyInt());
+    }
+
+    @Test
+    void testShardsOfAStoppedNodeAreTakenOverOnceTheirLeaseLapses() {
+        // Given
+        Node first = new Node("node-a");
+        Node second = new Node("node-b");
+        first.manager.round().block();
+        second.manager.round().block();
+        assertTrue(second.shards.getHeld().isEmpty());
+
+        // When
+        clock.advance(Duration.ofMillis(TTL_MS / 2));
+        second.manager.round().block();
+        boolean takenBeforeExpiry = !second.shards.getHeld().isEmpty();
+        clock.advance(Duration.ofMillis(TTL_MS));
+        second.manager.round().block();
+
+        // Then
+        assertFalse(takenBeforeExpiry);
+        assertEquals(SHARDS, second.shards.getHeld().size());
+        verify(second.loader).restoreShards(anySet());
+    }
+
+    private class Node {
+        private final SchedulerShards shards = new SchedulerShards(SHARDS);
+        private final ScheduledEventLoader loader = mock(ScheduledEventLoader.class);
+        private final ResourceUpdater resourceUpdater = mock(ResourceUpdater.class);
+        private final ShardLeaseManager manager;
+
+        private Node(String nodeId) {
+            this.manager = new ShardLeaseManager(leaseStore, shards, loader, resourceUpdater,
+                    mock(ServiceUpdater.class), nodeId, TTL_MS);
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
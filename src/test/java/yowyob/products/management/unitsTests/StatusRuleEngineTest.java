@@ -0,0 +1,102 @@
+package yowyob.products.management.unitsTests;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import yowyob.resource.management.models.resource.enums.ResourceStatus;
+import yowyob.resource.management.models.service.enums.ServiceStatus;
+import yowyob.resource.management.services.policy.validators.rules.StatusRuleEngine;
+import yowyob.resource.management.services.policy.validators.rules.StatusRules;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusRuleEngineTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testCompiledRulesMatchTheConfiguration() {
+        // Given
+        Properties properties = new Properties();
+        properties.setProperty("resource.transitions.FREE", "FREE, AFFECTED");
+        properties.setProperty("resource.transitions.IN_USE", "FREE");
+        properties.setProperty("resource.deletable", "FREE");
+
+        // When
+        StatusRules<ResourceStatus> rules = StatusRules.compile(ResourceStatus.class, properties, "resource");
+
+        // Then
+        assertTrue(rules.isTransitionAllowed(ResourceStatus.FREE, ResourceStatus.AFFECTED));
+        assertTrue(rules.isTransitionAllowed(ResourceStatus.IN_USE, ResourceStatus.FREE));
+        assertFalse(rules.isTransitionAllowed(ResourceStatus.FREE, ResourceStatus.IN_USE));
+        assertFalse(rules.isTransitionAllowed(ResourceStatus.AFFECTED, ResourceStatus.FREE));
+        assertTrue(rules.isDeletionAllowed(ResourceStatus.FREE));
+        assertFalse(rules.isDeletionAllowed(ResourceStatus.IN_USE));
+    }
+
+    @Test
+    void testUnknownStatusIsRejected() {
+        // Given
+        Properties properties = new Properties();
+        properties.setProperty("service.transitions.PLANNED", "PUBLISHED,ARCHIVED");
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+                () -> StatusRules.compile(ServiceStatus.class, properties, "service"));
+    }
+
+    @Test
+    void testReloadSwapsValidRulesAndKeepsThePreviousOnesOtherwise() throws IOException {
+        // Given
+        Path file = directory.resolve("policy-rules.properties");
+        Files.writeString(file, "resource.transitions.FREE=AFFECTED\n");
+        StatusRuleEngine engine = new StatusRuleEngine(new DefaultResourceLoader(), file.toUri().toString(), 0);
+
+        // When
+        boolean unchanged = engine.reload();
+        Files.writeString(file, "resource.transitions.FREE=IN_USE\n");
+        boolean changed = engine.reload();
+
+        // Then
+        assertFalse(unchanged);
+        assertTrue(changed);
+        assertTrue(engine.getResourceRules().isTransitionAllowed(ResourceStatus.FREE, ResourceStatus.IN_USE));
+        assertFalse(engine.getResourceRules().isTransitionAllowed(ResourceStatus.FREE, ResourceStatus.AFFECTED));
+
+        // When
+        Files.writeString(file, "resource.transitions.FREE=RETIRED\n");
+
+        // Then
+        assertFalse(engine.reload());
+        assertTrue(engine.getResourceRules().isTransitionAllowed(ResourceStatus.FREE, ResourceStatus.IN_USE));
+    }
+
+    @Test
+    void testBundledRulesApplyUntilTheFileExists() throws IOException {
+        // Given
+        Path file = directory.resolve("policy-rules.properties");
+        StatusRuleEngine engine = new StatusRuleEngine(new DefaultResourceLoader(), file.toUri().toString(), 0);
+
+        // When
+        boolean missing = engine.reload();
+
+        // Then
+        assertFalse(missing);
+        assertTrue(engine.getResourceRules().isTransitionAllowed(ResourceStatus.FREE, ResourceStatus.AFFECTED));
+        assertFalse(engine.getResourceRules().isTransitionAllowed(ResourceStatus.FREE, ResourceStatus.IN_USE));
+
+        // When
+        Files.writeString(file, "resource.transitions.FREE=IN_USE\n");
+
+        // Then
+        assertTrue(engine.reload());
+        assertTrue(engine.getResourceRules().isTransitionAllowed(ResourceStatus.FREE, ResourceStatus.IN_USE));
+        assertFalse(engine.getResourceRules().isTransitionAllowed(ResourceStatus.FREE, ResourceStatus.AFFECTED));
+    }
+}
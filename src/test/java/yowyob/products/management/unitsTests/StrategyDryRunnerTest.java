@@ -0,0 +1,91 @@
+package yowyob.products.management.unitsTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import yowyob.resource.management.actions.resource.operations.ResourceCreationAction;
+import yowyob.resource.management.actions.resource.operations.ResourceUpdateAction;
+import yowyob.resource.management.commons.Command;
+import yowyob.resource.management.models.resource.Resource;
+import yowyob.resource.management.models.resource.enums.ResourceStatus;
+import yowyob.resource.management.repositories.resource.ResourceRepository;
+import yowyob.resource.management.repositories.service.ServiceRepository;
+import yowyob.resource.management.services.context.snapshot.PreImageLoader;
+import yowyob.resource.management.services.policy.BatchPolicyEvaluator;
+import yowyob.resource.management.services.policy.executors.ResourceExecutorPolicy;
+import yowyob.resource.management.services.policy.executors.ServiceExecutorPolicy;
+import yowyob.resource.management.services.policy.updaters.ResourceUpdaterPolicy;
+import yowyob.resource.management.services.policy.updaters.ServiceUpdaterPolicy;
+import yowyob.resource.management.services.policy.validators.operations.ResourceStatusBasedOperationValidator;
+import yowyob.resource.management.services.policy.validators.transition.ResourceTransitionValidator;
+import yowyob.resource.management.services.resource.ResourceUpdater;
+import yowyob.resource.management.services.service.ServiceUpdater;
+import yowyob.resource.management.services.strategy.StrategyConverter;
+import yowyob.resource.management.services.strategy.StrategyDryRunner;
+import yowyob.resource.management.services.strategy.StrategyResult;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class StrategyDryRunnerTest {
+
+    private ResourceRepository resourceRepository;
+    private ResourceUpdater resourceUpdater;
+    private StrategyDryRunner dryRunner;
+
+    @BeforeEach
+    void setUp() {
+        resourceRepository = mock(ResourceRepository.class);
+        resourceUpdater = mock(ResourceUpdater.class);
+        ResourceTransitionValidator transitionValidator = mock(ResourceTransitionValidator.class);
+        when(transitionValidator.isTransitionAllowed(any(), any())).thenReturn(true);
+
+        BatchPolicyEvaluator evaluator = new BatchPolicyEvaluator(
+                new ResourceExecutorPolicy(resourceRepository, transitionValidator,
+                        mock(ResourceStatusBasedOperationValidator.class)),
+                mock(ServiceExecutorPolicy.class), mock(ResourceUpdaterPolicy.class), mock(ServiceUpdaterPolicy.class),
+                resourceUpdater, mock(ServiceUpdater.class));
+        PreImageLoader preImageLoader = new PreImageLoader(resourceRepository, mock(ServiceRepository.class), 100, 4);
+        dryRunner = new StrategyDryRunner(mock(StrategyConverter.class), preImageLoader, evaluator);
+    }
+
+    @Test
+    void testDryRunReportsEveryVerdictWithoutSideEffects() {
+        // Given
+        UUID entityId = new UUID(0L, 1L);
+        UUID missingId = new UUID(0L, 2L);
+        when(resourceRepository.findAllById(anyIterable())).thenReturn(Flux.empty());
+        List<Command> commands = List.of(
+                new ResourceCreationAction(resource(entityId)),
+                new ResourceUpdateAction(resource(entityId)),
+                new ResourceUpdateAction(resource(missingId)));
+
+        // When
+        StrategyResult result = dryRunner.dryRun(commands).block();
+
+        // Then
+        assertNotNull(result);
+        assertTrue(result.isDryRun());
+        assertFalse(result.isSuccess());
+        assertEquals(3, result.getMessages().size());
+        assertTrue(result.getMessages().get(0).contains("verdict : ALLOWED in"));
+        assertTrue(result.getMessages().get(1).contains("verdict : ALLOWED in"));
+        assertTrue(result.getMessages().get(2).contains("verdict : DENIED in"));
+        assertNotNull(result.getError());
+        verify(resourceRepository, never()).save(any(Resource.class));
+        verify(resourceRepository, never()).findById(any(UUID.class));
+        verifyNoInteractions(resourceUpdater);
+    }
+
+    private static Resource resource(UUID id) {
+        Resource resource = new Resource();
+        resource.setId(id);
+        resource.setStatus(ResourceStatus.FREE);
+        return resource;
+    }
+}
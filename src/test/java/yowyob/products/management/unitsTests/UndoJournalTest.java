@@ -0,0 +1,186 @@
+package yowyob.products.management.unitsTests;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import yowyob.resource.management.services.context.journal.JournaledStrategy;
+import yowyob.resource.management.services.context.journal.UndoJournal;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UndoJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testOnlyUnfinishedStrategiesAreReplayed() throws Exception {
+        // Given
+        UUID committed = UUID.randomUUID();
+        UUID aborted = UUID.randomUUID();
+        UUID interrupted = UUID.randomUUID();
+
+        UndoJournal journal = new UndoJournal(directory.toString(), 1, 5, 600000);
+        journal.begin(committed);
+        journal.appendUndoAction(committed, bytes("committed"));
+        journal.begin(interrupted);
+        journal.appendUndoAction(interrupted, bytes("first"));
+        journal.begin(aborted);
+        journal.appendUndoEvent(aborted, bytes("event"));
+        journal.commit(committed);
+        journal.appendUndoAction(interrupted, bytes("second"));
+        journal.abort(aborted);
+        journal.close();
+
+        // When
+        UndoJournal reopened = new UndoJournal(directory.toString(), 1, 5, 600000);
+        List<JournaledStrategy> incomplete = reopened.getIncompleteStrategies();
+        reopened.close();
+
+        // Then
+        assertEquals(1, incomplete.size());
+        JournaledStrategy strategy = incomplete.getFirst();
+        assertEquals(interrupted, strategy.getStrategyId());
+        assertEquals(List.of("first", "second"), strategy.getUndoActions().stream()
+                .map(payload -> new String(payload, StandardCharsets.UTF_8))
+                .toList());
+    }
+
+    @Test
+    void testRecordsSpanningSeveralSegmentsAreReplayed() throws Exception {
+        // Given
+        UUID interrupted = UUID.randomUUID();
+        byte[] payload = new byte[300 * 1024];
+
+        UndoJournal journal = new UndoJournal(directory.toString(), 1, 5, 600000);
+        journal.begin(interrupted);
+        for (int i = 0; i < 8; i++) {
+            journal.appendUndoAction(interrupted, payload);
+        }
+        journal.close();
+
+        // When
+        UndoJournal reopened = new UndoJournal(directory.toString(), 1, 5, 600000);
+        List<JournaledStrategy> incomplete = reopened.getIncompleteStrategies();
+        reopened.close();
+
+        // Then
+        assertEquals(1, incomplete.size());
+        assertEquals(8, incomplete.getFirst().getUndoActions().size());
+    }
+
+    @Test
+    void testStrandedStrategyIsCarriedForwardAndReplayedOnce() throws Exception {
+        // Given
+        UUID stranded = UUID.randomUUID();
+        byte[] payload = new byte[300 * 1024];
+
+        UndoJournal journal = new UndoJournal(directory.toString(), 1, 5, 600000);
+        journal.begin(stranded);
+        journal.appendUndoAction(stranded, bytes("first"));
+        journal.appendUndoEvent(stranded, bytes("event"));
+        journal.strand(stranded);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            UUID committed = UUID.randomUUID();
+            journal.begin(committed);
+            journal.appendUndoAction(committed, payload);
+            journal.commit(committed);
+        }
+        journal.close();
+        long segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.count();
+        }
+        UndoJournal reopened = new UndoJournal(directory.toString(), 1, 5, 600000);
+        List<JournaledStrategy> incomplete = reopened.getIncompleteStrategies();
+        reopened.close();
+
+        // Then
+        assertTrue(segments <= 2, "the stranded strategy should not pin the sealed segments");
+        assertEquals(1, incomplete.size());
+        JournaledStrategy strategy = incomplete.getFirst();
+        assertEquals(stranded, strategy.getStrategyId());
+        assertEquals(List.of("first"), strategy.getUndoActions().stream()
+                .map(value -> new String(value, StandardCharsets.UTF_8))
+                .toList());
+        assertEquals(1, strategy.getUndoEvents().size());
+    }
+
+    @Test
+    void testRolledBackChainsAreReplayed() throws Exception {
+        // Given
+        UUID stranded = UUID.randomUUID();
+        UUID rolledBack = UUID.randomUUID();
+
+        UndoJournal journal = new UndoJournal(directory.toString(), 1, 5, 600000);
+        journal.begin(stranded);
+        journal.appendUndoAction(stranded, bytes("first"));
+        journal.appendUndoAction(stranded, bytes("second"));
+        journal.chainDone(stranded, rolledBack);
+        journal.strand(stranded);
+        journal.close();
+
+        // When
+        UndoJournal reopened = new UndoJournal(directory.toString(), 1, 5, 600000);
+        List<JournaledStrategy> incomplete = reopened.getIncompleteStrategies();
+        reopened.close();
+
+        // Then
+        assertEquals(1, incomplete.size());
+        assertEquals(Set.of(rolledBack), incomplete.getFirst().getRolledBackEntities());
+        assertEquals(2, incomplete.getFirst().getUndoActions().size());
+    }
+
+    @Test
+    void testStrategyAppendingWhileCarriedForwardKeepsItsRecordsInOrder() throws Exception {
+        // Given
+        UUID overaged = UUID.randomUUID();
+        byte[] payload = new byte[300 * 1024];
+
+        // Every strategy is overaged, so it is carried forward after each roll while it still appends
+        UndoJournal journal = new UndoJournal(directory.toString(), 1, 5, 0);
+        journal.begin(overaged);
+        for (int i = 0; i < 12; i++) {
+            journal.appendUndoAction(overaged, bytes("undo-" + i));
+            UUID committed = UUID.randomUUID();
+            journal.begin(committed);
+            journal.appendUndoAction(committed, payload);
+            journal.commit(committed);
+        }
+        journal.close();
+
+        // When
+        UndoJournal reopened = new UndoJournal(directory.toString(), 1, 5, 0);
+        List<JournaledStrategy> incomplete = reopened.getIncompleteStrategies();
+        reopened.close();
+
+        // Then
+        assertEquals(1, incomplete.size());
+        assertEquals(overaged, incomplete.getFirst().getStrategyId());
+        assertEquals(IntStream.range(0, 12).mapToObj(i -> "undo-" + i).toList(),
+                incomplete.getFirst().getUndoActions().stream()
+                        .map(value -> new String(value, StandardCharsets.UTF_8))
+                        .toList());
+    }
+
+    @Test
+    void testSegmentSizeMustFitInAMapping() {
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> new UndoJournal(directory.toString(), 2048, 5, 600000));
+        assertThrows(IllegalArgumentException.class, () -> new UndoJournal(directory.toString(), 0, 5, 600000));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}